@@ -0,0 +1,130 @@
+package cs1302.game;
+
+import cs1302.game.MinesweeperGame;
+import java.io.File;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.util.Random;
+
+/**
+ * This class represent a AdjacencyBenchmark object. The {@code AdjacencyBenchmark} class
+ * compares the tiled mine bit count used by {@link MinesweeperGame#getNumAdjMines(int,int)}
+ * against the old scan over every mine in the seed. Both versions are asked about the same
+ * random squares and the answers are checked against each other before any timing is printed.
+ *
+ * <p>
+ * Compile and run from the project root:
+ * <pre>
+ * javac -encoding UTF-8 -d bin src/cs1302/game/*.java bench/cs1302/game/*.java
+ * java -cp bin cs1302.game.AdjacencyBenchmark ROWS COLS MINES LOOKUPS
+ * </pre>
+ * Every argument is optional. The defaults are a 2000 x 2000 board with 800000 mines.
+ */
+public class AdjacencyBenchmark {
+
+    /**
+     * The main method of the {@code AdjacencyBenchmark} program. Writes a random seed file,
+     * loads it into a {@code MinesweeperGame} and times both ways of counting adjacent mines.
+     * @param args optional rows, columns, mines and number of lookups.
+     * @throws IOException when the temporary seed file cannot be written.
+     */
+    public static void main(String[] args) throws IOException {
+        int rows = args.length > 0 ? Integer.parseInt(args[0]) : 2000;
+        int cols = args.length > 1 ? Integer.parseInt(args[1]) : 2000;
+        int numOfMines = args.length > 2 ? Integer.parseInt(args[2]) : 800000;
+        int lookups = args.length > 3 ? Integer.parseInt(args[3]) : 2000;
+        Random random = new Random(1302);
+        int[][] mines = randomMines(random, rows, cols, numOfMines);
+        File seed = File.createTempFile("adjacency", ".txt");
+        seed.deleteOnExit();
+        PrintWriter writer = new PrintWriter(seed);
+        writer.print(rows + " " + cols + "\n" + numOfMines + "\n");
+        for (int i = 0; i < mines.length; i++) {
+            writer.print(mines[i][0] + " " + mines[i][1] + "\n");
+        } //for
+        writer.close();
+
+        long start = System.nanoTime();
+        MinesweeperGame game = new MinesweeperGame(seed.getPath());
+        long loadTime = System.nanoTime() - start;
+
+        int[] squares = new int[lookups * 2];
+        for (int i = 0; i < squares.length; i += 2) {
+            squares[i] = random.nextInt(rows);
+            squares[i + 1] = random.nextInt(cols);
+        } //for
+        for (int i = 0; i < squares.length; i += 2) {
+            if (game.getNumAdjMines(squares[i], squares[i + 1])
+                != scanAdjMines(mines, squares[i], squares[i + 1])) {
+                System.err.println("Mismatch at " + squares[i] + " " + squares[i + 1]);
+                System.exit(1);
+            } //if
+        } //for
+
+        long sink = 0;
+        start = System.nanoTime();
+        for (int i = 0; i < squares.length; i += 2) {
+            sink += scanAdjMines(mines, squares[i], squares[i + 1]);
+        } //for
+        long scanTime = System.nanoTime() - start;
+        start = System.nanoTime();
+        for (int repeat = 0; repeat < 1000; repeat++) {
+            for (int i = 0; i < squares.length; i += 2) {
+                sink += game.getNumAdjMines(squares[i], squares[i + 1]);
+            } //for
+        } //for
+        long gridTime = System.nanoTime() - start;
+
+        System.out.printf("board %d x %d, %d mines, %d lookups (checksum %d)%n",
+                          rows, cols, numOfMines, lookups, sink);
+        System.out.printf("  seed load + grid build: %10.2f ms%n", loadTime / 1e6);
+        System.out.printf("  mine scan:              %10.1f ns/lookup%n",
+                          (double) scanTime / lookups);
+        System.out.printf("  tile bit count:         %10.1f ns/lookup%n",
+                          (double) gridTime / lookups / 1000);
+        System.exit(0);
+    } //main
+
+    /**
+     * Pick {@code numOfMines} distinct squares on a {@code rows} x {@code cols} board.
+     * @param random the random number generator to use.
+     * @param rows the number of rows on the board.
+     * @param cols the number of columns on the board.
+     * @param numOfMines the number of mines to place.
+     * @return the row and column of each mine.
+     */
+    static int[][] randomMines(Random random, int rows, int cols, int numOfMines) {
+        boolean[] taken = new boolean[rows * cols];
+        int[][] mines = new int[numOfMines][2];
+        for (int i = 0; i < numOfMines; i++) {
+            int cell = random.nextInt(rows * cols);
+            while (taken[cell]) {
+                cell = random.nextInt(rows * cols);
+            } //while
+            taken[cell] = true;
+            mines[i][0] = cell / cols;
+            mines[i][1] = cell % cols;
+        } //for
+        return mines;
+    } //method
+
+    /**
+     * The mine count as it was computed before the mines were kept on a grid: every
+     * mine in the seed is compared against the eight squares around the given square.
+     * @param mines the row and column of each mine.
+     * @param row the x value of the square.
+     * @param col the y value of the square.
+     * @return the number of mines touching the square.
+     */
+    static int scanAdjMines(int[][] mines, int row, int col) {
+        int numAdjMines = 0;
+        for (int i = 0; i < mines.length; i++) {
+            int x = mines[i][0] - row;
+            int y = mines[i][1] - col;
+            if (x >= -1 && x <= 1 && y >= -1 && y <= 1 && (x != 0 || y != 0)) {
+                numAdjMines++;
+            } //if
+        } //for
+        return numAdjMines;
+    } //method
+} //class
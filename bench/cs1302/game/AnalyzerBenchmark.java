@@ -0,0 +1,89 @@
+package cs1302.game;
+
+import cs1302.game.MineGenerator;
+import cs1302.game.MinesweeperGame;
+import cs1302.game.ProbabilityAnalyzer;
+import cs1302.game.SeedWriter;
+import java.io.File;
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.SplittableRandom;
+
+/**
+ * This class represent a AnalyzerBenchmark object. The {@code AnalyzerBenchmark} class times
+ * the {@link ProbabilityAnalyzer} on a large, partly played board with every number of threads
+ * from 1 up to the number of processors, doubling each time, and reports the speedup over one
+ * thread. The board comes from a fixed seed, and squares away from the mines are revealed on a
+ * sparse grid, so the frontier breaks into many components of different sizes and shapes.
+ *
+ * <p>
+ * Compile and run from the project root:
+ * <pre>
+ * javac -encoding UTF-8 -d bin src/cs1302/game/*.java bench/cs1302/game/*.java
+ * java -Xmx2g -cp bin cs1302.game.AnalyzerBenchmark SIDE DENSITY RUNS
+ * </pre>
+ * Every argument is optional. The defaults are a 1000 x 1000 board, a mine density of 0.2
+ * and 3 runs per thread count, of which the fastest is kept. One run is made first to warm up.
+ */
+public class AnalyzerBenchmark {
+
+    /**
+     * The main method of the {@code AnalyzerBenchmark} program.
+     * @param args the optional side, density and number of runs.
+     * @throws IOException when a temporary seed file cannot be written.
+     */
+    public static void main(String[] args) throws IOException {
+        int side = args.length > 0 ? Integer.parseInt(args[0]) : 1000;
+        double density = args.length > 1 ? Double.parseDouble(args[1]) : 0.2;
+        int runs = args.length > 2 ? Integer.parseInt(args[2]) : 3;
+        SplittableRandom random = new SplittableRandom(1302);
+        MineGenerator generator = new MineGenerator(side, side, random);
+        File seed = File.createTempFile("analyze", ".bin");
+        seed.deleteOnExit();
+        SeedWriter.writeBinary(seed, side, side, generator.placeMines((int) (density * side
+                                                                               * side)));
+        MinesweeperGame game = new MinesweeperGame(seed.getPath(), new StringReader(""), null);
+        for (int row = 1; row < side; row += 5) {
+            for (int col = 1 + (row % 3); col < side; col += 4) {
+                if (!game.isMine(row, col) && !game.isGameOver()) {
+                    game.reveal(row, col);
+                } //if
+            } //for
+        } //for
+
+        ProbabilityAnalyzer warmup = new ProbabilityAnalyzer(game, 1);
+        warmup.analyze();
+        System.out.printf("board %dx%d, density %.2f: frontier %d in %d components (%d distinct)%n",
+                          side, side, density, warmup.getFrontier(), warmup.getComponents(),
+                          warmup.getDistinctComponents());
+        System.out.printf("%8s %12s %9s%n", "threads", "ms", "speedup");
+        int processors = Runtime.getRuntime().availableProcessors();
+        double single = 0;
+        for (int threads = 1; threads <= processors; threads = nextCount(threads, processors)) {
+            long best = Long.MAX_VALUE;
+            for (int run = 0; run < runs; run++) {
+                long start = System.nanoTime();
+                new ProbabilityAnalyzer(game, threads).analyze();
+                best = Math.min(best, System.nanoTime() - start);
+            } //for
+            if (threads == 1) {
+                single = best;
+            } //if
+            System.out.printf("%8d %12.3f %9.2f%n", threads, best / 1e6, single / best);
+        } //for
+    } //main
+
+    /**
+     * Return the next number of threads to try: double, but finish on the number of
+     * processors.
+     * @param threads the number just tried.
+     * @param processors the number of processors.
+     * @return the next number, more than {@code processors} when done.
+     */
+    private static int nextCount(int threads, int processors) {
+        if (threads == processors) {
+            return processors + 1;
+        } //if
+        return Math.min(2 * threads, processors);
+    } //method
+} //class
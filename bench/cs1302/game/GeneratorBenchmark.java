@@ -0,0 +1,59 @@
+package cs1302.game;
+
+import cs1302.game.MineGenerator;
+import cs1302.game.SeedWriter;
+import java.io.File;
+import java.io.IOException;
+import java.util.SplittableRandom;
+
+/**
+ * This class represent a GeneratorBenchmark object. The {@code GeneratorBenchmark} class times
+ * {@link MineGenerator} on square boards from 10^4 to 10^8 squares, once at a low mine density
+ * (the {@code BitSet} path) and once at a high one (the Fisher-Yates path). Seed files are only
+ * written up to 10^7 squares, since larger ones take gigabytes of disk.
+ *
+ * <p>
+ * Compile and run from the project root:
+ * <pre>
+ * javac -encoding UTF-8 -d bin src/cs1302/game/*.java bench/cs1302/game/*.java
+ * java -Xmx4g -cp bin cs1302.game.GeneratorBenchmark MAX_EXPONENT
+ * </pre>
+ * {@code MAX_EXPONENT} is optional and defaults to 8.
+ */
+public class GeneratorBenchmark {
+
+    /**
+     * The main method of the {@code GeneratorBenchmark} program.
+     * @param args the optional largest power of ten of squares to try.
+     * @throws IOException when a temporary seed file cannot be written.
+     */
+    public static void main(String[] args) throws IOException {
+        int maxExponent = args.length > 0 ? Integer.parseInt(args[0]) : 8;
+        double[] densities = {0.2, 0.8};
+        File seed = File.createTempFile("generator", ".txt");
+        seed.deleteOnExit();
+        System.out.printf("%12s %8s %12s %14s %14s%n",
+                          "squares", "density", "mines", "place Mmine/s", "write Mmine/s");
+        for (int exponent = 4; exponent <= maxExponent; exponent++) {
+            int side = (int) Math.round(Math.sqrt(Math.pow(10, exponent)));
+            for (int d = 0; d < densities.length; d++) {
+                int numOfMines = (int) (densities[d] * side * side);
+                MineGenerator generator = new MineGenerator(side, side, new SplittableRandom(1302));
+                generator.placeMines(numOfMines);
+                long start = System.nanoTime();
+                int[] mines = generator.placeMines(numOfMines);
+                long placeTime = System.nanoTime() - start;
+                String writeRate = "-";
+                if (exponent <= 7) {
+                    start = System.nanoTime();
+                    SeedWriter.writeText(seed, side, side, mines);
+                    writeRate = String.format("%.2f",
+                                              numOfMines * 1e3 / (System.nanoTime() - start));
+                } //if
+                System.out.printf("%12d %8.1f %12d %14.2f %14s%n", (long) side * side,
+                                  densities[d], numOfMines, numOfMines * 1e3 / placeTime,
+                                  writeRate);
+            } //for
+        } //for
+    } //main
+} //class
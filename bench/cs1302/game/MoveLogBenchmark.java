@@ -0,0 +1,81 @@
+package cs1302.game;
+
+import cs1302.game.LogReplayer;
+import cs1302.game.MineGenerator;
+import cs1302.game.MinesweeperGame;
+import cs1302.game.MoveLog;
+import cs1302.game.SeedWriter;
+import java.io.File;
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.SplittableRandom;
+
+/**
+ * This class represent a MoveLogBenchmark object. The {@code MoveLogBenchmark} class plays a
+ * long game with a {@link MoveLog} attached, then times how long a {@link LogReplayer} takes to
+ * index the log, to seek to the last round and to random rounds, and to verify the whole log.
+ * The game only marks and guesses squares, so it never ends and every command is a round.
+ *
+ * <p>
+ * Compile and run from the project root:
+ * <pre>
+ * javac -encoding UTF-8 -d bin src/cs1302/game/*.java bench/cs1302/game/*.java
+ * java -cp bin cs1302.game.MoveLogBenchmark SIDE COMMANDS SEEKS
+ * </pre>
+ * Every argument is optional. The defaults are a 200 x 200 board, 1000000 commands and 1000
+ * seeks to random rounds.
+ */
+public class MoveLogBenchmark {
+
+    /**
+     * The main method of the {@code MoveLogBenchmark} program.
+     * @param args the optional side, number of commands and number of seeks.
+     * @throws IOException when a temporary file cannot be written or read.
+     */
+    public static void main(String[] args) throws IOException {
+        int side = args.length > 0 ? Integer.parseInt(args[0]) : 200;
+        int commands = args.length > 1 ? Integer.parseInt(args[1]) : 1000000;
+        int seeks = args.length > 2 ? Integer.parseInt(args[2]) : 1000;
+        SplittableRandom random = new SplittableRandom(1302);
+        File seed = File.createTempFile("movelog", ".bin");
+        seed.deleteOnExit();
+        SeedWriter.writeBinary(seed, side, side,
+                               new MineGenerator(side, side, random).placeMines(side * side / 10));
+        File log = File.createTempFile("movelog", ".log");
+        log.deleteOnExit();
+        StringBuilder input = new StringBuilder();
+        for (int i = 0; i < commands; i++) {
+            input.append(random.nextBoolean() ? "m " : "g ").append(random.nextInt(side))
+                .append(' ').append(random.nextInt(side)).append('\n');
+        } //for
+
+        MinesweeperGame game = new MinesweeperGame(seed.getPath(),
+                                                   new StringReader(input.toString()), null);
+        game.logMoves(new MoveLog(log, 1));
+        long start = System.nanoTime();
+        game.run();
+        long played = System.nanoTime() - start;
+        System.out.printf("played %d commands in %.1f ms, log %d bytes (%.2f per command)%n",
+                          commands, played / 1e6, log.length(), (double) log.length() / commands);
+
+        start = System.nanoTime();
+        LogReplayer replayer = new LogReplayer(log);
+        System.out.printf("indexed %d checkpoints in %.1f ms%n", replayer.getCheckpoints(),
+                          (System.nanoTime() - start) / 1e6);
+        start = System.nanoTime();
+        replayer.seek(commands);
+        System.out.printf("seek to round %d: %.1f ms%n", commands,
+                          (System.nanoTime() - start) / 1e6);
+        start = System.nanoTime();
+        for (int i = 0; i < seeks; i++) {
+            replayer.seek(random.nextInt(commands + 1));
+        } //for
+        System.out.printf("%d random seeks: %.3f ms each%n", seeks,
+                          (System.nanoTime() - start) / 1e6 / seeks);
+        start = System.nanoTime();
+        String problem = replayer.verify();
+        System.out.printf("verify: %s in %.1f ms%n", problem == null ? "ok" : problem,
+                          (System.nanoTime() - start) / 1e6);
+        replayer.close();
+    } //main
+} //class
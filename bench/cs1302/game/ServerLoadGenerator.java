@@ -0,0 +1,214 @@
+package cs1302.game;
+
+import cs1302.game.GameServer;
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.SocketChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.SplittableRandom;
+
+/**
+ * This class represent a ServerLoadGenerator object. The {@code ServerLoadGenerator} class
+ * opens many sessions on a running {@link GameServer} from a single thread with a
+ * {@code Selector}, so the client side needs no thread per session. It first connects every
+ * session and waits for each one's first prompt, which means the server is holding all of them
+ * at once. Then every session plays the same number of rounds: it sends a command, waits for
+ * the next {@code minesweeper-alpha: } prompt and sends another, and finally quits. The
+ * commands ({@code g}, {@code h}, {@code nofog} and unknown input) never end a game, whatever
+ * the seed.
+ *
+ * <p>
+ * Start a server and run from the project root:
+ * <pre>
+ * javac -encoding UTF-8 -d bin src/cs1302/game/*.java bench/cs1302/game/*.java
+ * java -cp bin cs1302.game.MinesweeperDriver --serve 7070 tests/tc02.seed.txt 20000 &amp;
+ * java -cp bin cs1302.game.ServerLoadGenerator HOST PORT SESSIONS ROUNDS
+ * </pre>
+ * Every argument is optional. The defaults are localhost, port 7070, 10000 sessions and 10
+ * rounds. The report gives the time to open every session, the command rate, the latency of a
+ * command from sending it to seeing the next prompt, and how many sessions were refused or
+ * dropped.
+ */
+public class ServerLoadGenerator {
+    private static final byte[] PROMPT = "minesweeper-alpha: ".getBytes(StandardCharsets.UTF_8);
+    private static final String[] COMMANDS = {"g 0 0", "h", "nofog", "zzz", "g 1 1"};
+    private static final int MAX_CONNECTING = 256;
+
+    /**
+     * The main method of the {@code ServerLoadGenerator} program.
+     * @param args optional host, port, sessions and rounds.
+     * @throws IOException when the selector cannot be opened.
+     */
+    public static void main(String[] args) throws IOException {
+        String host = args.length > 0 ? args[0] : "localhost";
+        int port = args.length > 1 ? Integer.parseInt(args[1]) : 7070;
+        int numSessions = args.length > 2 ? Integer.parseInt(args[2]) : 10000;
+        int rounds = args.length > 3 ? Integer.parseInt(args[3]) : 10;
+        InetSocketAddress address = new InetSocketAddress(host, port);
+        Selector selector = Selector.open();
+        Client[] clients = new Client[numSessions];
+        long[] latencies = new long[numSessions * rounds];
+        int numLatencies = 0;
+        int opened = 0;
+        int connecting = 0;
+        int ready = 0;
+        int finished = 0;
+        int failed = 0;
+        boolean playing = false;
+        long start = System.nanoTime();
+        long openTime = 0;
+        ByteBuffer readBuffer = ByteBuffer.allocate(1 << 16);
+        SplittableRandom random = new SplittableRandom(1302);
+
+        while (finished + failed < numSessions) {
+            while (opened < numSessions && connecting < MAX_CONNECTING) {
+                SocketChannel channel = SocketChannel.open();
+                channel.configureBlocking(false);
+                clients[opened] = new Client(channel);
+                channel.connect(address);
+                channel.register(selector, SelectionKey.OP_CONNECT, clients[opened]);
+                opened++;
+                connecting++;
+            } //while
+            selector.select(1000);
+            Iterator<SelectionKey> keys = selector.selectedKeys().iterator();
+            while (keys.hasNext()) {
+                SelectionKey key = keys.next();
+                keys.remove();
+                Client client = (Client) key.attachment();
+                try {
+                    if (key.isConnectable()) {
+                        client.channel.finishConnect();
+                        connecting--;
+                        key.interestOps(SelectionKey.OP_READ);
+                        continue;
+                    } //if
+                    readBuffer.clear();
+                    int read = client.channel.read(readBuffer);
+                    if (read < 0) {
+                        throw new IOException("closed by server");
+                    } //if
+                    readBuffer.flip();
+                    if (!client.sawPrompt(readBuffer)) {
+                        continue;
+                    } //if
+                    if (client.sent == 0 && !client.ready) {
+                        client.ready = true;
+                        ready++;
+                        if (!playing) {
+                            continue;
+                        } //if
+                    } else {
+                        latencies[numLatencies++] = System.nanoTime() - client.sentAt;
+                    } //if else
+                    if (client.sent == rounds) {
+                        client.send("q");
+                        client.channel.close();
+                        finished++;
+                    } else {
+                        client.send(COMMANDS[random.nextInt(COMMANDS.length)]);
+                    } //if else
+                } catch (IOException ioe) {
+                    if (key.isValid() && key.isConnectable()) {
+                        connecting--;
+                    } //if
+                    key.cancel();
+                    client.channel.close();
+                    failed++;
+                    if (!client.ready) {
+                        ready++;
+                    } //if
+                } //try
+            } //while
+            if (!playing && ready == numSessions) {
+                playing = true;
+                openTime = System.nanoTime() - start;
+                System.out.printf("%d sessions open at once (%d refused or dropped) in %.3f s%n",
+                                  numSessions - failed, failed, openTime / 1e9);
+                for (int i = 0; i < numSessions; i++) {
+                    if (clients[i].channel.isOpen()) {
+                        clients[i].send(COMMANDS[random.nextInt(COMMANDS.length)]);
+                    } //if
+                } //for
+            } //if
+        } //while
+        long playTime = System.nanoTime() - start - openTime;
+        Arrays.sort(latencies, 0, numLatencies);
+        System.out.printf("commands: %d in %.3f s, %.0f commands/s%n", numLatencies,
+                          playTime / 1e9, numLatencies / (playTime / 1e9));
+        if (numLatencies > 0) {
+            System.out.printf("latency ms: p50 %.3f, p90 %.3f, p99 %.3f, max %.3f%n",
+                              latencies[numLatencies / 2] / 1e6,
+                              latencies[(int) (numLatencies * 0.9)] / 1e6,
+                              latencies[(int) (numLatencies * 0.99)] / 1e6,
+                              latencies[numLatencies - 1] / 1e6);
+        } //if
+        System.out.printf("sessions: %d finished, %d refused or dropped%n", finished, failed);
+    } //main
+
+    /**
+     * One simulated player.
+     */
+    private static class Client {
+        private SocketChannel channel;
+        private byte[] tail;
+        private int tailLength;
+        private boolean ready;
+        private int sent;
+        private long sentAt;
+
+        /**
+         * Constructs a {@code Client} on a channel that is still connecting.
+         * @param channel the channel.
+         */
+        Client(SocketChannel channel) {
+            this.channel = channel;
+            this.tail = new byte[PROMPT.length];
+        } //Constructor
+
+        /**
+         * Look through newly read bytes for the end of a prompt. Only the last few bytes seen
+         * are kept, since the prompt is always the last thing the server sends before it
+         * waits.
+         * @param bytes the bytes just read.
+         * @return true if the bytes seen so far end with the prompt.
+         */
+        boolean sawPrompt(ByteBuffer bytes) {
+            int length = bytes.remaining();
+            if (length >= tail.length) {
+                bytes.position(bytes.limit() - tail.length);
+                bytes.get(tail);
+                tailLength = tail.length;
+            } else {
+                int keep = Math.min(tailLength, tail.length - length);
+                System.arraycopy(tail, tailLength - keep, tail, 0, keep);
+                bytes.get(tail, keep, length);
+                tailLength = keep + length;
+            } //if else
+            if (tailLength == tail.length && Arrays.equals(tail, PROMPT)) {
+                tailLength = 0;
+                return true;
+            } //if
+            return false;
+        } //method
+
+        /**
+         * Send one command and note the time.
+         * @param command the command, without the line break.
+         * @throws IOException when the connection is closed.
+         */
+        void send(String command) throws IOException {
+            ByteBuffer line = ByteBuffer.wrap((command + "\n").getBytes(StandardCharsets.UTF_8));
+            while (line.hasRemaining()) {
+                channel.write(line);
+            } //while
+            sent++;
+            sentAt = System.nanoTime();
+        } //method
+    } //class
+} //class
@@ -0,0 +1,70 @@
+package cs1302.game;
+
+import cs1302.game.MineGenerator;
+import cs1302.game.MinesweeperGame;
+import cs1302.game.SeedWriter;
+import cs1302.game.Solver;
+import java.io.File;
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.SplittableRandom;
+
+/**
+ * This class represent a SolverBenchmark object. The {@code SolverBenchmark} class lets the
+ * {@link Solver} play generated boards, from the three classic difficulties up to 1000 x 1000,
+ * and reports the win rate, the mean number of moves and guesses, and the time per board and
+ * per square. Loading the seed is not timed. Every board comes from a fixed seed, so runs can
+ * be compared.
+ *
+ * <p>
+ * Compile and run from the project root:
+ * <pre>
+ * javac -encoding UTF-8 -d bin src/cs1302/game/*.java bench/cs1302/game/*.java
+ * java -Xmx2g -cp bin cs1302.game.SolverBenchmark BOARDS
+ * </pre>
+ * {@code BOARDS} is optional and defaults to 200; boards with more than 10^5 squares are
+ * played ten times fewer.
+ */
+public class SolverBenchmark {
+
+    /**
+     * The main method of the {@code SolverBenchmark} program.
+     * @param args the optional number of boards to play of each kind.
+     * @throws IOException when a temporary seed file cannot be written.
+     */
+    public static void main(String[] args) throws IOException {
+        int boards = args.length > 0 ? Integer.parseInt(args[0]) : 200;
+        int[][] kinds = {{9, 9, 10}, {16, 16, 40}, {16, 30, 99}, {100, 100, 1000},
+                         {1000, 1000, 50000}, {1000, 1000, 150000}};
+        File seed = File.createTempFile("solver", ".bin");
+        seed.deleteOnExit();
+        SplittableRandom random = new SplittableRandom(1302);
+        System.out.printf("%11s %8s %7s %8s %10s %9s %12s %12s%n", "size", "mines", "boards",
+                          "win %", "moves", "guesses", "ms/board", "ns/square");
+        for (int k = 0; k < kinds.length; k++) {
+            int rows = kinds[k][0];
+            int cols = kinds[k][1];
+            int count = (long) rows * cols > 100000 ? Math.max(1, boards / 10) : boards;
+            MineGenerator generator = new MineGenerator(rows, cols, random);
+            int won = 0;
+            long moves = 0;
+            long guesses = 0;
+            long nanos = 0;
+            for (int i = 0; i < count; i++) {
+                SeedWriter.writeBinary(seed, rows, cols, generator.placeMines(kinds[k][2]));
+                MinesweeperGame game = new MinesweeperGame(seed.getPath(), new StringReader(""),
+                                                           null);
+                Solver solver = new Solver(game);
+                long start = System.nanoTime();
+                won += solver.solve() ? 1 : 0;
+                nanos += System.nanoTime() - start;
+                moves += game.getRounds();
+                guesses += solver.getGuesses();
+            } //for
+            System.out.printf("%11s %8d %7d %8.1f %10.1f %9.2f %12.3f %12.1f%n",
+                              rows + "x" + cols, kinds[k][2], count, 100.0 * won / count,
+                              (double) moves / count, (double) guesses / count,
+                              nanos / 1e6 / count, (double) nanos / count / rows / cols);
+        } //for
+    } //main
+} //class
@@ -0,0 +1,184 @@
+package cs1302.game;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.jar.JarEntry;
+import java.util.jar.JarOutputStream;
+
+/**
+ * This class represent a StartupBenchmark object. The {@code StartupBenchmark} class starts the
+ * game in a new JVM over and over and times how long it takes until the first prompt is
+ * printed and until the process has quit, with the welcome banner, with {@code --quiet} and
+ * with {@code --quiet} and an AppCDS archive of the classes loaded by a short game.
+ *
+ * <p>
+ * An archive can only hold classes loaded from a jar, so the game is run from a jar of the
+ * class path and the archive is made by a training run, both in temporary files, the same way
+ * they can be made by hand from the project root:
+ * <pre>
+ * jar cf bin/minesweeper.jar -C bin cs1302
+ * java -XX:ArchiveClassesAtExit=bin/minesweeper.jsa -cp bin/minesweeper.jar \
+ *     cs1302.game.MinesweeperDriver --seed tests/tc01.seed.txt --quiet &lt; tests/tc01.in.txt
+ * java -XX:SharedArchiveFile=bin/minesweeper.jsa -cp bin/minesweeper.jar \
+ *     cs1302.game.MinesweeperDriver --seed tests/tc01.seed.txt --quiet
+ * </pre>
+ * The jar and the archive have to be made again whenever the classes are compiled again.
+ * Nothing in the project makes them, so a game started the usual way, with {@code -cp bin},
+ * starts as fast as the {@code --quiet} setup and not as the AppCDS ones.
+ *
+ * <p>
+ * Compile and run from the project root:
+ * <pre>
+ * javac -encoding UTF-8 -d bin src/cs1302/game/*.java bench/cs1302/game/*.java
+ * java -cp bin cs1302.game.StartupBenchmark RUNS PATH_TO_SEED
+ * </pre>
+ * Every argument is optional. The defaults are 20 runs of each setup and tests/tc01.seed.txt.
+ */
+public class StartupBenchmark {
+
+    private static final byte[] PROMPT = "minesweeper-alpha: ".getBytes(StandardCharsets.UTF_8);
+
+    /**
+     * The main method of the {@code StartupBenchmark} program.
+     * @param args the optional number of runs and path to the seed.
+     * @throws IOException when a JVM cannot be started or the archive cannot be made.
+     * @throws InterruptedException when interrupted while waiting for a JVM.
+     */
+    public static void main(String[] args) throws IOException, InterruptedException {
+        int runs = args.length > 0 ? Integer.parseInt(args[0]) : 20;
+        String seed = args.length > 1 ? args[1] : "tests/tc01.seed.txt";
+        String java = System.getProperty("java.home") + File.separator + "bin" + File.separator
+            + "java";
+        File jar = File.createTempFile("minesweeper", ".jar");
+        jar.deleteOnExit();
+        pack(new File(System.getProperty("java.class.path").split(File.pathSeparator)[0]), jar);
+        String classPath = jar.getPath();
+        File archive = File.createTempFile("minesweeper", ".jsa");
+        archive.delete();
+        archive.deleteOnExit();
+
+        List<String> game = Arrays.asList("cs1302.game.MinesweeperDriver", "--seed", seed);
+        List<String> quiet = new ArrayList<String>(game);
+        quiet.add("--quiet");
+        Process training = new ProcessBuilder(command(java, classPath,
+                                                      "-XX:ArchiveClassesAtExit="
+                                                      + archive.getPath(), quiet))
+            .redirectErrorStream(true).start();
+        time(training);
+        training.waitFor();
+        if (!archive.exists()) {
+            System.err.println("the AppCDS archive could not be made");
+            System.exit(1);
+        } //if
+
+        measure("banner", runs, command(java, classPath, null, game));
+        measure("--quiet", runs, command(java, classPath, null, quiet));
+        measure("--quiet, AppCDS", runs,
+                command(java, classPath, "-XX:SharedArchiveFile=" + archive.getPath(), quiet));
+        measure("--quiet, AppCDS, C1", runs,
+                command(java, classPath, "-XX:SharedArchiveFile=" + archive.getPath()
+                        + " -XX:TieredStopAtLevel=1", quiet));
+    } //main
+
+    /**
+     * Write every class file under {@code classes} to the jar {@code jar}.
+     * @param classes the directory the classes were compiled to.
+     * @param jar the jar file.
+     * @throws IOException when a class cannot be read or the jar cannot be written.
+     */
+    private static void pack(File classes, File jar) throws IOException {
+        try (JarOutputStream out = new JarOutputStream(new FileOutputStream(jar))) {
+            List<File> pending = new ArrayList<File>(Arrays.asList(classes.listFiles()));
+            while (!pending.isEmpty()) {
+                File file = pending.remove(pending.size() - 1);
+                if (file.isDirectory()) {
+                    pending.addAll(Arrays.asList(file.listFiles()));
+                } else if (file.getName().endsWith(".class")) {
+                    String name = classes.toPath().relativize(file.toPath()).toString();
+                    out.putNextEntry(new JarEntry(name.replace(File.separatorChar, '/')));
+                    out.write(Files.readAllBytes(file.toPath()));
+                    out.closeEntry();
+                } //if else
+            } //while
+        } //try
+    } //method
+
+    /**
+     * Return the command that starts {@code java} with the class path, the JVM options and
+     * the program and its arguments.
+     * @param java the path to the java launcher.
+     * @param classPath the class path.
+     * @param options the JVM options separated by spaces, or null.
+     * @param program the main class and its arguments.
+     * @return the command.
+     */
+    private static List<String> command(String java, String classPath, String options,
+                                        List<String> program) {
+        List<String> command = new ArrayList<String>();
+        command.add(java);
+        if (options != null) {
+            command.addAll(Arrays.asList(options.split(" ")));
+        } //if
+        command.add("-cp");
+        command.add(classPath);
+        command.addAll(program);
+        return command;
+    } //method
+
+    /**
+     * Run {@code command} {@code runs} times and print the median and the fastest time to the
+     * first prompt and to the end of the process.
+     * @param name the name of the setup.
+     * @param runs the number of runs.
+     * @param command the command that starts the game.
+     * @throws IOException when a JVM cannot be started.
+     * @throws InterruptedException when interrupted while waiting for a JVM.
+     */
+    private static void measure(String name, int runs, List<String> command)
+        throws IOException, InterruptedException {
+        long[] prompt = new long[runs];
+        long[] total = new long[runs];
+        for (int i = 0; i < runs; i++) {
+            long start = System.nanoTime();
+            Process process = new ProcessBuilder(command).redirectErrorStream(true).start();
+            prompt[i] = time(process) - start;
+            process.waitFor();
+            total[i] = System.nanoTime() - start;
+        } //for
+        Arrays.sort(prompt);
+        Arrays.sort(total);
+        System.out.printf("%-22s first prompt %6.1f ms (min %6.1f), quit %6.1f ms (min %6.1f)%n",
+                          name, prompt[runs / 2] / 1e6, prompt[0] / 1e6, total[runs / 2] / 1e6,
+                          total[0] / 1e6);
+    } //method
+
+    /**
+     * Read the output of {@code process} until the first prompt, answer it with quit and read
+     * the rest of the output.
+     * @param process a running game.
+     * @return the time the prompt was read, from {@link System#nanoTime()}.
+     * @throws IOException when the process cannot be read or written.
+     */
+    private static long time(Process process) throws IOException {
+        InputStream out = process.getInputStream();
+        int matched = 0;
+        int read;
+        while (matched < PROMPT.length && (read = out.read()) != -1) {
+            matched = read == PROMPT[matched] ? matched + 1 : (read == PROMPT[0] ? 1 : 0);
+        } //while
+        long prompted = System.nanoTime();
+        OutputStream in = process.getOutputStream();
+        in.write("q\n".getBytes(StandardCharsets.UTF_8));
+        in.close();
+        out.transferTo(OutputStream.nullOutputStream());
+        return prompted;
+    } //method
+} //class
@@ -0,0 +1,80 @@
+package cs1302.game;
+
+import cs1302.game.MineGenerator;
+import cs1302.game.SeedWriter;
+import cs1302.game.TournamentRunner;
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.io.PrintWriter;
+import java.nio.file.Files;
+import java.util.SplittableRandom;
+
+/**
+ * This class represent a TournamentBenchmark object. The {@code TournamentBenchmark} class
+ * writes a set of random seeds and random command scripts to a temporary directory and times a
+ * {@link TournamentRunner} playing every script against every seed with one thread, then with
+ * twice as many, up to the number of processors, so the games per second can be compared with
+ * what one thread manages.
+ *
+ * <p>
+ * Compile and run from the project root:
+ * <pre>
+ * javac -encoding UTF-8 -d bin src/cs1302/game/*.java bench/cs1302/game/*.java
+ * java -cp bin cs1302.game.TournamentBenchmark SEEDS SCRIPTS SIDE
+ * </pre>
+ * Every argument is optional. The defaults are 64 seeds and 64 scripts on 30 x 30 boards.
+ */
+public class TournamentBenchmark {
+
+    /**
+     * The main method of the {@code TournamentBenchmark} program.
+     * @param args the optional number of seeds, number of scripts and side of the boards.
+     * @throws IOException when the temporary files cannot be written.
+     */
+    public static void main(String[] args) throws IOException {
+        int seeds = args.length > 0 ? Integer.parseInt(args[0]) : 64;
+        int scripts = args.length > 1 ? Integer.parseInt(args[1]) : 64;
+        int side = args.length > 2 ? Integer.parseInt(args[2]) : 30;
+        SplittableRandom random = new SplittableRandom(1302);
+        File seedDirectory = Files.createTempDirectory("tournament").toFile();
+        File scriptDirectory = Files.createTempDirectory("tournament").toFile();
+        for (int i = 0; i < seeds; i++) {
+            File seed = new File(seedDirectory, "seed" + i + ".txt");
+            seed.deleteOnExit();
+            int[] mines = new MineGenerator(side, side, random).placeMines(side * side / 8);
+            SeedWriter.writeText(seed, side, side, mines);
+        } //for
+        for (int i = 0; i < scripts; i++) {
+            File script = new File(scriptDirectory, "script" + i + ".in.txt");
+            script.deleteOnExit();
+            try (PrintWriter out = new PrintWriter(script)) {
+                for (int line = 0; line < side * side; line++) {
+                    out.println((random.nextInt(8) == 0 ? "m " : "r ") + random.nextInt(side)
+                                + " " + random.nextInt(side));
+                } //for
+            } //try
+        } //for
+        seedDirectory.deleteOnExit();
+        scriptDirectory.deleteOnExit();
+
+        PrintStream nowhere = new PrintStream(OutputStream.nullOutputStream());
+        int processors = Runtime.getRuntime().availableProcessors();
+        new TournamentRunner(seedDirectory, scriptDirectory, processors).run(nowhere);
+        double single = 0;
+        int threads = 1;
+        while (true) {
+            long start = System.nanoTime();
+            new TournamentRunner(seedDirectory, scriptDirectory, threads).run(nowhere);
+            double perSecond = (double) seeds * scripts / ((System.nanoTime() - start) / 1e9);
+            single = threads == 1 ? perSecond : single;
+            System.out.printf("threads %3d: %10.0f games per second, %5.2fx one thread%n",
+                              threads, perSecond, perSecond / single);
+            if (threads == processors) {
+                break;
+            } //if
+            threads = Math.min(processors, threads * 2);
+        } //while
+    } //main
+} //class
@@ -0,0 +1,319 @@
+package cs1302.game;
+
+import cs1302.game.BoardRenderer;
+import cs1302.game.CommandParser;
+import cs1302.game.MineGenerator;
+import cs1302.game.MinesweeperGame;
+import cs1302.game.SeedReader;
+import cs1302.game.SeedWriter;
+import java.io.File;
+import java.io.FileReader;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.io.PrintWriter;
+import java.io.StringReader;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * This class represent a HotPathBenchmark object. The {@code HotPathBenchmark} class is the
+ * JMH baseline for the paths a game spends its time in: loading a text or binary seed, counting
+ * adjacent mines, checking for a win, drawing the board in plain and ANSI mode and a 24 x 40
+ * viewport of it, generating a board for --gen, parsing commands, opening the largest area a
+ * single reveal can open, and playing a whole scripted game. Every benchmark runs on each
+ * {@code size} and {@code density}, and every board comes from a fixed seed, so two runs on the
+ * same machine can be compared line by line.
+ *
+ * <p>
+ * Build and run from the project root:
+ * <pre>
+ * mvn -B -Pjmh package
+ * java -jar target/benchmarks.jar HotPathBenchmark -p size=100 -p density=0.2
+ * </pre>
+ * The first argument is a regular expression over the benchmark names, so
+ * {@code HotPathBenchmark.render} runs the three rendering benchmarks, and every {@code -p}
+ * is optional.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgs = {"-Xmx2g"})
+public class HotPathBenchmark {
+    /** The number of rows and columns of the board. */
+    @Param({"16", "100", "1000"})
+    public int size;
+
+    /** The share of squares that hold a mine. */
+    @Param({"0.05", "0.2", "0.5"})
+    public double density;
+
+    private static final String[] LINES = {"r 3 14", "mark 15 9", "  g  2 6", "h", "zzz 1 2",
+                                           "r 1 2 3"};
+
+    private int numOfMines;
+    private int[] mines;
+    private MineGenerator generator;
+    private File text;
+    private File binary;
+    private File script;
+    private MinesweeperGame game;
+    private BoardRenderer plain;
+    private BoardRenderer ansi;
+    private BoardRenderer window;
+    private CommandParser parser;
+    private int[] open;
+    private int cell;
+
+    /**
+     * Write the seeds and script for the board and play part of it, so that the board has
+     * revealed squares to draw and count.
+     * @throws IOException when a temporary file cannot be written or read.
+     */
+    @Setup
+    public void setUp() throws IOException {
+        numOfMines = (int) (density * size * size);
+        generator = new MineGenerator(size, size, new SplittableRandom(1302));
+        mines = generator.placeMines(numOfMines);
+        text = temp(".txt");
+        binary = temp(".bin");
+        script = temp(".in.txt");
+        SeedWriter.writeText(text, size, size, mines);
+        SeedWriter.writeBinary(binary, size, size, mines);
+        writeScript(script, text.getPath());
+
+        game = new MinesweeperGame(text.getPath(), new StringReader(""), null);
+        for (int row = 0; row < size; row += 2) {
+            for (int col = 0; col < size; col += 3) {
+                if (!game.isMine(row, col) && !game.isGameOver()) {
+                    game.reveal(row, col);
+                } //if
+            } //for
+        } //for
+        PrintStream nowhere = new PrintStream(OutputStream.nullOutputStream());
+        plain = new BoardRenderer(game, size, size, nowhere, false);
+        ansi = new BoardRenderer(game, size, size, nowhere, true);
+        ansi.render(0, false);
+        window = new BoardRenderer(game, size, size, nowhere, false);
+        window.viewport(Math.min(24, size), Math.min(40, size), null);
+        parser = new CommandParser(null);
+        open = largestOpening(game, size);
+    } //method
+
+    /**
+     * Remove the temporary files.
+     */
+    @TearDown
+    public void tearDown() {
+        text.delete();
+        binary.delete();
+        script.delete();
+    } //method
+
+    /**
+     * Load the text seed.
+     * @return the number of mine coordinates read.
+     * @throws IOException when the seed cannot be read.
+     */
+    @Benchmark
+    public int loadText() throws IOException {
+        return new SeedReader(text.getPath()).getMines().length;
+    } //method
+
+    /**
+     * Load the binary seed.
+     * @return the number of mine coordinates read.
+     * @throws IOException when the seed cannot be read.
+     */
+    @Benchmark
+    public int loadBinary() throws IOException {
+        return new SeedReader(binary.getPath()).getMines().length;
+    } //method
+
+    /**
+     * Count the adjacent mines of every square.
+     * @return the sum of the counts.
+     */
+    @Benchmark
+    public long getNumAdjMines() {
+        long sum = 0;
+        for (int row = 0; row < size; row++) {
+            for (int col = 0; col < size; col++) {
+                sum += game.getNumAdjMines(row, col);
+            } //for
+        } //for
+        return sum;
+    } //method
+
+    /**
+     * Check whether the game is won.
+     * @return true if it is.
+     */
+    @Benchmark
+    public boolean isWon() {
+        return game.isWon();
+    } //method
+
+    /**
+     * Draw the whole board in plain mode.
+     */
+    @Benchmark
+    public void renderPlain() {
+        plain.render(1, false);
+    } //method
+
+    /**
+     * Repaint one changed square in ANSI mode.
+     * @return the square that was repainted.
+     */
+    @Benchmark
+    public int renderAnsi() {
+        cell = (cell + 7919) % (size * size);
+        ansi.markDirty(cell);
+        ansi.render(1, false);
+        return cell;
+    } //method
+
+    /**
+     * Move the 24 x 40 viewport somewhere else on the board and draw it.
+     * @return the square the viewport was moved for.
+     */
+    @Benchmark
+    public int renderViewport() {
+        cell = (cell + 7919) % (size * size);
+        window.moveViewport(cell / size * (size - Math.min(24, size)) / size,
+                            cell % size * (size - Math.min(40, size)) / size);
+        window.render(1, false);
+        return cell;
+    } //method
+
+    /**
+     * Reveal the square that opens the largest area on a fresh board.
+     * @return the rounds played plus one if the far corner was opened.
+     */
+    @Benchmark
+    public int cascade() {
+        MinesweeperGame fresh = new MinesweeperGame(size, size, mines);
+        fresh.reveal(open[0], open[1]);
+        return fresh.getRounds() + (fresh.isRevealed(size - 1, size - 1) ? 1 : 0);
+    } //method
+
+    /**
+     * Generate a board the way --gen does.
+     * @return the mines placed.
+     */
+    @Benchmark
+    public int[] gen() {
+        return generator.placeMines(numOfMines);
+    } //method
+
+    /**
+     * Parse a handful of well and badly formed commands.
+     * @return a sum over the parsed commands.
+     */
+    @Benchmark
+    public long parseCommand() {
+        long sum = 0;
+        for (int i = 0; i < LINES.length; i++) {
+            sum += parser.parse(LINES[i]) + parser.getRow() + parser.getCol();
+        } //for
+        return sum;
+    } //method
+
+    /**
+     * Load the seed and play the script that wins it, one command per square.
+     * @return the outcome plus the rounds played.
+     * @throws IOException when the seed or script cannot be read.
+     */
+    @Benchmark
+    public int scriptedGame() throws IOException {
+        try (FileReader commands = new FileReader(script)) {
+            MinesweeperGame played = new MinesweeperGame(text.getPath(), commands, null);
+            return played.run().ordinal() + played.getRounds();
+        } //try
+    } //method
+
+    /**
+     * Find the square with no adjacent mines whose reveal opens the most squares, by revealing
+     * each one on a fresh copy of the board. Only squares on a coarse grid are tried, so large
+     * boards do not take long.
+     * @param game a game on the board.
+     * @param side the number of rows and columns.
+     * @return the row and column of the square.
+     */
+    private static int[] largestOpening(MinesweeperGame game, int side) {
+        int[] best = {0, 0};
+        long most = -1;
+        int step = Math.max(1, side / 16);
+        int[] mines = new int[game.getNumberOfMines()];
+        int count = 0;
+        for (int row = 0; row < side; row++) {
+            for (int col = 0; col < side; col++) {
+                if (game.isMine(row, col)) {
+                    mines[count++] = (row * side) + col;
+                } //if
+            } //for
+        } //for
+        for (int row = 0; row < side; row += step) {
+            for (int col = 0; col < side; col += step) {
+                if (!game.isMine(row, col) && game.getNumAdjMines(row, col) == 0) {
+                    MinesweeperGame fresh = new MinesweeperGame(side, side, mines);
+                    long[] opened = {0};
+                    fresh.setSquareListener(square -> opened[0]++);
+                    fresh.reveal(row, col);
+                    if (opened[0] > most) {
+                        most = opened[0];
+                        best[0] = row;
+                        best[1] = col;
+                    } //if
+                } //if
+            } //for
+        } //for
+        return best;
+    } //method
+
+    /**
+     * Write the command script for a scripted game: mark every mine and reveal every other
+     * square in reading order, so the game is won on the last command.
+     * @param script the command file to write.
+     * @param seed the path of the seed the script is for.
+     * @throws IOException when the file cannot be written.
+     */
+    private static void writeScript(File script, String seed) throws IOException {
+        MinesweeperGame game = new MinesweeperGame(seed, new StringReader(""), null);
+        try (PrintWriter writer = new PrintWriter(script)) {
+            for (int row = 0; row < game.getRows(); row++) {
+                for (int col = 0; col < game.getCols(); col++) {
+                    writer.print((game.isMine(row, col) ? "m " : "r ") + row + " " + col + "\n");
+                } //for
+            } //for
+            writer.print("q\n");
+        } //try
+    } //method
+
+    /**
+     * Create a temporary file that is removed when the program ends.
+     * @param suffix the end of the file name.
+     * @return the file.
+     * @throws IOException when the file cannot be created.
+     */
+    private static File temp(String suffix) throws IOException {
+        File file = File.createTempFile("hotpath", suffix);
+        file.deleteOnExit();
+        return file;
+    } //method
+} //class
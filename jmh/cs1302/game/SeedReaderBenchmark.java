@@ -0,0 +1,137 @@
+package cs1302.game;
+
+import cs1302.game.MineGenerator;
+import cs1302.game.SeedReader;
+import cs1302.game.SeedWriter;
+import java.io.File;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Scanner;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * This class represent a SeedReaderBenchmark object. The {@code SeedReaderBenchmark} class
+ * compares {@link SeedReader} with the {@code Scanner.next()} and {@code Integer.parseInt} loop
+ * that {@code MinesweeperGame} used to load seeds with. Both read the same generated seed file
+ * and must produce the same mines, which is checked once before anything is timed. The same
+ * board is also written as a binary seed with {@link SeedWriter} and timed through
+ * {@link SeedReader}.
+ *
+ * <p>
+ * Build and run from the project root:
+ * <pre>
+ * mvn -B -Pjmh package
+ * java -jar target/benchmarks.jar SeedReaderBenchmark -p size=5000 -p density=0.4
+ * </pre>
+ * A 5000 x 5000 board at a density of 0.4 is the 10000000 mine seed the loader was written
+ * for; the Scanner loop takes seconds a read on it.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 3, time = 2)
+@Fork(value = 1, jvmArgs = {"-Xmx2g"})
+public class SeedReaderBenchmark {
+    /** The number of rows and columns of the board. */
+    @Param({"1000", "5000"})
+    public int size;
+
+    /** The share of squares that hold a mine. */
+    @Param({"0.05", "0.4"})
+    public double density;
+
+    private File seed;
+    private File binarySeed;
+
+    /**
+     * Write the text and binary seeds and check that both loaders read the same mines.
+     * @throws IOException when a temporary seed file cannot be written or read.
+     * @throws IllegalStateException when {@link SeedReader} and the Scanner loop disagree.
+     */
+    @Setup
+    public void setUp() throws IOException {
+        int numOfMines = (int) (density * size * size);
+        MineGenerator generator = new MineGenerator(size, size, new SplittableRandom(1302));
+        int[] cells = generator.placeMines(numOfMines);
+        seed = File.createTempFile("seedreader", ".txt");
+        seed.deleteOnExit();
+        SeedWriter.writeText(seed, size, size, cells);
+        binarySeed = File.createTempFile("seedreader", ".bin");
+        binarySeed.deleteOnExit();
+        SeedWriter.writeBinary(binarySeed, size, size, cells);
+        if (!Arrays.equals(scannerLoad(seed), new SeedReader(seed.getPath()).getMines())) {
+            throw new IllegalStateException("SeedReader and Scanner disagree");
+        } //if
+    } //method
+
+    /**
+     * Remove the seed files.
+     */
+    @TearDown
+    public void tearDown() {
+        seed.delete();
+        binarySeed.delete();
+    } //method
+
+    /**
+     * Load the text seed the old way.
+     * @return the mines.
+     * @throws IOException when the seed cannot be read.
+     */
+    @Benchmark
+    public int[] scanner() throws IOException {
+        return scannerLoad(seed);
+    } //method
+
+    /**
+     * Load the text seed with {@link SeedReader}.
+     * @return the mines.
+     * @throws IOException when the seed cannot be read.
+     */
+    @Benchmark
+    public int[] seedReader() throws IOException {
+        return new SeedReader(seed.getPath()).getMines();
+    } //method
+
+    /**
+     * Load the binary seed with {@link SeedReader}.
+     * @return the mines.
+     * @throws IOException when the seed cannot be read.
+     */
+    @Benchmark
+    public int[] binary() throws IOException {
+        return new SeedReader(binarySeed.getPath()).getMines();
+    } //method
+
+    /**
+     * Load a seed the way {@code MinesweeperGame} did before {@link SeedReader}.
+     * @param seed the seed file.
+     * @return the mines as {@code row, col} pairs.
+     * @throws IOException when the file cannot be read.
+     */
+    static int[] scannerLoad(File seed) throws IOException {
+        try (Scanner seedScanner = new Scanner(seed)) {
+            Integer.parseInt(seedScanner.next());
+            Integer.parseInt(seedScanner.next());
+            int[] mines = new int[Integer.parseInt(seedScanner.next()) * 2];
+            for (int i = 0; i < mines.length; i++) {
+                mines[i] = Integer.parseInt(seedScanner.next());
+            } //for
+            return mines;
+        } //try
+    } //method
+} //class
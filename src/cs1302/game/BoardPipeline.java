@@ -0,0 +1,525 @@
+package cs1302.game;
+
+import cs1302.game.MineGenerator;
+import cs1302.game.MinesweeperGame;
+import cs1302.game.SeedWriter;
+import cs1302.game.Solver;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * This class represents a BoardPipeline object. A {@code BoardPipeline} makes many boards of
+ * one size in a single JVM, rates each one, and writes out only those that match what was asked
+ * for. The work runs in three stages joined by bounded queues: generator threads place the
+ * mines, solver threads let a {@link Solver} play every board from the middle square, and the
+ * calling thread writes the boards that are kept. The middle square and the squares around it
+ * never hold a mine, so the first click always opens an area. When a later stage falls
+ * behind, its queue fills up and the stage before it waits, so memory stays bounded however
+ * many boards are asked for.
+ *
+ * <p>
+ * Boards move through the stages in chunks of {@link #CHUNK}, so the queues are touched once
+ * per chunk instead of once per board. Chunk {@code n} always gets the {@code n}th random
+ * stream split from the seed, and the writer puts chunks back in order before writing, so the
+ * same seed always keeps the same boards whatever the number of threads.
+ *
+ * <p>
+ * A board is rated by whether the solver wins it without guessing after the first click, which
+ * it gives up on as soon as it would have to guess again, and by
+ * its 3BV: the number of clicks needed to clear it without flags, counting each empty area
+ * once and each numbered square that does not border one. Boards are written as seed files
+ * named {@code boardNNNNNN.txt}, or {@code .bin} for binary seeds, into a directory, or packed
+ * into one file. A packed file starts with the four {@link #PACK_MAGIC} bytes and the
+ * {@link #PACK_VERSION} byte; each board follows as the length of its seed as an {@code int},
+ * its 3BV as an {@code int}, a byte that is 1 if it needs no guess, and then the board as a
+ * binary seed.
+ */
+public class BoardPipeline {
+    /** The first bytes of a packed file of boards. */
+    static final byte[] PACK_MAGIC = {'M', 'S', 'W', 'P'};
+    /** The version of the packed format. */
+    static final int PACK_VERSION = 1;
+    /** The number of boards handed from one stage to the next at a time. */
+    static final int CHUNK = 256;
+
+    private static final int MAX_TRIES = 1000;
+    private static final int BUFFER_SIZE = 1 << 16;
+    private static final Chunk DONE = new Chunk(-1, null);
+
+    private int rows;
+    private int cols;
+    private int mines;
+    private int threads;
+    private boolean noGuess;
+    private int min3bv;
+    private int max3bv;
+    private boolean binary;
+    private SplittableRandom random;
+    private long nextChunk;
+    private long lastChunk;
+    private volatile boolean stop;
+    private BlockingQueue<Chunk> generated;
+    private BlockingQueue<Chunk> rated;
+
+    /**
+     * Constructs a {@code BoardPipeline} that makes {@code rows} x {@code cols} boards with
+     * {@code mines} mines each. Every board is kept until {@link #requireNoGuess()} or
+     * {@link #require3bv(int,int)} says otherwise.
+     * @param rows the number of rows on each board.
+     * @param cols the number of columns on each board.
+     * @param mines the number of mines on each board.
+     * @param threads the number of threads that solve boards.
+     * @param seed the seed every board comes from.
+     */
+    public BoardPipeline(int rows, int cols, int mines, int threads, long seed) {
+        this.rows = rows;
+        this.cols = cols;
+        this.mines = mines;
+        this.threads = threads;
+        this.min3bv = 0;
+        this.max3bv = Integer.MAX_VALUE;
+        this.random = new SplittableRandom(seed);
+    } //Constructor
+
+    /**
+     * Only keep boards the solver wins without guessing after the first click.
+     */
+    public void requireNoGuess() {
+        this.noGuess = true;
+    } //method
+
+    /**
+     * Only keep boards whose 3BV is from {@code min} to {@code max}.
+     * @param min the lowest 3BV to keep.
+     * @param max the highest 3BV to keep.
+     */
+    public void require3bv(int min, int max) {
+        this.min3bv = min;
+        this.max3bv = max;
+    } //method
+
+    /**
+     * Write binary seeds instead of text seeds. Packed files always hold binary seeds.
+     */
+    public void useBinary() {
+        this.binary = true;
+    } //method
+
+    /**
+     * Make boards until {@code count} of them are kept, or until {@code MAX_TRIES} times that
+     * many have been made, and write them to {@code output}.
+     * @param output the directory to write seed files into, or the file to pack them into.
+     * @param pack true to pack the boards into one file.
+     * @param count the number of boards to keep.
+     * @param out where the summary is written.
+     * @return the number of boards kept.
+     * @throws IOException when the boards cannot be written.
+     */
+    public int run(File output, boolean pack, int count, PrintStream out) throws IOException {
+        if (!pack && !output.isDirectory() && !output.mkdirs()) {
+            throw new IOException(output + " is not a directory and cannot be made");
+        } //if
+        long tries = (long) count * MAX_TRIES;
+        this.lastChunk = (tries + CHUNK - 1) / CHUNK;
+        this.nextChunk = 0;
+        this.stop = false;
+        this.generated = new ArrayBlockingQueue<>(2 * threads);
+        this.rated = new ArrayBlockingQueue<>(2 * threads);
+        int generators = Math.max(1, threads / 4);
+        ExecutorService pool = Executors.newFixedThreadPool(generators + threads, task -> {
+            Thread thread = new Thread(task, "pipeline");
+            thread.setDaemon(true);
+            return thread;
+        });
+        AtomicInteger generating = new AtomicInteger(generators);
+        AtomicInteger solving = new AtomicInteger(threads);
+        for (int i = 0; i < generators; i++) {
+            pool.execute(() -> generate(generating));
+        } //for
+        for (int i = 0; i < threads; i++) {
+            pool.execute(() -> rate(solving));
+        } //for
+
+        long start = System.nanoTime();
+        Stats stats = new Stats();
+        try (Sink sink = pack ? new PackSink(output) : new DirectorySink(output, binary)) {
+            write(sink, count, stats);
+        } finally {
+            stop = true;
+            pool.shutdownNow();
+        } //try
+        long wallTime = System.nanoTime() - start;
+        out.printf("boards: %d made, %d solved without guessing, %d kept%n", stats.made,
+                   stats.noGuess, stats.kept);
+        out.printf("mean 3BV: %.1f, kept: %.2f%%%n",
+                   stats.made == 0 ? 0.0 : (double) stats.total3bv / stats.made,
+                   stats.made == 0 ? 0.0 : 100.0 * stats.kept / stats.made);
+        out.printf("threads: %d, wall time: %.3f ms, boards per second: %.0f%n", threads,
+                   wallTime / 1e6, stats.made / (wallTime / 1e9));
+        return stats.kept;
+    } //method
+
+    /**
+     * Take chunks off the rated queue, put them back in order and write the kept boards, until
+     * {@code count} are written or every stage has finished.
+     * @param sink where the boards are written.
+     * @param count the number of boards to keep.
+     * @param stats the totals to add to.
+     * @throws IOException when a board cannot be written.
+     */
+    private void write(Sink sink, int count, Stats stats) throws IOException {
+        Map<Long, Chunk> waiting = new HashMap<>();
+        long next = 0;
+        while (stats.kept < count) {
+            Chunk chunk = take(rated);
+            if (chunk == DONE) {
+                break;
+            } //if
+            waiting.put(chunk.index, chunk);
+            for (chunk = waiting.remove(next); chunk != null; chunk = waiting.remove(next)) {
+                next++;
+                for (int i = 0; i < chunk.boards.size() && stats.kept < count; i++) {
+                    Board board = chunk.boards.get(i);
+                    stats.made++;
+                    stats.total3bv += board.bv;
+                    stats.noGuess += board.noGuess ? 1 : 0;
+                    if (keep(board)) {
+                        sink.write(stats.kept++, rows, cols, board);
+                    } //if
+                } //for
+            } //for
+        } //while
+    } //method
+
+    /**
+     * Check a rated board against what was asked for.
+     * @param board the board.
+     * @return true if the board is kept.
+     */
+    private boolean keep(Board board) {
+        return (board.noGuess || !noGuess) && board.bv >= min3bv && board.bv <= max3bv;
+    } //method
+
+    /**
+     * The generator stage: place the mines of one chunk of boards at a time and queue it,
+     * waiting while the queue is full. The last generator to finish tells every solver.
+     * @param generating the number of generators still running.
+     */
+    private void generate(AtomicInteger generating) {
+        try {
+            for (Chunk chunk = claim(); chunk != null && !stop; chunk = claim()) {
+                MineGenerator generator = new MineGenerator(rows, cols, chunk.random);
+                for (int i = 0; i < CHUNK; i++) {
+                    chunk.boards.add(new Board(generator.placeMinesAround(mines, rows / 2,
+                                                                          cols / 2)));
+                } //for
+                generated.put(chunk);
+            } //for
+            if (generating.decrementAndGet() == 0) {
+                for (int i = 0; i < threads; i++) {
+                    generated.put(DONE);
+                } //for
+            } //if
+        } catch (InterruptedException ie) {
+            Thread.currentThread().interrupt();
+        } //try
+    } //method
+
+    /**
+     * Hand out the next chunk number with its own random stream.
+     * @return the chunk, or null once every chunk has been handed out.
+     */
+    private synchronized Chunk claim() {
+        if (nextChunk == lastChunk) {
+            return null;
+        } //if
+        return new Chunk(nextChunk++, random.split());
+    } //method
+
+    /**
+     * The solver stage: let a {@link Solver} play every board of a chunk, rate it and queue
+     * the chunk for the writer, waiting while the queue is full. Once the writer has enough
+     * boards, chunks are passed on without being played. The last solver to finish tells the
+     * writer.
+     * @param solving the number of solvers still running.
+     */
+    private void rate(AtomicInteger solving) {
+        Rater rater = new Rater(rows, cols);
+        try {
+            for (Chunk chunk = take(generated); chunk != DONE; chunk = take(generated)) {
+                for (int i = 0; i < chunk.boards.size() && !stop; i++) {
+                    Board board = chunk.boards.get(i);
+                    MinesweeperGame game = new MinesweeperGame(rows, cols, board.cells);
+                    Solver solver = new Solver(game);
+                    solver.limitGuesses(1);
+                    board.noGuess = solver.solve();
+                    board.bv = rater.rate(board.cells);
+                } //for
+                rated.put(chunk);
+            } //for
+            if (solving.decrementAndGet() == 0) {
+                rated.put(DONE);
+            } //if
+        } catch (InterruptedException ie) {
+            Thread.currentThread().interrupt();
+        } //try
+    } //method
+
+    /**
+     * Take the next chunk off a queue. Being interrupted counts as the end of the queue.
+     * @param queue the queue.
+     * @return the chunk.
+     */
+    private static Chunk take(BlockingQueue<Chunk> queue) {
+        try {
+            return queue.take();
+        } catch (InterruptedException ie) {
+            Thread.currentThread().interrupt();
+            return DONE;
+        } //try
+    } //method
+
+    /**
+     * Works out the 3BV of boards of one size, reusing its arrays from board to board.
+     */
+    private static class Rater {
+        private int rows;
+        private int cols;
+        private int[] around;
+        private boolean[] done;
+        private int[] stack;
+
+        /**
+         * Constructs a {@code Rater} for {@code rows} x {@code cols} boards.
+         * @param rows the number of rows.
+         * @param cols the number of columns.
+         */
+        Rater(int rows, int cols) {
+            this.rows = rows;
+            this.cols = cols;
+            this.around = new int[rows * cols];
+            this.done = new boolean[rows * cols];
+            this.stack = new int[rows * cols];
+        } //Constructor
+
+        /**
+         * Return the 3BV of a board: one click for every empty area, which also opens the
+         * numbers around it, and one for every other square without a mine.
+         * @param cells the square number of every mine.
+         * @return the 3BV.
+         */
+        int rate(int[] cells) {
+            Arrays.fill(around, 0);
+            Arrays.fill(done, false);
+            for (int cell : cells) {
+                int row = cell / cols;
+                int col = cell % cols;
+                for (int x = Math.max(0, row - 1); x <= Math.min(rows - 1, row + 1); x++) {
+                    for (int y = Math.max(0, col - 1); y <= Math.min(cols - 1, col + 1); y++) {
+                        around[(x * cols) + y]++;
+                    } //for
+                } //for
+            } //for
+            for (int cell : cells) {
+                around[cell] = -1;
+            } //for
+            int bv = 0;
+            for (int cell = 0; cell < around.length; cell++) {
+                if (around[cell] == 0 && !done[cell]) {
+                    bv++;
+                    open(cell);
+                } //if
+            } //for
+            for (int cell = 0; cell < around.length; cell++) {
+                if (around[cell] > 0 && !done[cell]) {
+                    bv++;
+                } //if
+            } //for
+            return bv;
+        } //method
+
+        /**
+         * Mark an empty area and the numbers around it as opened.
+         * @param first an empty square of the area.
+         */
+        private void open(int first) {
+            int size = 0;
+            stack[size++] = first;
+            done[first] = true;
+            while (size > 0) {
+                int cell = stack[--size];
+                if (around[cell] != 0) {
+                    continue;
+                } //if
+                int row = cell / cols;
+                int col = cell % cols;
+                for (int x = Math.max(0, row - 1); x <= Math.min(rows - 1, row + 1); x++) {
+                    for (int y = Math.max(0, col - 1); y <= Math.min(cols - 1, col + 1); y++) {
+                        int next = (x * cols) + y;
+                        if (!done[next]) {
+                            done[next] = true;
+                            stack[size++] = next;
+                        } //if
+                    } //for
+                } //for
+            } //while
+        } //method
+    } //class
+
+    /**
+     * A board on its way through the pipeline, with its rating once it has one.
+     */
+    private static class Board {
+        private int[] cells;
+        private boolean noGuess;
+        private int bv;
+
+        /**
+         * Constructs a {@code Board} that has not been rated.
+         * @param cells the square number of every mine.
+         */
+        Board(int[] cells) {
+            this.cells = cells;
+        } //Constructor
+    } //class
+
+    /**
+     * A run of {@code CHUNK} boards made from one random stream.
+     */
+    private static class Chunk {
+        private long index;
+        private SplittableRandom random;
+        private List<Board> boards;
+
+        /**
+         * Constructs an empty {@code Chunk}.
+         * @param index the number of the chunk.
+         * @param random the random stream its boards come from.
+         */
+        Chunk(long index, SplittableRandom random) {
+            this.index = index;
+            this.random = random;
+            this.boards = new ArrayList<>(CHUNK);
+        } //Constructor
+    } //class
+
+    /**
+     * The totals of a run.
+     */
+    private static class Stats {
+        private long made;
+        private long noGuess;
+        private long total3bv;
+        private int kept;
+    } //class
+
+    /**
+     * Where kept boards are written.
+     */
+    private interface Sink extends AutoCloseable {
+        /**
+         * Write one board.
+         * @param number the number of the board among those kept.
+         * @param rows the number of rows.
+         * @param cols the number of columns.
+         * @param board the board.
+         * @throws IOException when the board cannot be written.
+         */
+        void write(int number, int rows, int cols, Board board) throws IOException;
+
+        /**
+         * Finish writing.
+         * @throws IOException when the last boards cannot be written.
+         */
+        @Override
+        void close() throws IOException;
+    } //interface
+
+    /**
+     * Writes every board to its own seed file in a directory.
+     */
+    private static class DirectorySink implements Sink {
+        private File directory;
+        private boolean binary;
+
+        /**
+         * Constructs a {@code DirectorySink}.
+         * @param directory the directory.
+         * @param binary true to write binary seeds.
+         */
+        DirectorySink(File directory, boolean binary) {
+            this.directory = directory;
+            this.binary = binary;
+        } //Constructor
+
+        @Override
+        public void write(int number, int rows, int cols, Board board) throws IOException {
+            String name = String.format("board%06d", number);
+            if (binary) {
+                SeedWriter.writeBinary(new File(directory, name + ".bin"), rows, cols,
+                                       board.cells);
+            } else {
+                SeedWriter.writeText(new File(directory, name + ".txt"), rows, cols,
+                                     board.cells);
+            } //if else
+        } //method
+
+        @Override
+        public void close() {
+        } //method
+    } //class
+
+    /**
+     * Packs every board into one file.
+     */
+    private static class PackSink implements Sink {
+        private DataOutputStream out;
+        private ByteArrayOutputStream bytes;
+        private DataOutputStream seed;
+
+        /**
+         * Constructs a {@code PackSink} and writes the header of the file.
+         * @param file the file.
+         * @throws IOException when the file cannot be written.
+         */
+        PackSink(File file) throws IOException {
+            this.out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(file),
+                                                                     BUFFER_SIZE));
+            this.bytes = new ByteArrayOutputStream();
+            this.seed = new DataOutputStream(bytes);
+            out.write(PACK_MAGIC);
+            out.write(PACK_VERSION);
+        } //Constructor
+
+        @Override
+        public void write(int number, int rows, int cols, Board board) throws IOException {
+            bytes.reset();
+            SeedWriter.writeBinary(seed, rows, cols, board.cells);
+            out.writeInt(bytes.size());
+            out.writeInt(board.bv);
+            out.write(board.noGuess ? 1 : 0);
+            bytes.writeTo(out);
+        } //method
+
+        @Override
+        public void close() throws IOException {
+            out.close();
+        } //method
+    } //class
+} //class
@@ -0,0 +1,352 @@
+package cs1302.game;
+
+import cs1302.game.MinesweeperGame;
+import java.io.PrintStream;
+import java.util.BitSet;
+
+/**
+ * This class represents a BoardRenderer object. A {@code BoardRenderer} draws the game board
+ * of a {@link MinesweeperGame} to an output stream. Each frame is written into one reusable
+ * {@code StringBuilder} and handed to the stream with a single call, instead of one
+ * {@code printf} per square.
+ *
+ * <p>
+ * In plain mode every frame is the whole board, laid out exactly like the original
+ * minesweeper-alpha board (see {@code tests/tc01.out.txt}). In ANSI mode the whole board is
+ * drawn once, and after that only the squares passed to {@link #markDirty(int)} are repainted
+ * in place using cursor movement escape codes.
+ *
+ * <p>
+ * Given the chances from a {@link ProbabilityAnalyzer}, every unrevealed square is drawn as a
+ * heatmap instead: {@code S} for a square that cannot hold a mine, {@code M} for one that must,
+ * and one of the {@code HEAT} characters, from lightest to heaviest, for the rest.
+ *
+ * <p>
+ * Given a viewport with {@link #viewport(int, int, TiledBoard)}, every frame is only the
+ * squares in the viewport, so drawing costs the same however large the board is. The labels
+ * keep the width of the labels of the whole board, and ANSI mode clears the screen and draws
+ * the viewport again instead of tracking the squares that changed. Under the viewport there
+ * can be a minimap of the whole board, one character for each block of tiles of the
+ * {@link TiledBoard}, drawn from the count of revealed squares each tile keeps: a space for a
+ * block with nothing revealed, then the {@code HEAT} characters up to {@code @} for a block
+ * that is all revealed. The rows and columns of the minimap that the viewport covers are
+ * pointed out with {@code >} and {@code ^}.
+ */
+class BoardRenderer {
+    /** The heatmap characters, each covering an equal slice of the chances of a mine. */
+    static final String HEAT = ".:-=+*#%@";
+    /** The most columns of the minimap. */
+    static final int MINIMAP_COLS = 64;
+    /** The most rows of the minimap. */
+    static final int MINIMAP_ROWS = 32;
+
+    private MinesweeperGame game;
+    private PrintStream out;
+    private boolean ansi;
+    private boolean painted;
+    private int rows;
+    private int cols;
+    private int rowWidth;
+    private int colWidth;
+    private StringBuilder frame;
+    private BitSet dirty;
+    private double[] heat;
+    private boolean viewport;
+    private int top;
+    private int left;
+    private int height;
+    private int width;
+    private TiledBoard minimap;
+
+    /**
+     * Constructs a {@code BoardRenderer} that draws the board of {@code game} to {@code out}.
+     * @param game the game whose squares are drawn.
+     * @param rows the number of rows on the board.
+     * @param cols the number of columns on the board.
+     * @param out the stream that each frame is written to.
+     * @param ansi true to repaint only the squares that changed since the last frame.
+     */
+    BoardRenderer(MinesweeperGame game, int rows, int cols, PrintStream out, boolean ansi) {
+        this.game = game;
+        this.rows = rows;
+        this.cols = cols;
+        this.out = out;
+        this.ansi = ansi;
+        this.painted = false;
+        this.rowWidth = spaceNum(rows);
+        this.colWidth = spaceNum(cols);
+        this.frame = new StringBuilder();
+        this.dirty = new BitSet();
+    } //Constructor
+
+    /**
+     * Calculate the amount of spaces that need to be padded for the row and column
+     * labels. This return a integer based on the number of digits in the rows and cols.
+     * @param digit the number use to calulate the spacing.
+     * @return the number of whitespace to pad.
+     */
+    static int spaceNum(int digit) {
+        double widthDouble = Math.ceil(Math.log10(digit));
+        int widthInt = 1;
+        if (digit != 1) {
+            widthInt = (int) widthDouble;
+        } //if
+        return widthInt;
+    } //method
+
+    /**
+     * Draw every unrevealed square as its chance of a mine from now on.
+     * @param probability the chance for every square, indexed by {@code row * cols + col}.
+     */
+    void showHeat(double[] probability) {
+        this.heat = probability;
+    } //method
+
+    /**
+     * Draw only {@code height} rows and {@code width} columns of the board from now on, starting
+     * at the square given to {@link #moveViewport(int, int)}, with a minimap of {@code board}
+     * under them if it is not null.
+     * @param height the number of rows in the viewport, at most the number on the board.
+     * @param width the number of columns in the viewport, at most the number on the board.
+     * @param board the board to draw a minimap of, or null for no minimap.
+     */
+    void viewport(int height, int width, TiledBoard board) {
+        this.viewport = true;
+        this.height = height;
+        this.width = width;
+        this.minimap = board;
+    } //method
+
+    /**
+     * Move the top left corner of the viewport.
+     * @param row the x value of the square in the top left corner.
+     * @param col the y value of the square in the top left corner.
+     */
+    void moveViewport(int row, int col) {
+        this.top = row;
+        this.left = col;
+    } //method
+
+    /**
+     * Remember that a square has changed so that the next ANSI frame repaints it. Does
+     * nothing in plain mode, since every plain frame is the whole board, or with a viewport,
+     * since every viewport frame is the whole viewport.
+     * @param cell the index of the square, {@code row * cols + col}.
+     */
+    void markDirty(int cell) {
+        if (ansi && !viewport) {
+            dirty.set(cell);
+        } //if
+    } //method
+
+    /**
+     * Draw one frame of the board to the output stream.
+     * @param rounds the number of rounds completed, shown above the board.
+     * @param nofog true if the mines should be shown with {@code <} and {@code >} this frame.
+     */
+    void render(int rounds, boolean nofog) {
+        frame.setLength(0);
+        if (viewport) {
+            renderViewport(rounds, nofog);
+        } else if (ansi && painted) {
+            frame.append("\033[2;1H Rounds Completed: ").append(rounds).append("\033[K");
+            for (int cell = dirty.nextSetBit(0); cell >= 0; cell = dirty.nextSetBit(cell + 1)) {
+                int row = cell / cols;
+                int col = cell % cols;
+                frame.append("\033[").append(row + 4).append(';')
+                    .append(rowWidth + 2 + (col * (colWidth + 3))).append('H');
+                appendSquare(row, col, nofog);
+                appendLead(row, col + 1, nofog);
+            } //for
+            frame.append("\033[").append(rows + 5).append(";1H\033[J");
+        } else {
+            if (ansi) {
+                frame.append("\033[H\033[2J");
+                painted = true;
+            } //if
+            frame.append("\n Rounds Completed: ").append(rounds).append("\n\n");
+            for (int row = 0; row < rows; row++) {
+                frame.append(' ');
+                appendPadded(row, rowWidth);
+                for (int col = 0; col < cols; col++) {
+                    appendSquare(row, col, nofog);
+                } //for
+                appendLead(row, cols, nofog);
+                frame.append("|\n");
+            } //for
+            appendSpaces(rowWidth + 2);
+            for (int col = 0; col < cols; col++) {
+                frame.append("  ");
+                appendPadded(col, colWidth);
+                frame.append(' ');
+            } //for
+            frame.append('\n');
+        } //if else
+        dirty.clear();
+        out.print(frame);
+        out.flush();
+    } //method
+
+    /**
+     * Write the viewport, and the minimap if there is one, into the frame.
+     * @param rounds the number of rounds completed, shown above the board.
+     * @param nofog true if the mines should be shown with {@code <} and {@code >} this frame.
+     */
+    private void renderViewport(int rounds, boolean nofog) {
+        if (ansi) {
+            frame.append("\033[H\033[2J");
+        } //if
+        frame.append("\n Rounds Completed: ").append(rounds).append("\n\n");
+        for (int row = top; row < top + height; row++) {
+            frame.append(' ');
+            appendPadded(row, rowWidth);
+            for (int col = left; col < left + width; col++) {
+                appendSquare(row, col, nofog);
+            } //for
+            appendLead(row, left + width, nofog);
+            frame.append("|\n");
+        } //for
+        appendSpaces(rowWidth + 2);
+        for (int col = left; col < left + width; col++) {
+            frame.append("  ");
+            appendPadded(col, colWidth);
+            frame.append(' ');
+        } //for
+        frame.append("\n\n Rows ").append(top).append('-').append(top + height - 1)
+            .append(" and columns ").append(left).append('-').append(left + width - 1)
+            .append(" of ").append(rows).append(" x ").append(cols).append('\n');
+        if (minimap != null) {
+            appendMinimap();
+        } //if
+    } //method
+
+    /**
+     * Write the minimap into the frame. Each character covers a square block of tiles, as few
+     * as keep the minimap within {@link #MINIMAP_ROWS} rows and {@link #MINIMAP_COLS} columns.
+     */
+    private void appendMinimap() {
+        int tileRows = minimap.getTileRows();
+        int tileCols = minimap.getTileCols();
+        int group = Math.max(1, Math.max((tileCols + MINIMAP_COLS - 1) / MINIMAP_COLS,
+                                         (tileRows + MINIMAP_ROWS - 1) / MINIMAP_ROWS));
+        int block = group * TiledBoard.SIZE;
+        int mapRows = (tileRows + group - 1) / group;
+        int mapCols = (tileCols + group - 1) / group;
+        frame.append("\n Minimap, ").append(block).append(" x ").append(block)
+            .append(" squares to a character:\n");
+        for (int mapRow = 0; mapRow < mapRows; mapRow++) {
+            long first = (long) mapRow * block;
+            long high = Math.min(rows, first + block) - first;
+            boolean shown = first < top + height && first + high > top;
+            frame.append(shown ? " >|" : "  |");
+            for (int mapCol = 0; mapCol < mapCols; mapCol++) {
+                long wide = Math.min(cols, (long) (mapCol + 1) * block) - (long) mapCol * block;
+                long count = 0;
+                for (int tileRow = mapRow * group;
+                     tileRow < Math.min(tileRows, (mapRow + 1) * group); tileRow++) {
+                    for (int tileCol = mapCol * group;
+                         tileCol < Math.min(tileCols, (mapCol + 1) * group); tileCol++) {
+                        count += minimap.getRevealed(tileRow, tileCol);
+                    } //for
+                } //for
+                if (count == 0) {
+                    frame.append(' ');
+                } else {
+                    frame.append(HEAT.charAt((int) Math.min(HEAT.length() - 1,
+                                                            count * HEAT.length()
+                                                            / (high * wide))));
+                } //if else
+            } //for
+            frame.append("|\n");
+        } //for
+        appendSpaces(3);
+        for (int mapCol = 0; mapCol < mapCols; mapCol++) {
+            long first = (long) mapCol * block;
+            frame.append(first < left + width && first + block > left ? '^' : ' ');
+        } //for
+        frame.append('\n');
+    } //method
+
+    /**
+     * Append one square and the separator on its left, for example {@code " |  F"}.
+     * @param row the x value of the square.
+     * @param col the y value of the square.
+     * @param nofog true if mines are being shown this frame.
+     */
+    private void appendSquare(int row, int col, boolean nofog) {
+        appendLead(row, col, nofog);
+        frame.append('|');
+        if (nofog && game.isMine(row, col)) {
+            frame.append('<');
+            appendSpaces(colWidth - 1);
+        } else {
+            appendSpaces(colWidth);
+        } //if else
+        byte state = game.getSquare(row, col);
+        if (heat != null && state != MinesweeperGame.REVEALED) {
+            double chance = heat[(row * cols) + col];
+            if (chance == 0) {
+                frame.append('S');
+            } else if (chance == 1) {
+                frame.append('M');
+            } else {
+                frame.append(HEAT.charAt(Math.min(HEAT.length() - 1,
+                                                  (int) (chance * HEAT.length()))));
+            } //if else
+            return;
+        } //if
+        switch (state) {
+        case MinesweeperGame.REVEALED:
+            frame.append(game.getNumAdjMines(row, col));
+            break;
+        case MinesweeperGame.MARKED:
+            frame.append('F');
+            break;
+        case MinesweeperGame.GUESSED:
+            frame.append('?');
+            break;
+        default:
+            frame.append(' ');
+            break;
+        } //switch
+    } //method
+
+    /**
+     * Append the character in front of a separator. It closes a shown mine to its left
+     * with {@code >} and is a space otherwise.
+     * @param row the x value of the square to the right of the separator.
+     * @param col the y value of the square to the right of the separator.
+     * @param nofog true if mines are being shown this frame.
+     */
+    private void appendLead(int row, int col, boolean nofog) {
+        if (nofog && col > left && game.isMine(row, col - 1)) {
+            frame.append('>');
+        } else {
+            frame.append(' ');
+        } //if else
+    } //method
+
+    /**
+     * Append {@code value} right aligned in a field of {@code width} characters.
+     * @param value the number to append.
+     * @param width the minimum number of characters to use.
+     */
+    private void appendPadded(int value, int width) {
+        int digits = 1;
+        for (int rest = value / 10; rest > 0; rest /= 10) {
+            digits++;
+        } //for
+        appendSpaces(width - digits);
+        frame.append(value);
+    } //method
+
+    /**
+     * Append {@code count} spaces.
+     * @param count the number of spaces to append.
+     */
+    private void appendSpaces(int count) {
+        for (int i = 0; i < count; i++) {
+            frame.append(' ');
+        } //for
+    } //method
+} //class
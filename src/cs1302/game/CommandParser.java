@@ -0,0 +1,428 @@
+package cs1302.game;
+
+import java.io.IOException;
+import java.nio.CharBuffer;
+
+/**
+ * This class represents a CommandParser object. A {@code CommandParser} reads the commands of a
+ * {@link MinesweeperGame} one line at a time and turns each line into a command record: an
+ * opcode, a row and a column, kept in the parser and overwritten by the next line. Lines are read
+ * into one reused character buffer and tokenized in a single pass over it, so playing a command
+ * allocates nothing, and a line that is not a valid command is reported as {@link #UNKNOWN}
+ * rather than with an exception.
+ *
+ * <p>
+ * The rules are the ones the game has always used. Tokens are separated by spaces only and only
+ * the first three count; a fourth makes the command unknown. The row and column must both be
+ * plain integers, with an optional sign. Pan takes a number of rows and of columns to move the
+ * viewport by, which may also be negative. Help and quit take no arguments, save and load take
+ * an optional path and nofog ignores anything after it. Lines end the same way as for
+ * {@code Scanner.nextLine()}.
+ *
+ * <p>
+ * A line may also hold a batch of commands separated by {@code ;}, such as
+ * {@code r 0 0; m 1 2; c 0 1}. {@link #next()} parses the first of them and
+ * {@link #nextCommand()} each of the others in turn. Blank commands in a batch are skipped, but
+ * a line that is blank on its own is still one unknown command.
+ */
+public class CommandParser {
+    /** The line was empty or was not a valid command. */
+    public static final int UNKNOWN = 0;
+    /** r/reveal row col. */
+    public static final int REVEAL = 1;
+    /** m/mark row col. */
+    public static final int MARK = 2;
+    /** g/guess row col. */
+    public static final int GUESS = 3;
+    /** h/help. */
+    public static final int HELP = 4;
+    /** q/quit. */
+    public static final int QUIT = 5;
+    /** save [path]. */
+    public static final int SAVE = 6;
+    /** load [path]. */
+    public static final int LOAD = 7;
+    /** nofog. */
+    public static final int NOFOG = 8;
+    /** c/chord row col. */
+    public static final int CHORD = 9;
+    /** p/pan rows cols. */
+    public static final int PAN = 10;
+    /** goto row col. */
+    public static final int GOTO = 11;
+
+    private static final int MAX_TOKENS = 3;
+
+    private Readable input;
+    private char[] buffer;
+    private CharBuffer target;
+    private CharBuffer line;
+    private CharBuffer segment;
+    private int cursor;
+    private int lineEnd;
+    private int start;
+    private int end;
+    private boolean eof;
+    private int[] tokenStart;
+    private int[] tokenEnd;
+    private CharSequence tokens;
+    private int numTokens;
+    private int opcode;
+    private int row;
+    private int col;
+
+    /**
+     * Constructs a {@code CommandParser} that reads its lines from {@code input}.
+     * @param input where the commands are read from, or null to only parse given lines.
+     */
+    public CommandParser(Readable input) {
+        this.input = input;
+        this.buffer = new char[1024];
+        this.target = CharBuffer.wrap(buffer);
+        this.line = CharBuffer.wrap(buffer);
+        this.segment = CharBuffer.wrap(buffer);
+        this.tokenStart = new int[MAX_TOKENS];
+        this.tokenEnd = new int[MAX_TOKENS];
+    } //Constructor
+
+    /**
+     * Read the next line and parse its first command into the command record.
+     * @return false if there are no more lines to read, otherwise true.
+     */
+    public boolean next() {
+        if (!readLine()) {
+            return false;
+        } //if
+        parseLine();
+        return true;
+    } //method
+
+    /**
+     * Read the next line without parsing it, so the two can be timed apart.
+     * @return false if there are no more lines to read, otherwise true.
+     */
+    boolean readLine() {
+        int lineEnd = start;
+        while (true) {
+            for (; lineEnd < end; lineEnd++) {
+                char c = buffer[lineEnd];
+                if (c == '\n' || c == '\r' || c == '\u2028' || c == '\u2029' || c == '\u0085') {
+                    break;
+                } //if
+            } //for
+            if (lineEnd < end && (buffer[lineEnd] != '\r' || lineEnd + 1 < end || eof)) {
+                break;
+            } //if
+            if (eof) {
+                if (start == end) {
+                    return false;
+                } //if
+                break;
+            } //if
+            lineEnd -= start;
+            fill();
+            lineEnd += start;
+        } //while
+        line.limit(lineEnd).position(start);
+        this.cursor = start;
+        this.lineEnd = lineEnd;
+        if (lineEnd == end) {
+            start = end;
+        } else if (buffer[lineEnd] == '\r' && lineEnd + 1 < end && buffer[lineEnd + 1] == '\n') {
+            start = lineEnd + 2;
+        } else {
+            start = lineEnd + 1;
+        } //if else
+        return true;
+    } //method
+
+    /**
+     * Parse the first command of the line read by {@link #readLine()} into the command record.
+     * @return the opcode of the command, {@link #UNKNOWN} if it is not a valid command.
+     */
+    int parseLine() {
+        do {
+            parseSegment();
+        } while (numTokens == 0 && cursor <= lineEnd);
+        return opcode;
+    } //method
+
+    /**
+     * Parse the next command of a batch on the line that was last read into the command
+     * record.
+     * @return false if the line has no more commands, otherwise true.
+     */
+    public boolean nextCommand() {
+        while (cursor <= lineEnd) {
+            parseSegment();
+            if (numTokens > 0) {
+                return true;
+            } //if
+        } //while
+        return false;
+    } //method
+
+    /**
+     * Parse the characters of the line from {@code cursor} up to the next {@code ;} or the end
+     * of the line, and move {@code cursor} past them.
+     */
+    private void parseSegment() {
+        int stop = cursor;
+        while (stop < lineEnd && buffer[stop] != ';') {
+            stop++;
+        } //while
+        segment.limit(stop).position(cursor);
+        cursor = stop + 1;
+        parse(segment);
+    } //method
+
+    /**
+     * Read more characters after the ones not used yet, first moving those to the front of the
+     * buffer and growing it if it is full. Reaching the end of the input, or failing to read it,
+     * sets {@code eof}.
+     */
+    private void fill() {
+        if (start > 0) {
+            System.arraycopy(buffer, start, buffer, 0, end - start);
+            end -= start;
+            start = 0;
+        } //if
+        if (end == buffer.length) {
+            char[] larger = new char[buffer.length * 2];
+            System.arraycopy(buffer, 0, larger, 0, end);
+            buffer = larger;
+            target = CharBuffer.wrap(buffer);
+            line = CharBuffer.wrap(buffer);
+            segment = CharBuffer.wrap(buffer);
+        } //if
+        target.limit(buffer.length).position(end);
+        int read;
+        try {
+            read = input.read(target);
+        } catch (IOException ioe) {
+            read = -1;
+        } //try
+        if (read < 0) {
+            eof = true;
+        } else {
+            end += read;
+        } //if else
+    } //method
+
+    /**
+     * Parse one command, without a line break or {@code ;}, into the command record.
+     * @param text the line.
+     * @return the opcode of the command, {@link #UNKNOWN} if it is not a valid command.
+     */
+    public int parse(CharSequence text) {
+        this.tokens = text;
+        this.opcode = UNKNOWN;
+        this.numTokens = 0;
+        int count = 0;
+        int length = text.length();
+        int i = 0;
+        while (i < length) {
+            if (text.charAt(i) == ' ') {
+                i++;
+                continue;
+            } //if
+            if (count == MAX_TOKENS) {
+                this.numTokens = count + 1;
+                return opcode;
+            } //if
+            tokenStart[count] = i;
+            while (i < length && text.charAt(i) != ' ') {
+                i++;
+            } //while
+            tokenEnd[count++] = i;
+        } //while
+        this.numTokens = count;
+        if (count == 0) {
+            return opcode;
+        } //if
+        int op = keyword(text, tokenStart[0], tokenEnd[0]);
+        switch (op) {
+        case REVEAL:
+        case MARK:
+        case GUESS:
+        case CHORD:
+        case GOTO:
+            if (count == 3) {
+                this.row = number(text, tokenStart[1], tokenEnd[1]);
+                this.col = number(text, tokenStart[2], tokenEnd[2]);
+                if (row >= 0 && col >= 0) {
+                    this.opcode = op;
+                } //if
+            } //if
+            break;
+        case PAN:
+            if (count == 3) {
+                this.row = offset(text, tokenStart[1], tokenEnd[1]);
+                this.col = offset(text, tokenStart[2], tokenEnd[2]);
+                if (row != Integer.MIN_VALUE && col != Integer.MIN_VALUE) {
+                    this.opcode = op;
+                } //if
+            } //if
+            break;
+        case HELP:
+        case QUIT:
+            if (count == 1) {
+                this.opcode = op;
+            } //if
+            break;
+        default:
+            this.opcode = op;
+        } //switch
+        return opcode;
+    } //method
+
+    /**
+     * Find the opcode a command word stands for.
+     * @param text the line.
+     * @param from where the word starts.
+     * @param to where the word ends.
+     * @return the opcode, {@link #UNKNOWN} if the word is not a command.
+     */
+    private static int keyword(CharSequence text, int from, int to) {
+        char first = text.charAt(from);
+        switch (first) {
+        case 'r':
+            return matches(text, from, to, "reveal") ? REVEAL : UNKNOWN;
+        case 'm':
+            return matches(text, from, to, "mark") ? MARK : UNKNOWN;
+        case 'g':
+            if (to - from == 4) {
+                return matches(text, from, to, "goto") ? GOTO : UNKNOWN;
+            } //if
+            return matches(text, from, to, "guess") ? GUESS : UNKNOWN;
+        case 'c':
+            return matches(text, from, to, "chord") ? CHORD : UNKNOWN;
+        case 'h':
+            return matches(text, from, to, "help") ? HELP : UNKNOWN;
+        case 'q':
+            return matches(text, from, to, "quit") ? QUIT : UNKNOWN;
+        case 's':
+            return to - from == 4 && matches(text, from, to, "save") ? SAVE : UNKNOWN;
+        case 'l':
+            return to - from == 4 && matches(text, from, to, "load") ? LOAD : UNKNOWN;
+        case 'p':
+            return matches(text, from, to, "pan") ? PAN : UNKNOWN;
+        case 'n':
+            return to - from == 5 && matches(text, from, to, "nofog") ? NOFOG : UNKNOWN;
+        default:
+            return UNKNOWN;
+        } //switch
+    } //method
+
+    /**
+     * Check if a word is either the first letter of {@code name} or all of it.
+     * @param text the line.
+     * @param from where the word starts.
+     * @param to where the word ends.
+     * @param name the full command word.
+     * @return true if the word matches.
+     */
+    private static boolean matches(CharSequence text, int from, int to, String name) {
+        int length = to - from;
+        if (length == 1) {
+            return true;
+        } //if
+        if (length != name.length()) {
+            return false;
+        } //if
+        for (int i = 1; i < length; i++) {
+            if (text.charAt(from + i) != name.charAt(i)) {
+                return false;
+            } //if
+        } //for
+        return true;
+    } //method
+
+    /**
+     * Read a row or column number. Only an optional sign followed by the digits 0 to 9 is a
+     * number, which is what both {@code Double.parseDouble} and {@code Integer.parseInt} accept.
+     * @param text the line.
+     * @param from where the number starts.
+     * @param to where the number ends.
+     * @return the number, or -1 if it is not a number or is not a possible square.
+     */
+    private static int number(CharSequence text, int from, int to) {
+        boolean negative = false;
+        char sign = text.charAt(from);
+        if (sign == '+' || sign == '-') {
+            negative = sign == '-';
+            from++;
+        } //if
+        if (from == to) {
+            return -1;
+        } //if
+        long value = 0;
+        for (int i = from; i < to; i++) {
+            char c = text.charAt(i);
+            if (c < '0' || c > '9') {
+                return -1;
+            } //if
+            value = value * 10 + (c - '0');
+            if (value > Integer.MAX_VALUE) {
+                return -1;
+            } //if
+        } //for
+        return negative && value != 0 ? -1 : (int) value;
+    } //method
+
+    /**
+     * Read the number of rows or columns given to pan, which is a number as for
+     * {@link #number(CharSequence, int, int)} or a {@code -} followed by one.
+     * @param text the line.
+     * @param from where the number starts.
+     * @param to where the number ends.
+     * @return the number, or {@code Integer.MIN_VALUE} if it is not a number.
+     */
+    private static int offset(CharSequence text, int from, int to) {
+        boolean negative = to - from > 1 && text.charAt(from) == '-'
+            && text.charAt(from + 1) >= '0' && text.charAt(from + 1) <= '9';
+        int value = number(text, negative ? from + 1 : from, to);
+        if (value < 0) {
+            return Integer.MIN_VALUE;
+        } //if
+        return negative ? -value : value;
+    } //method
+
+    /**
+     * Return the opcode of the last command parsed.
+     * @return the opcode.
+     */
+    public int getOpcode() {
+        return opcode;
+    } //method
+
+    /**
+     * Return the row of the last reveal, mark, guess, chord or goto command, or the rows to
+     * move by of the last pan command.
+     * @return the row.
+     */
+    public int getRow() {
+        return row;
+    } //method
+
+    /**
+     * Return the column of the last reveal, mark, guess, chord or goto command, or the columns
+     * to move by of the last pan command.
+     * @return the column.
+     */
+    public int getCol() {
+        return col;
+    } //method
+
+    /**
+     * Return the path given to the last save or load command. This is the only part of a
+     * command that is copied out of the line.
+     * @return the path, or null if none was given.
+     */
+    public String getPath() {
+        if ((opcode != SAVE && opcode != LOAD) || numTokens < 2) {
+            return null;
+        } //if
+        return tokens.subSequence(tokenStart[1], tokenEnd[1]).toString();
+    } //method
+} //class
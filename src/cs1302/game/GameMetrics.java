@@ -0,0 +1,280 @@
+package cs1302.game;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.io.PrintWriter;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.Locale;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * This class represents a GameMetrics object. A {@code GameMetrics} records where the time of
+ * a {@link MinesweeperGame} goes, one command at a time: waiting for input, parsing it,
+ * changing the squares, checking for a win and drawing the board each have a
+ * {@link LatencyHistogram}. It also counts the commands of each kind, the cascades and the
+ * squares revealed. Recording only touches arrays made up front, so it does not allocate.
+ *
+ * <p>
+ * The metrics can be printed as a table with {@link #printSummary(PrintStream)} and written in
+ * the Prometheus text format with {@link #writePrometheus(PrintWriter)}. With
+ * {@link #dumpEvery(File,int)} they are also written to a file every few seconds, the same way
+ * autosave works: the timer only raises a flag, and after the next command the game's thread
+ * copies the metrics and a background thread writes the copy to a temporary file that then
+ * replaces the old one, so a reader never sees half a file.
+ */
+public class GameMetrics {
+    /** Waiting for the next line of input. */
+    public static final int INPUT = 0;
+    /** Turning the line into a command. */
+    public static final int PARSE = 1;
+    /** Changing the squares for a reveal, mark or guess. */
+    public static final int UPDATE = 2;
+    /** Checking if the move won or lost the game. */
+    public static final int WIN_CHECK = 3;
+    /** Drawing the board. */
+    public static final int RENDER = 4;
+
+    private static final String[] PHASES = {"input", "parse", "update", "win_check", "render"};
+    private static final String[] COMMANDS = {"unknown", "reveal", "mark", "guess", "help",
+                                              "quit", "save", "load", "nofog", "chord", "pan",
+                                              "goto"};
+    private static final double[] QUANTILES = {0.5, 0.9, 0.99, 0.999};
+
+    private LatencyHistogram[] phases;
+    private long[] commands;
+    private long cascades;
+    private long squaresRevealed;
+    private File dumpFile;
+    private ScheduledExecutorService dumper;
+    private volatile boolean dumpDue;
+
+    /**
+     * Constructs a {@code GameMetrics} with nothing recorded.
+     */
+    public GameMetrics() {
+        this.phases = new LatencyHistogram[PHASES.length];
+        for (int i = 0; i < PHASES.length; i++) {
+            phases[i] = new LatencyHistogram();
+        } //for
+        this.commands = new long[COMMANDS.length];
+    } //Constructor
+
+    /**
+     * Record the time a phase took, from {@code start} until now.
+     * @param phase one of {@code INPUT}, {@code PARSE}, {@code UPDATE}, {@code WIN_CHECK} or
+     * {@code RENDER}.
+     * @param start the {@code System.nanoTime()} the phase started at.
+     * @return the {@code System.nanoTime()} the phase ended at, which is where the next phase
+     * starts.
+     */
+    public long record(int phase, long start) {
+        long now = System.nanoTime();
+        phases[phase].record(now - start);
+        return now;
+    } //method
+
+    /**
+     * Count one command.
+     * @param opcode the {@link CommandParser} opcode of the command.
+     */
+    public void countCommand(int opcode) {
+        commands[opcode]++;
+    } //method
+
+    /**
+     * Count one cascade.
+     * @param revealed the number of squares it revealed.
+     */
+    public void countCascade(long revealed) {
+        cascades++;
+        squaresRevealed += revealed;
+    } //method
+
+    /**
+     * Count squares revealed one at a time.
+     * @param revealed the number of squares.
+     */
+    public void countRevealed(long revealed) {
+        squaresRevealed += revealed;
+    } //method
+
+    /**
+     * Return the histogram of one phase.
+     * @param phase one of {@code INPUT}, {@code PARSE}, {@code UPDATE}, {@code WIN_CHECK} or
+     * {@code RENDER}.
+     * @return the histogram.
+     */
+    public LatencyHistogram getPhase(int phase) {
+        return phases[phase];
+    } //method
+
+    /**
+     * Return the number of commands of one kind.
+     * @param opcode the {@link CommandParser} opcode.
+     * @return the count.
+     */
+    public long getCommandCount(int opcode) {
+        return commands[opcode];
+    } //method
+
+    /**
+     * Return the number of cascades.
+     * @return the count.
+     */
+    public long getCascades() {
+        return cascades;
+    } //method
+
+    /**
+     * Return the number of squares revealed, by moves and by cascades.
+     * @return the count.
+     */
+    public long getSquaresRevealed() {
+        return squaresRevealed;
+    } //method
+
+    /**
+     * Write the metrics to {@code file} every {@code seconds} seconds, and once more when
+     * {@link #finish()} is called.
+     * @param file the file to keep up to date.
+     * @param seconds the time between writes.
+     */
+    public void dumpEvery(File file, int seconds) {
+        this.dumpFile = file;
+        this.dumper = Executors.newSingleThreadScheduledExecutor(task -> {
+            Thread thread = new Thread(task, "metrics");
+            thread.setDaemon(true);
+            return thread;
+        });
+        dumper.scheduleAtFixedRate(() -> dumpDue = true, seconds, seconds, TimeUnit.SECONDS);
+    } //method
+
+    /**
+     * Hand a copy of the metrics to the background thread if the timer has gone off since the
+     * last command. Called by the game's thread after every command.
+     * @param err where a failed write is reported.
+     */
+    void checkDump(PrintStream err) {
+        if (dumpDue) {
+            dumpDue = false;
+            GameMetrics copy = copy();
+            dumper.execute(() -> copy.dump(dumpFile, err));
+        } //if
+    } //method
+
+    /**
+     * Write the metrics to the dump file one last time and stop the timer. Waits for the
+     * write to finish, since the program is about to end.
+     * @param err where a failed write is reported.
+     */
+    void finish(PrintStream err) {
+        if (dumper != null) {
+            dumper.shutdownNow();
+            dump(dumpFile, err);
+        } //if
+    } //method
+
+    /**
+     * Write the metrics to a temporary file next to {@code file} and move it over
+     * {@code file}.
+     * @param file the file to write.
+     * @param err where a failed write is reported.
+     */
+    private void dump(File file, PrintStream err) {
+        File parent = file.getAbsoluteFile().getParentFile();
+        try {
+            File temp = File.createTempFile(".metrics", ".tmp", parent);
+            try (PrintWriter writer = new PrintWriter(temp, "UTF-8")) {
+                writePrometheus(writer);
+            } //try
+            try {
+                Files.move(temp.toPath(), file.toPath(), StandardCopyOption.ATOMIC_MOVE,
+                           StandardCopyOption.REPLACE_EXISTING);
+            } catch (IOException ioe) {
+                Files.move(temp.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING);
+            } //try
+        } catch (IOException ioe) {
+            err.println("\nMetrics Error: " + ioe.getMessage());
+        } //try
+    } //method
+
+    /**
+     * Return a copy of the metrics that later records do not change.
+     * @return the copy.
+     */
+    GameMetrics copy() {
+        GameMetrics copy = new GameMetrics();
+        for (int i = 0; i < PHASES.length; i++) {
+            copy.phases[i] = phases[i].copy();
+        } //for
+        copy.commands = commands.clone();
+        copy.cascades = cascades;
+        copy.squaresRevealed = squaresRevealed;
+        return copy;
+    } //method
+
+    /**
+     * Write the metrics in the Prometheus text format. Each phase is a summary in seconds with
+     * the 0.5, 0.9, 0.99 and 0.999 quantiles, and the counts are counters.
+     * @param writer where to write.
+     */
+    public void writePrometheus(PrintWriter writer) {
+        writer.print("# HELP minesweeper_phase_seconds Time spent in each phase of a command.\n");
+        writer.print("# TYPE minesweeper_phase_seconds summary\n");
+        for (int i = 0; i < PHASES.length; i++) {
+            LatencyHistogram histogram = phases[i];
+            for (int q = 0; q < QUANTILES.length; q++) {
+                writer.printf(Locale.ROOT,
+                              "minesweeper_phase_seconds{phase=\"%s\",quantile=\"%s\"} %.9f\n",
+                              PHASES[i], QUANTILES[q],
+                              histogram.getValueAtQuantile(QUANTILES[q]) / 1e9);
+            } //for
+            writer.printf(Locale.ROOT, "minesweeper_phase_seconds_sum{phase=\"%s\"} %.9f\n",
+                          PHASES[i], histogram.getSum() / 1e9);
+            writer.printf(Locale.ROOT, "minesweeper_phase_seconds_count{phase=\"%s\"} %d\n",
+                          PHASES[i], histogram.getCount());
+        } //for
+        writer.print("# HELP minesweeper_commands_total Commands read, by kind.\n");
+        writer.print("# TYPE minesweeper_commands_total counter\n");
+        for (int i = 0; i < COMMANDS.length; i++) {
+            writer.printf(Locale.ROOT, "minesweeper_commands_total{command=\"%s\"} %d\n",
+                          COMMANDS[i], commands[i]);
+        } //for
+        writer.print("# HELP minesweeper_cascades_total Reveals that opened an empty area.\n");
+        writer.print("# TYPE minesweeper_cascades_total counter\n");
+        writer.printf(Locale.ROOT, "minesweeper_cascades_total %d\n", cascades);
+        writer.print("# HELP minesweeper_squares_revealed_total Squares revealed.\n");
+        writer.print("# TYPE minesweeper_squares_revealed_total counter\n");
+        writer.printf(Locale.ROOT, "minesweeper_squares_revealed_total %d\n", squaresRevealed);
+        writer.flush();
+    } //method
+
+    /**
+     * Print the metrics as a table: the count, mean, quantiles and maximum of each phase in
+     * microseconds, then the counts.
+     * @param out where to print.
+     */
+    public void printSummary(PrintStream out) {
+        out.printf("%n%-10s %9s %10s %10s %10s %10s %10s%n", "phase", "count", "mean us",
+                   "p50 us", "p99 us", "p99.9 us", "max us");
+        for (int i = 0; i < PHASES.length; i++) {
+            LatencyHistogram histogram = phases[i];
+            long count = histogram.getCount();
+            out.printf("%-10s %9d %10.2f %10.2f %10.2f %10.2f %10.2f%n", PHASES[i], count,
+                       count == 0 ? 0.0 : histogram.getSum() / 1e3 / count,
+                       histogram.getValueAtQuantile(0.5) / 1e3,
+                       histogram.getValueAtQuantile(0.99) / 1e3,
+                       histogram.getValueAtQuantile(0.999) / 1e3,
+                       histogram.getMax() / 1e3);
+        } //for
+        out.print("commands:");
+        for (int i = 0; i < COMMANDS.length; i++) {
+            out.print(" " + COMMANDS[i] + " " + commands[i]);
+        } //for
+        out.printf("%ncascades: %d, squares revealed: %d%n", cascades, squaresRevealed);
+    } //method
+} //class
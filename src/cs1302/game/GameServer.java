@@ -0,0 +1,266 @@
+package cs1302.game;
+
+import cs1302.game.MinesweeperGame;
+import java.io.BufferedOutputStream;
+import java.io.File;
+import java.io.FileNotFoundException;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.PrintStream;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * This class represents a GameServer object. A {@code GameServer} hosts many games of
+ * minesweeper in one JVM over plain TCP. Every connection gets its own {@link MinesweeperGame}
+ * that reads commands from the socket and writes the board back to it, so a player types the
+ * same commands ({@code r}, {@code m}, {@code g}, {@code h}, {@code q}, {@code nofog}, ...) and
+ * sees the same screens as on a terminal; {@code nc localhost PORT} is enough to play. The save
+ * and load commands are turned off, since they would reach the server's files.
+ *
+ * <p>
+ * Each session runs on its own thread with a small stack, taken from a cached pool, so ten
+ * thousand sessions fit in a few hundred megabytes. What a game prints is buffered and sent
+ * each time the game waits for the next command, so a board goes out in one piece. The
+ * sessions are kept in a {@code ConcurrentHashMap} along with the time their last command
+ * arrived. A sweeper thread ends every session that has been quiet for longer than the idle
+ * limit, and new connections are turned away once the session limit is reached. The sweeper
+ * never writes to a session: it only shuts the input of the socket, so that the game reads the
+ * end of its commands and its own thread says goodbye, and closes the socket outright if the
+ * session is still there at the next sweep, say because its thread is stuck writing to a
+ * player who stopped reading.
+ *
+ * <p>
+ * One connection going wrong never stops the server. A player who is turned away but has
+ * already reset the connection is simply closed, and an error while accepting, such as running
+ * out of file descriptors, is logged and retried after a pause that doubles up to a second.
+ *
+ * <p>
+ * The seed is either one file, used by every session, or a directory, in which case sessions
+ * take the seeds in it in turn.
+ */
+public class GameServer {
+    private static final long STACK_SIZE = 256 * 1024;
+    private static final int BACKLOG = 4096;
+    private static final long MAX_BACKOFF_MILLIS = 1000;
+
+    private int port;
+    private String[] seeds;
+    private int maxSessions;
+    private int idleSeconds;
+    private Map<Integer, Session> sessions;
+    private AtomicInteger nextId;
+
+    /**
+     * Constructs a {@code GameServer}.
+     * @param port the TCP port to listen on.
+     * @param seed a seed file, or a directory of seed files.
+     * @param maxSessions the number of sessions that can be open at the same time.
+     * @param idleSeconds how long a session may go without a command before it is closed.
+     * @throws FileNotFoundException when there is no seed to play.
+     */
+    public GameServer(int port, File seed, int maxSessions, int idleSeconds)
+        throws FileNotFoundException {
+        if (seed.isDirectory()) {
+            File[] files = seed.listFiles(File::isFile);
+            if (files == null || files.length == 0) {
+                throw new FileNotFoundException(seed.getPath());
+            } //if
+            Arrays.sort(files);
+            this.seeds = new String[files.length];
+            for (int i = 0; i < files.length; i++) {
+                seeds[i] = files[i].getPath();
+            } //for
+        } else if (seed.isFile()) {
+            this.seeds = new String[] {seed.getPath()};
+        } else {
+            throw new FileNotFoundException(seed.getPath());
+        } //if else
+        this.port = port;
+        this.maxSessions = maxSessions;
+        this.idleSeconds = idleSeconds;
+        this.sessions = new ConcurrentHashMap<>();
+        this.nextId = new AtomicInteger();
+    } //Constructor
+
+    /**
+     * Accept connections until the program is stopped.
+     * @param log where the server reports that it started and any error while accepting.
+     * @throws IOException when the port cannot be listened on.
+     */
+    public void run(PrintStream log) throws IOException {
+        ExecutorService workers = Executors.newCachedThreadPool(task -> {
+            Thread thread = new Thread(null, task, "session", STACK_SIZE);
+            thread.setDaemon(true);
+            return thread;
+        });
+        ScheduledExecutorService sweeper = Executors.newSingleThreadScheduledExecutor(task -> {
+            Thread thread = new Thread(task, "session-sweeper");
+            thread.setDaemon(true);
+            return thread;
+        });
+        long period = Math.max(1, idleSeconds / 4);
+        sweeper.scheduleAtFixedRate(this::evictIdle, period, period, TimeUnit.SECONDS);
+        try (ServerSocket server = new ServerSocket(port, BACKLOG)) {
+            log.printf("Serving %d seed(s) on port %d, at most %d sessions, %d s idle limit%n",
+                       seeds.length, server.getLocalPort(), maxSessions, idleSeconds);
+            long backoff = 0;
+            while (true) {
+                Socket socket;
+                try {
+                    socket = server.accept();
+                    backoff = 0;
+                } catch (IOException ioe) {
+                    if (server.isClosed()) {
+                        throw ioe;
+                    } //if
+                    backoff = Math.min(MAX_BACKOFF_MILLIS, Math.max(10, 2 * backoff));
+                    log.println("Accept Error: " + ioe.getMessage() + ", retrying in " + backoff
+                                + " ms");
+                    pause(backoff);
+                    continue;
+                } //try
+                if (sessions.size() >= maxSessions) {
+                    turnAway(socket);
+                    continue;
+                } //if
+                Session session = new Session(nextId.getAndIncrement(), socket);
+                sessions.put(session.id, session);
+                workers.execute(() -> play(session));
+            } //while
+        } finally {
+            sweeper.shutdownNow();
+            workers.shutdownNow();
+        } //try
+    } //method
+
+    /**
+     * Tell a player that the server is full and close the connection. A player who has already
+     * gone is not an error; the socket is closed either way.
+     * @param socket the connection to turn away.
+     */
+    private static void turnAway(Socket socket) {
+        try (Socket closing = socket) {
+            closing.getOutputStream().write(
+                "Server Busy: Try again later.\n".getBytes(StandardCharsets.UTF_8));
+        } catch (IOException ioe) {
+            // The player has gone; there is nobody left to tell.
+        } //try
+    } //method
+
+    /**
+     * Wait before accepting again after an error, such as running out of file descriptors,
+     * that may clear once sessions end.
+     * @param millis how long to wait.
+     */
+    private static void pause(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException ie) {
+            Thread.currentThread().interrupt();
+        } //try
+    } //method
+
+    /**
+     * Play one session's game and close the connection when it ends.
+     * @param session the session.
+     */
+    private void play(Session session) {
+        try (Socket socket = session.socket) {
+            socket.setTcpNoDelay(true);
+            PrintStream out = new PrintStream(new BufferedOutputStream(socket.getOutputStream()),
+                                              false, StandardCharsets.UTF_8);
+            InputStream in = new FilterInputStream(socket.getInputStream()) {
+                @Override
+                public int read(byte[] b, int off, int len) throws IOException {
+                    out.flush();
+                    int read = super.read(b, off, len);
+                    session.lastActive = System.nanoTime();
+                    return read;
+                } //method
+            };
+            String seed = seeds[Math.floorMod(session.id, seeds.length)];
+            MinesweeperGame game = null;
+            try {
+                InputStreamReader commands = new InputStreamReader(in, StandardCharsets.UTF_8);
+                game = new MinesweeperGame(seed, commands, out);
+                game.disableFileCommands();
+            } catch (IOException | RuntimeException ex) {
+                out.println("Seedfile Error: Cannot create game with " + seed);
+            } //try
+            if (game != null) {
+                game.run();
+            } //if
+            if (session.timedOut) {
+                out.println("\nSession Timeout: Closed after " + idleSeconds
+                            + " seconds without a command.");
+            } //if
+            out.flush();
+        } catch (IOException ioe) {
+            // The player has gone; there is nobody left to tell.
+        } finally {
+            sessions.remove(session.id);
+        } //try
+    } //method
+
+    /**
+     * End every session that has not sent anything for longer than the idle limit by shutting
+     * the input of its socket, and close the socket of every session that was ended this way at
+     * an earlier sweep and is still open. Nothing here waits on a session's output.
+     */
+    private void evictIdle() {
+        long limit = System.nanoTime() - TimeUnit.SECONDS.toNanos(idleSeconds);
+        for (Session session : sessions.values()) {
+            try {
+                if (session.timedOut) {
+                    session.socket.close();
+                } else if (session.lastActive - limit < 0) {
+                    session.timedOut = true;
+                    session.socket.shutdownInput();
+                } //if else
+            } catch (IOException ioe) {
+                // Already closed.
+            } //try
+        } //for
+    } //method
+
+    /**
+     * Return the number of sessions open right now.
+     * @return the number of sessions.
+     */
+    public int getSessionCount() {
+        return sessions.size();
+    } //method
+
+    /**
+     * One connected player.
+     */
+    private static class Session {
+        private int id;
+        private Socket socket;
+        private volatile long lastActive;
+        private volatile boolean timedOut;
+
+        /**
+         * Constructs a {@code Session} for a new connection.
+         * @param id the number of the session.
+         * @param socket the connection.
+         */
+        Session(int id, Socket socket) {
+            this.id = id;
+            this.socket = socket;
+            this.lastActive = System.nanoTime();
+        } //Constructor
+    } //class
+} //class
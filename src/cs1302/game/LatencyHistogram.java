@@ -0,0 +1,136 @@
+package cs1302.game;
+
+/**
+ * This class represents a LatencyHistogram object. A {@code LatencyHistogram} counts durations
+ * in nanoseconds the way an HdrHistogram does: values below 128 each have their own bucket, and
+ * every power of two above that is split into 64 buckets, so any value is known to within about
+ * 1.6% however large it is. The buckets are one {@code long} array made up front, so recording
+ * a value is a few shifts and an increment and never allocates.
+ *
+ * <p>
+ * A histogram is written by one thread. Reading it from another thread while it is being
+ * written gives counts that may be slightly behind; use {@link #copy()} on the writing thread
+ * to hand a stable view to another one.
+ */
+public class LatencyHistogram {
+    private static final int SUB_BITS = 6;
+    private static final int SUB_BUCKETS = 1 << SUB_BITS;
+    private static final int LINEAR = 2 * SUB_BUCKETS;
+    private static final int BUCKETS = LINEAR + ((63 - SUB_BITS - 1) * SUB_BUCKETS);
+
+    private long[] counts;
+    private long count;
+    private long sum;
+    private long max;
+
+    /**
+     * Constructs an empty {@code LatencyHistogram}.
+     */
+    public LatencyHistogram() {
+        this.counts = new long[BUCKETS];
+    } //Constructor
+
+    /**
+     * Count one duration.
+     * @param nanos the duration in nanoseconds; negative values count as 0.
+     */
+    public void record(long nanos) {
+        if (nanos < 0) {
+            nanos = 0;
+        } //if
+        counts[index(nanos)]++;
+        count++;
+        sum += nanos;
+        if (nanos > max) {
+            max = nanos;
+        } //if
+    } //method
+
+    /**
+     * Find the bucket a value falls in.
+     * @param value a value of at least 0.
+     * @return the bucket.
+     */
+    private static int index(long value) {
+        if (value < LINEAR) {
+            return (int) value;
+        } //if
+        int magnitude = 63 - Long.numberOfLeadingZeros(value);
+        int shift = magnitude - SUB_BITS;
+        return LINEAR + ((magnitude - SUB_BITS - 1) * SUB_BUCKETS)
+            + (int) (value >>> shift) - SUB_BUCKETS;
+    } //method
+
+    /**
+     * Find the largest value that falls in a bucket.
+     * @param index the bucket.
+     * @return the largest value of the bucket.
+     */
+    private static long highest(int index) {
+        if (index < LINEAR) {
+            return index;
+        } //if
+        int magnitude = ((index - LINEAR) / SUB_BUCKETS) + SUB_BITS + 1;
+        int shift = magnitude - SUB_BITS;
+        long sub = ((index - LINEAR) % SUB_BUCKETS) + SUB_BUCKETS;
+        return ((sub + 1) << shift) - 1;
+    } //method
+
+    /**
+     * Return the value that {@code quantile} of the durations are at or below. The answer is
+     * the top of the bucket the value fell in, but never more than the largest duration.
+     * @param quantile a number from 0 to 1.
+     * @return the value in nanoseconds, or 0 if nothing has been recorded.
+     */
+    public long getValueAtQuantile(double quantile) {
+        if (count == 0) {
+            return 0;
+        } //if
+        long rank = Math.max(1, (long) Math.ceil(quantile * count));
+        long seen = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            seen += counts[i];
+            if (seen >= rank) {
+                return Math.min(highest(i), max);
+            } //if
+        } //for
+        return max;
+    } //method
+
+    /**
+     * Return the number of durations recorded.
+     * @return the count.
+     */
+    public long getCount() {
+        return count;
+    } //method
+
+    /**
+     * Return the total of every duration recorded.
+     * @return the sum in nanoseconds.
+     */
+    public long getSum() {
+        return sum;
+    } //method
+
+    /**
+     * Return the largest duration recorded.
+     * @return the largest duration in nanoseconds.
+     */
+    public long getMax() {
+        return max;
+    } //method
+
+    /**
+     * Return a copy of the histogram that later records do not change.
+     * @return the copy.
+     */
+    public LatencyHistogram copy() {
+        LatencyHistogram copy = new LatencyHistogram();
+        System.arraycopy(counts, 0, copy.counts, 0, BUCKETS);
+        copy.count = count;
+        copy.sum = sum;
+        copy.max = max;
+        return copy;
+    } //method
+} //class
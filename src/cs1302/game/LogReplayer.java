@@ -0,0 +1,460 @@
+package cs1302.game;
+
+import cs1302.game.MinesweeperGame;
+import cs1302.game.MoveLog;
+import cs1302.game.Snapshot;
+import java.io.EOFException;
+import java.io.File;
+import java.io.IOException;
+import java.io.StringReader;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * This class represents a LogReplayer object. A {@code LogReplayer} reads a file written by a
+ * {@link MoveLog} and plays its commands again on a headless {@link MinesweeperGame} made from
+ * the same seed. It can rebuild the game as it was at any round with {@link #seek(int)}, and
+ * check with {@link #verify()} that the commands lead to the board, rounds and score that the
+ * game ended with.
+ *
+ * <p>
+ * When it is constructed the replayer reads through the whole log once without playing
+ * anything, to find every checkpoint. Seeking then starts from the last checkpoint before the
+ * round, so it only plays the commands logged after it. A log that was cut short, because the
+ * game is still going or the program was stopped, can be seeked up to its last whole record.
+ */
+public class LogReplayer {
+    private static final int BUFFER_SIZE = 1 << 16;
+
+    private FileChannel channel;
+    private ByteBuffer buffer;
+    private long bufferStart;
+    private String seed;
+    private int rows;
+    private int cols;
+    private int packedSize;
+    private MinesweeperGame game;
+
+    private long[] checkpointOffsets;
+    private int[] checkpointPeaks;
+    private int checkpoints;
+    private long events;
+    private boolean cutShort;
+    private MinesweeperGame.Outcome outcome;
+    private int finalRounds;
+    private double finalScore;
+    private long finalHash;
+
+    private int opcode;
+    private int row;
+    private int col;
+    private boolean loaded;
+    private int rounds;
+    private byte[] squares;
+
+    /**
+     * Constructs a {@code LogReplayer} for a move log and reads through it to find every
+     * checkpoint. The game is made from the seed named in the log.
+     * @param file the move log file.
+     * @throws IOException when the log cannot be read, is not a move log or does not match
+     * its seed.
+     * @throws NoSuchElementException when missing information in the seed.
+     * @throws NumberFormatException when the seed is not formatted correctly.
+     * @throws IllegalArgumentException when the grid of the seed is smaller than 5 x 5.
+     */
+    public LogReplayer(File file) throws IOException {
+        this.channel = FileChannel.open(file.toPath());
+        this.buffer = ByteBuffer.allocate(BUFFER_SIZE);
+        buffer.limit(0);
+        try {
+            byte[] magic = new byte[MoveLog.MAGIC.length];
+            readFully(magic);
+            if (!Arrays.equals(magic, MoveLog.MAGIC) || readByte() != MoveLog.VERSION) {
+                throw new IOException(file + " is not a move log");
+            } //if
+            byte[] path = new byte[readVarint()];
+            readFully(path);
+            this.seed = new String(path, StandardCharsets.UTF_8);
+            this.rows = readVarint();
+            this.cols = readVarint();
+        } catch (EOFException eofe) {
+            throw new IOException(file + " is cut short", eofe);
+        } //try
+        this.game = new MinesweeperGame(seed, new StringReader(""), null);
+        if (game.getRows() != rows || game.getCols() != cols) {
+            throw new IOException(file + " does not match " + seed);
+        } //if
+        game.disableFileCommands();
+        this.packedSize = (int) (((long) rows * cols + 3) / 4);
+        index();
+        if (checkpoints == 0) {
+            throw new IOException(file + " is cut short");
+        } //if
+    } //Constructor
+
+    /**
+     * Read every record without playing it, remembering where each checkpoint is and what the
+     * end record holds.
+     * @throws IOException when the log cannot be read or holds an unknown record.
+     */
+    private void index() throws IOException {
+        checkpointOffsets = new long[16];
+        checkpointPeaks = new int[16];
+        try {
+            while (true) {
+                long offset = position();
+                int type = readRecord(false);
+                if (type < 0) {
+                    return;
+                } else if (type == MoveLog.CHECKPOINT) {
+                    if (checkpoints == checkpointOffsets.length) {
+                        checkpointOffsets = Arrays.copyOf(checkpointOffsets, 2 * checkpoints);
+                        checkpointPeaks = Arrays.copyOf(checkpointPeaks, 2 * checkpoints);
+                    } //if
+                    checkpointOffsets[checkpoints] = offset;
+                    checkpointPeaks[checkpoints] = row;
+                    checkpoints++;
+                } else if (type == MoveLog.END) {
+                    return;
+                } else {
+                    events++;
+                } //if else
+            } //while
+        } catch (EOFException eofe) {
+            cutShort = true;
+        } //try
+    } //method
+
+    /**
+     * Return the game as it was right after it first completed {@code round} rounds, or as
+     * it started if it started at that round. The same game object is returned every time and
+     * is changed by the next call to {@code seek} or {@code verify}.
+     * @param round the number of rounds completed.
+     * @return the game.
+     * @throws IOException when the log cannot be read.
+     * @throws IllegalArgumentException when the game never got to that round.
+     */
+    public MinesweeperGame seek(int round) throws IOException {
+        int start = 0;
+        while (start + 1 < checkpoints && checkpointPeaks[start + 1] < round) {
+            start++;
+        } //while
+        restoreCheckpoint(start);
+        try {
+            while (game.getRounds() != round) {
+                int type = readRecord(true);
+                if (type < 0 || type == MoveLog.END) {
+                    throw new IllegalArgumentException("round " + round + " is not in the log");
+                } else if (type != MoveLog.CHECKPOINT) {
+                    apply();
+                } //if else
+            } //while
+        } catch (EOFException eofe) {
+            throw new IllegalArgumentException("round " + round + " is not in the log");
+        } //try
+        return game;
+    } //method
+
+    /**
+     * Play every command in the log from the start and compare the game with each checkpoint
+     * on the way and with the end record at the end.
+     * @return null if everything matches, otherwise a description of the first difference.
+     * @throws IOException when the log cannot be read.
+     */
+    public String verify() throws IOException {
+        restoreCheckpoint(0);
+        int last = -1;
+        try {
+            while (true) {
+                int type = readRecord(true);
+                if (type < 0) {
+                    return "the log has no end record";
+                } else if (type == MoveLog.CHECKPOINT) {
+                    Snapshot snapshot = game.snapshot();
+                    if (snapshot.getRounds() != rounds
+                        || !Arrays.equals(snapshot.getSquares(), unpack())) {
+                        return "the checkpoint at round " + rounds + " does not match";
+                    } //if
+                } else if (type == MoveLog.END) {
+                    return compareEnd(last);
+                } else {
+                    apply();
+                    last = type;
+                } //if else
+            } //while
+        } catch (EOFException eofe) {
+            return "the log is cut short";
+        } //try
+    } //method
+
+    /**
+     * Compare the game with the end record that was just read.
+     * @param last the opcode of the last command played.
+     * @return null if they match, otherwise a description of the difference.
+     */
+    private String compareEnd(int last) {
+        MinesweeperGame.Outcome replayed = MinesweeperGame.Outcome.UNFINISHED;
+        if (game.isGameOver()) {
+            replayed = game.hasWon() ? MinesweeperGame.Outcome.WON : MinesweeperGame.Outcome.LOST;
+        } else if (last == CommandParser.QUIT) {
+            replayed = MinesweeperGame.Outcome.QUIT;
+        } //if else
+        if (replayed != outcome) {
+            return "the game was " + outcome + " but replays as " + replayed;
+        } else if (game.getRounds() != finalRounds) {
+            return "the game ended after " + finalRounds + " rounds but replays in "
+                + game.getRounds();
+        } else if (Double.compare(game.getScore(), finalScore) != 0) {
+            return "the game scored " + finalScore + " but replays as " + game.getScore();
+        } else if (MoveLog.hash(game.snapshot().getSquares()) != finalHash) {
+            return "the final board does not match";
+        } //if else
+        return null;
+    } //method
+
+    /**
+     * Put the game back to checkpoint number {@code index} and move to the record after it.
+     * @param index the number of the checkpoint.
+     * @throws IOException when the log cannot be read.
+     */
+    private void restoreCheckpoint(int index) throws IOException {
+        seekTo(checkpointOffsets[index]);
+        readRecord(true);
+        game.restore(new Snapshot(seed, rows, cols, rounds, unpack()));
+    } //method
+
+    /**
+     * Play the command that was just read.
+     */
+    private void apply() {
+        if (opcode == CommandParser.LOAD && loaded) {
+            game.restore(new Snapshot(seed, rows, cols, rounds, unpack()));
+        } else {
+            game.replay(opcode, row, col);
+        } //if else
+    } //method
+
+    /**
+     * Read the next record into the fields of the replayer: the opcode, row and column of a
+     * command, the rounds and squares of a load or checkpoint, with the most rounds so far of a
+     * checkpoint in {@code row}, or the contents of the end record.
+     * @param keep false to skip over the squares instead of reading them.
+     * @return the first byte of the record, or -1 at the end of the file.
+     * @throws IOException when the log cannot be read or holds an unknown record.
+     * @throws EOFException when the file ends in the middle of a record.
+     */
+    private int readRecord(boolean keep) throws IOException {
+        if (!buffer.hasRemaining() && !fill()) {
+            return -1;
+        } //if
+        int type = readByte();
+        if (type == CommandParser.REVEAL || type == CommandParser.MARK
+            || type == CommandParser.GUESS || type == CommandParser.CHORD) {
+            row = readVarint();
+            col = readVarint();
+        } else if (type == CommandParser.LOAD) {
+            loaded = readByte() == 1;
+            if (loaded) {
+                rounds = readVarint();
+                readSquares(keep);
+            } //if
+        } else if (type == MoveLog.CHECKPOINT) {
+            rounds = readVarint();
+            row = readVarint();
+            readSquares(keep);
+        } else if (type == MoveLog.END) {
+            int ordinal = readByte();
+            MinesweeperGame.Outcome[] outcomes = MinesweeperGame.Outcome.values();
+            if (ordinal >= outcomes.length) {
+                throw new IOException("unknown outcome " + ordinal);
+            } //if
+            outcome = outcomes[ordinal];
+            finalRounds = readVarint();
+            byte[] bytes = new byte[Double.BYTES + Long.BYTES];
+            readFully(bytes);
+            ByteBuffer end = ByteBuffer.wrap(bytes);
+            finalScore = end.getDouble();
+            finalHash = end.getLong();
+        } else if (type > CommandParser.GOTO) {
+            throw new IOException("unknown record " + type);
+        } //if else
+        opcode = type;
+        return type;
+    } //method
+
+    /**
+     * Read or skip the packed squares of a load or checkpoint.
+     * @param keep false to skip them.
+     * @throws IOException when the log cannot be read.
+     * @throws EOFException when the file ends first.
+     */
+    private void readSquares(boolean keep) throws IOException {
+        if (keep) {
+            squares = new byte[packedSize];
+            readFully(squares);
+        } else if (position() + packedSize > channel.size()) {
+            throw new EOFException();
+        } else {
+            seekTo(position() + packedSize);
+        } //if else
+    } //method
+
+    /**
+     * Return the squares that were just read, one byte each.
+     * @return what is shown on each square.
+     */
+    private byte[] unpack() {
+        return Snapshot.unpack(squares, rows * cols);
+    } //method
+
+    /**
+     * Return the position in the file of the next byte to be read.
+     * @return the position.
+     */
+    private long position() {
+        return bufferStart + buffer.position();
+    } //method
+
+    /**
+     * Move to a position in the file, dropping the buffer unless the position is in it.
+     * @param offset the position.
+     * @throws IOException when the file cannot be read.
+     */
+    private void seekTo(long offset) throws IOException {
+        if (offset >= bufferStart && offset <= bufferStart + buffer.limit()) {
+            buffer.position((int) (offset - bufferStart));
+        } else {
+            channel.position(offset);
+            bufferStart = offset;
+            buffer.limit(0);
+        } //if else
+    } //method
+
+    /**
+     * Read more of the file into the buffer, keeping any bytes not read yet.
+     * @return false if there is nothing more to read.
+     * @throws IOException when the file cannot be read.
+     */
+    private boolean fill() throws IOException {
+        bufferStart += buffer.position();
+        buffer.compact();
+        int read = channel.read(buffer);
+        buffer.flip();
+        return read > 0;
+    } //method
+
+    /**
+     * Read one byte.
+     * @return the byte, from 0 to 255.
+     * @throws IOException when the file cannot be read.
+     * @throws EOFException when the file ends.
+     */
+    private int readByte() throws IOException {
+        if (!buffer.hasRemaining() && !fill()) {
+            throw new EOFException();
+        } //if
+        return buffer.get() & 0xFF;
+    } //method
+
+    /**
+     * Read an unsigned LEB128 varint.
+     * @return the number.
+     * @throws IOException when the file cannot be read or the number is too big.
+     * @throws EOFException when the file ends.
+     */
+    private int readVarint() throws IOException {
+        int value = 0;
+        for (int shift = 0; shift < 32; shift += 7) {
+            int b = readByte();
+            value |= (b & 0x7F) << shift;
+            if (b < 0x80) {
+                return value;
+            } //if
+        } //for
+        throw new IOException("number too big");
+    } //method
+
+    /**
+     * Fill {@code bytes} from the file.
+     * @param bytes where the bytes are read into.
+     * @throws IOException when the file cannot be read.
+     * @throws EOFException when the file ends first.
+     */
+    private void readFully(byte[] bytes) throws IOException {
+        int offset = 0;
+        while (offset < bytes.length) {
+            if (!buffer.hasRemaining() && !fill()) {
+                throw new EOFException();
+            } //if
+            int length = Math.min(buffer.remaining(), bytes.length - offset);
+            buffer.get(bytes, offset, length);
+            offset += length;
+        } //while
+    } //method
+
+    /**
+     * Close the log file.
+     * @throws IOException when the file cannot be closed.
+     */
+    public void close() throws IOException {
+        channel.close();
+    } //method
+
+    /**
+     * Return the path of the seed the game was started from.
+     * @return the seed path.
+     */
+    public String getSeed() {
+        return seed;
+    } //method
+
+    /**
+     * Return the number of commands in the log.
+     * @return the number of commands.
+     */
+    public long getEvents() {
+        return events;
+    } //method
+
+    /**
+     * Return the number of checkpoints in the log, counting the one the log starts with.
+     * @return the number of checkpoints.
+     */
+    public int getCheckpoints() {
+        return checkpoints;
+    } //method
+
+    /**
+     * Return how the game ended, or null if the log has no end record.
+     * @return the outcome.
+     */
+    public MinesweeperGame.Outcome getOutcome() {
+        return outcome;
+    } //method
+
+    /**
+     * Return the number of rounds in the end record.
+     * @return the number of rounds.
+     */
+    public int getFinalRounds() {
+        return finalRounds;
+    } //method
+
+    /**
+     * Return the score in the end record.
+     * @return the score.
+     */
+    public double getFinalScore() {
+        return finalScore;
+    } //method
+
+    /**
+     * Checks if the log ends in the middle of a record.
+     * @return true if the last record was cut short.
+     */
+    public boolean isCutShort() {
+        return cutShort;
+    } //method
+} //class
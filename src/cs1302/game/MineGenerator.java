@@ -0,0 +1,116 @@
+package cs1302.game;
+
+import java.util.BitSet;
+import java.util.SplittableRandom;
+
+/**
+ * This class represents a MineGenerator object. The {@code MineGenerator} class places mines
+ * on a board for the --gen command, which writes them out with a {@link SeedWriter}. Every
+ * mine lands on a different square and the work done is proportional to the number of mines,
+ * so nearly full boards finish as quickly as sparse ones.
+ *
+ * <p>
+ * Squares are numbered {@code row * cols + col}. When at most half of the squares get a mine,
+ * random squares are drawn and a {@code BitSet} of taken squares throws away repeats, which
+ * needs fewer than two draws per mine on average. Denser boards use a partial Fisher-Yates
+ * shuffle of every square number instead, which never repeats.
+ */
+public class MineGenerator {
+    private int rows;
+    private int cols;
+    private SplittableRandom random;
+
+    /**
+     * Constructs a {@code MineGenerator} for a {@code rows} x {@code cols} board.
+     * @param rows the number of rows on the board.
+     * @param cols the number of columns on the board.
+     * @param random the source of randomness; the same seed gives the same mines.
+     * @throws IllegalArgumentException when the board has more squares than an {@code int}
+     * can number.
+     */
+    public MineGenerator(int rows, int cols, SplittableRandom random) {
+        if ((long) rows * cols > Integer.MAX_VALUE - 8) {
+            throw new IllegalArgumentException();
+        } //if
+        this.rows = rows;
+        this.cols = cols;
+        this.random = random;
+    } //Constructor
+
+    /**
+     * Pick {@code numOfMines} different squares, in random order.
+     * @param numOfMines the number of mines to place.
+     * @return the square number of every mine.
+     * @throws IllegalArgumentException when there are more mines than squares.
+     */
+    public int[] placeMines(int numOfMines) {
+        return place(numOfMines, -1, -1);
+    } //method
+
+    /**
+     * Pick {@code numOfMines} different squares, in random order, leaving the square at
+     * {@code row} and {@code col} and every square around it empty, so that revealing it first
+     * opens up an area.
+     * @param numOfMines the number of mines to place.
+     * @param row the x value of the square to keep clear.
+     * @param col the y value of the square to keep clear.
+     * @return the square number of every mine.
+     * @throws IllegalArgumentException when there are more mines than squares left to hold
+     * them.
+     */
+    public int[] placeMinesAround(int numOfMines, int row, int col) {
+        return place(numOfMines, row, col);
+    } //method
+
+    /**
+     * Pick the squares, keeping the block around {@code (row, col)} clear when the square is on
+     * the board.
+     * @param numOfMines the number of mines to place.
+     * @param row the x value of the square to keep clear, or -1.
+     * @param col the y value of the square to keep clear, or -1.
+     * @return the square number of every mine.
+     * @throws IllegalArgumentException when there are more mines than squares left.
+     */
+    private int[] place(int numOfMines, int row, int col) {
+        int squares = rows * cols;
+        BitSet taken = new BitSet(squares);
+        int clear = 0;
+        if (row >= 0 && col >= 0) {
+            for (int x = Math.max(0, row - 1); x <= Math.min(rows - 1, row + 1); x++) {
+                for (int y = Math.max(0, col - 1); y <= Math.min(cols - 1, col + 1); y++) {
+                    taken.set((x * cols) + y);
+                    clear++;
+                } //for
+            } //for
+        } //if
+        int free = squares - clear;
+        if (numOfMines < 0 || numOfMines > free) {
+            throw new IllegalArgumentException();
+        } //if
+        int[] mines = new int[numOfMines];
+        if (numOfMines <= free / 2) {
+            for (int i = 0; i < numOfMines; i++) {
+                int cell = random.nextInt(squares);
+                while (taken.get(cell)) {
+                    cell = random.nextInt(squares);
+                } //while
+                taken.set(cell);
+                mines[i] = cell;
+            } //for
+        } else {
+            int[] cells = new int[free];
+            for (int i = 0, cell = taken.nextClearBit(0); i < free;
+                 i++, cell = taken.nextClearBit(cell + 1)) {
+                cells[i] = cell;
+            } //for
+            for (int i = 0; i < numOfMines; i++) {
+                int j = i + random.nextInt(free - i);
+                int swap = cells[j];
+                cells[j] = cells[i];
+                cells[i] = swap;
+                mines[i] = swap;
+            } //for
+        } //if else
+        return mines;
+    } //method
+} //class
@@ -1,18 +1,66 @@
 package cs1302.game;
 
+import cs1302.game.BoardRenderer;
+import cs1302.game.GameMetrics;
+import cs1302.game.BoardPipeline;
+import cs1302.game.GameServer;
+import cs1302.game.LogReplayer;
 import cs1302.game.MinesweeperGame;
+import cs1302.game.MoveLog;
+import cs1302.game.ReplayRunner;
+import cs1302.game.MineGenerator;
+import cs1302.game.ProbabilityAnalyzer;
+import cs1302.game.SeedReader;
+import cs1302.game.SeedWriter;
+import cs1302.game.Snapshot;
+import cs1302.game.SolveRunner;
+import cs1302.game.TournamentRunner;
 import java.io.File;
-import java.util.Random;
-import java.io.PrintWriter;
+import java.io.FileInputStream;
+import java.io.FileReader;
+import java.util.Arrays;
+import java.util.NoSuchElementException;
+import java.util.SplittableRandom;
 import java.io.IOException;
 
 /**
 * This class represent a MinesweeperDriver object. The {@code MinesweeperDriver} class holds
 * the main method to run a game of minesweeper. The class must be run by the command line
-* argument. There are two types of actions that this program can do: --seed and --gen. For
-* a seed file, the --seed command must be use and be formatted: --seed PATH_TO_SEED. If user
-* wise to generate a random txt file, use the --gen command. This command must be in this
-* format: --gen PATH_TO_SEED ROWS COLS MINES. Main will ensure conditions via exceptions.
+* argument. There are two types of actions that this program can do: --seed and --gen. For a
+* seed file, the --seed command must be use and be formatted: --seed PATH_TO_SEED, optionally
+* followed by --ansi to repaint only the squares that change each round, by --quiet to leave
+* out the banners, by --viewport ROWS COLS to draw only that much of the board around the last
+* move, with pan and goto commands to move it, and by --minimap to add a map of the whole board
+* under it, by --autosave PATH_TO_SNAPSHOT SECONDS to save the game in the background, by
+* --batch PATH to play every command in a file before the first prompt and draw the board once
+* at the end, by --log PATH to append every command to a {@link MoveLog}, by --metrics to print
+* where the time of each command went when the game ends and by --metrics-file PATH SECONDS to
+* keep the metrics in a file in the Prometheus text format. A saved game is picked up again
+* with --resume PATH_TO_SNAPSHOT, which takes the same options. --new PATH_TO_SEED ROWS COLS
+* MINES plays a new random board whose mines are only placed at the first reveal, away from the
+* square revealed, and then written to PATH_TO_SEED; it may be followed by a number that makes
+* the board reproducible, by --binary and by the options of --seed. If user wise to generate a
+* random txt file, use the --gen command. This command must be in this format: --gen
+* PATH_TO_SEED ROWS COLS MINES, optionally followed by a number that makes the generated board
+* reproducible and by --binary to write a binary seed. --bulk PATH COUNT ROWS COLS MINES makes
+* COUNT boards at once with a {@link BoardPipeline}, keeping only those that match --no-guess
+* and --3bv MIN MAX when given, and writes them into a directory or, with --pack, into one
+* file. Binary seeds are read by --seed just like text ones, and --convert PATH_TO_SEED
+* PATH_TO_NEW_SEED turns a text seed into a binary one and a binary seed back into text. To
+* play every NAME.seed.txt and NAME.in.txt pair in a directory without a terminal, use --replay
+* DIRECTORY, optionally followed by the number of games to play at the same time. --solve
+* DIRECTORY, with the same optional number, lets the built in {@link Solver} play every seed in
+* a directory and reports how it did. --tournament SEEDS SCRIPTS plays every command script
+* against every seed, where each is a file or a directory of files, optionally followed by the
+* number of games to play at the same time and by --csv PATH and --json PATH to write the
+* results, and ranks the scripts with a {@link TournamentRunner}. To host games for many
+* players over TCP, use --serve PORT PATH_TO_SEED, where the seed may also be a directory of
+* seeds, optionally followed by the most sessions to allow and the seconds a session may sit
+* idle. --analyze PATH, where the path is a seed or a saved game, optionally followed by a
+* number of threads, draws the chance of a mine on every unrevealed square as a heatmap, worked
+* out by a {@link ProbabilityAnalyzer}. --audit PATH_TO_LOG plays a move log again with a
+* {@link LogReplayer} and checks that it ends the way the game did, or, followed by a number of
+* rounds, draws the board as it was at that round. Main will ensure conditions via exceptions.
 */
 public class MinesweeperDriver {
 
@@ -20,9 +68,9 @@ public class MinesweeperDriver {
      * This is the main method of the {@code MinesweeperDriver} program. Method will take
      * command line arguments and correctly determine which set of actions to take. All
      * conditions checking for the --seed command will be check by the {@link #MinesweeperGame}
-     * class. For the --gen command, rows and columns cannot be less then a 5 x 5 grid. --Gen
-     * command assumes that the number of mines will be less than rows x columns. If a
-     * coordinate randomly generated already have a mine, it will regenerate a new position.
+     * class. For the --gen command, rows and columns cannot be less then a 5 x 5 grid and the
+     * number of mines cannot be more than rows x columns. The mines are placed by a
+     * {@link MineGenerator}, which never puts two mines on the same square.
      * @param args user command argument line.
      * @throws IOException when user fail to meet gen conditions.
      * @throws ArrayIndexOutOfBoundsException when user fail to provide a correct command.
@@ -31,43 +79,435 @@ public class MinesweeperDriver {
         try {
             if (args[0].equals("--seed")) {
                 MinesweeperGame game = new MinesweeperGame(args[1]);
-                game.play();
+                playWithOptions(game, args, 2);
+            } else if (args[0].equals("--resume")) {
+                Snapshot snapshot = Snapshot.load(new File(args[1]));
+                MinesweeperGame game = new MinesweeperGame(snapshot.getSeed());
+                game.restore(snapshot);
+                playWithOptions(game, args, 2);
+            } else if (args[0].equals("--new")) {
+                playNew(args);
             } else if (args[0].equals("--gen")) {
                 File fileToMake = new File(args[1]);
                 int rows = Integer.parseInt(args[2]);
                 int cols = Integer.parseInt(args[3]);
                 int numOfMines = Integer.parseInt(args[4]);
-                if (rows < 5 && cols < 5) {
+                if (rows < 5 || cols < 5) {
                     System.err.println("Format Error: Cannot have a grid that is less then 5 x 5");
                     System.exit(2);
                 } //if
 
-                Random xInt = new Random();
-                Random yInt = new Random();
-                int[][] mines = new int[numOfMines][2];
-                for (int i = 0; i < mines.length; i++) {
-                    mines[i][0] = xInt.nextInt(rows);
-                    mines[i][1] = yInt.nextInt(cols);
-                    for (int j = 0; j <= i - 1; j++) {
-                        if (mines[i][0] == mines[j][0] && mines[i][1] == mines[j][1]) {
-                            j = i;
-                            i--;
-                        } //if
-                    } //for
-                } //for
+                if (numOfMines < 0 || numOfMines > (long) rows * cols) {
+                    System.err.println("Format Error: Cannot place more mines than squares");
+                    System.exit(2);
+                } //if
 
-                PrintWriter writer = new PrintWriter(fileToMake);
-                writer.print(rows + " " + cols + "\n" + numOfMines + "\n");
-                for (int i = 0; i < numOfMines; i++) {
-                    writer.print(mines[i][0] + " " + mines[i][1] + "\n");
+                SplittableRandom random = new SplittableRandom();
+                boolean binary = false;
+                for (int i = 5; i < args.length; i++) {
+                    if (args[i].equals("--binary")) {
+                        binary = true;
+                    } else {
+                        random = new SplittableRandom(Long.parseLong(args[i]));
+                    } //if else
                 } //for
-                writer.close();
+                MineGenerator generator = new MineGenerator(rows, cols, random);
+                int[] mines = generator.placeMines(numOfMines);
+                if (binary) {
+                    SeedWriter.writeBinary(fileToMake, rows, cols, mines);
+                } else {
+                    SeedWriter.writeText(fileToMake, rows, cols, mines);
+                } //if else
+            } else if (args[0].equals("--bulk")) {
+                bulk(args);
+            } else if (args[0].equals("--convert")) {
+                convert(args[1], new File(args[2]));
+            } else if (args[0].equals("--replay")) {
+                int threads = Runtime.getRuntime().availableProcessors();
+                if (args.length > 2) {
+                    threads = Integer.parseInt(args[2]);
+                } //if
+                if (threads < 1) {
+                    throw new IOException();
+                } //if
+                new ReplayRunner(new File(args[1]), threads).run(System.out);
+            } else if (args[0].equals("--solve")) {
+                int threads = Runtime.getRuntime().availableProcessors();
+                if (args.length > 2) {
+                    threads = Integer.parseInt(args[2]);
+                } //if
+                if (threads < 1) {
+                    throw new IOException();
+                } //if
+                new SolveRunner(new File(args[1]), threads).run(System.out);
+            } else if (args[0].equals("--tournament")) {
+                tournament(args);
+            } else if (args[0].equals("--analyze")) {
+                int threads = Runtime.getRuntime().availableProcessors();
+                if (args.length > 2) {
+                    threads = Integer.parseInt(args[2]);
+                } //if
+                if (threads < 1) {
+                    throw new IOException();
+                } //if
+                MinesweeperGame game;
+                if (startsWith(args[1], Snapshot.MAGIC)) {
+                    Snapshot snapshot = Snapshot.load(new File(args[1]));
+                    game = new MinesweeperGame(snapshot.getSeed());
+                    game.restore(snapshot);
+                } else {
+                    game = new MinesweeperGame(args[1]);
+                } //if else
+                try {
+                    new ProbabilityAnalyzer(game, threads).report(System.out);
+                } catch (IllegalStateException ise) {
+                    System.err.println("Analysis Error: " + ise.getMessage());
+                    System.exit(2);
+                } //try
+            } else if (args[0].equals("--audit")) {
+                audit(args);
+            } else if (args[0].equals("--serve")) {
+                int port = Integer.parseInt(args[1]);
+                int maxSessions = args.length > 3 ? Integer.parseInt(args[3]) : 10000;
+                int idleSeconds = args.length > 4 ? Integer.parseInt(args[4]) : 300;
+                if (maxSessions < 1 || idleSeconds < 1) {
+                    throw new IOException();
+                } //if
+                new GameServer(port, new File(args[2]), maxSessions, idleSeconds).run(System.out);
             } else {
                 throw new IOException();
             } //if else
-        } catch (IOException | ArrayIndexOutOfBoundsException ex) {
+        } catch (IOException | ArrayIndexOutOfBoundsException | IllegalArgumentException ex) {
             System.err.println("Unable to interpret supplied command-line arguments.");
             System.exit(1);
         } //try
     } //main
+
+    /**
+     * Play a new random board whose mines are placed at the first reveal: --new PATH_TO_SEED
+     * ROWS COLS MINES, optionally followed by a number that makes the board reproducible and by
+     * --binary to write a binary seed, and then by the options of {@link #playWithOptions}.
+     * @param args user command argument line.
+     * @throws IOException when the options cannot be used.
+     */
+    private static void playNew(String[] args) throws IOException {
+        int rows = Integer.parseInt(args[2]);
+        int cols = Integer.parseInt(args[3]);
+        int numOfMines = Integer.parseInt(args[4]);
+        if (rows < 5 || cols < 5) {
+            System.err.println("Format Error: Cannot have a grid that is less then 5 x 5");
+            System.exit(2);
+        } //if
+        if (numOfMines < 0 || numOfMines > (long) rows * cols - 9) {
+            System.err.println("Format Error: Cannot place more mines than squares");
+            System.exit(2);
+        } //if
+        SplittableRandom random = new SplittableRandom();
+        boolean binary = false;
+        int i = 5;
+        for (; i < args.length && (args[i].equals("--binary") || !args[i].startsWith("--")); i++) {
+            if (args[i].equals("--binary")) {
+                binary = true;
+            } else {
+                random = new SplittableRandom(Long.parseLong(args[i]));
+            } //if else
+        } //for
+        MineGenerator generator = new MineGenerator(rows, cols, random);
+        playWithOptions(new MinesweeperGame(args[1], rows, cols, numOfMines, generator, binary),
+                        args, i);
+    } //method
+
+    /**
+     * Make many boards with a {@link BoardPipeline}: --bulk PATH COUNT ROWS COLS MINES, followed
+     * by any of --no-guess, --3bv MIN MAX, --threads N, --pack, --binary and a number that makes
+     * the boards reproducible. The boards are written into the directory at PATH, or packed into
+     * the file at PATH with --pack. The middle of every board starts clear, so the nine squares
+     * there cannot hold a mine. Values that do not make sense are reported as format errors and
+     * boards that cannot be written as bulk errors.
+     * @param args user command argument line.
+     */
+    private static void bulk(String[] args) {
+        File output = new File(args[1]);
+        int count = Integer.parseInt(args[2]);
+        int rows = Integer.parseInt(args[3]);
+        int cols = Integer.parseInt(args[4]);
+        int numOfMines = Integer.parseInt(args[5]);
+        if (rows < 5 || cols < 5) {
+            System.err.println("Format Error: Cannot have a grid that is less then 5 x 5");
+            System.exit(2);
+        } //if
+        if (numOfMines < 0 || numOfMines > (long) rows * cols - 9) {
+            System.err.println("Format Error: Cannot place more mines than squares");
+            System.exit(2);
+        } //if
+        if (count < 1) {
+            System.err.println("Format Error: Cannot keep fewer than 1 board");
+            System.exit(2);
+        } //if
+        int threads = Runtime.getRuntime().availableProcessors();
+        long seed = new SplittableRandom().nextLong();
+        boolean noGuess = false;
+        boolean pack = false;
+        boolean binary = false;
+        int min3bv = 0;
+        int max3bv = Integer.MAX_VALUE;
+        for (int i = 6; i < args.length; i++) {
+            if (args[i].equals("--no-guess")) {
+                noGuess = true;
+            } else if (args[i].equals("--3bv")) {
+                min3bv = Integer.parseInt(args[i + 1]);
+                max3bv = Integer.parseInt(args[i + 2]);
+                i += 2;
+            } else if (args[i].equals("--threads")) {
+                threads = Integer.parseInt(args[++i]);
+            } else if (args[i].equals("--pack")) {
+                pack = true;
+            } else if (args[i].equals("--binary")) {
+                binary = true;
+            } else {
+                seed = Long.parseLong(args[i]);
+            } //if else
+        } //for
+        if (threads < 1) {
+            System.err.println("Format Error: Cannot use fewer than 1 thread");
+            System.exit(2);
+        } //if
+        if (min3bv > max3bv) {
+            System.err.println("Format Error: Cannot keep a 3BV above " + max3bv + " and below "
+                               + min3bv);
+            System.exit(2);
+        } //if
+        BoardPipeline pipeline = new BoardPipeline(rows, cols, numOfMines, threads, seed);
+        if (noGuess) {
+            pipeline.requireNoGuess();
+        } //if
+        pipeline.require3bv(min3bv, max3bv);
+        if (binary) {
+            pipeline.useBinary();
+        } //if
+        System.out.println("seed: " + seed);
+        try {
+            pipeline.run(output, pack, count, System.out);
+        } catch (IOException ioe) {
+            System.err.println("Bulk Error: " + ioe.getMessage());
+            System.exit(2);
+        } //try
+    } //method
+
+    /**
+     * Play a tournament: --tournament SEEDS SCRIPTS, optionally followed by the number of games
+     * to play at the same time, by --csv PATH and by --json PATH. Fewer than 1 game at a time
+     * is reported as a format error, and seeds or scripts that cannot be listed or read and
+     * results that cannot be written as tournament errors.
+     * @param args user command argument line.
+     * @throws NumberFormatException when the number of games is not a number.
+     * @throws ArrayIndexOutOfBoundsException when an option is missing its path.
+     */
+    private static void tournament(String[] args) {
+        int threads = Runtime.getRuntime().availableProcessors();
+        File csv = null;
+        File json = null;
+        for (int i = 3; i < args.length; i++) {
+            if (args[i].equals("--csv")) {
+                csv = new File(args[++i]);
+            } else if (args[i].equals("--json")) {
+                json = new File(args[++i]);
+            } else {
+                threads = Integer.parseInt(args[i]);
+            } //if else
+        } //for
+        if (threads < 1) {
+            System.err.println("Format Error: Cannot play fewer than 1 game at a time");
+            System.exit(2);
+        } //if
+        TournamentRunner runner = new TournamentRunner(new File(args[1]), new File(args[2]),
+                                                       threads);
+        if (csv != null) {
+            runner.writeCsv(csv);
+        } //if
+        if (json != null) {
+            runner.writeJson(json);
+        } //if
+        try {
+            runner.run(System.out);
+        } catch (IOException ioe) {
+            System.err.println("Tournament Error: " + ioe.getMessage());
+            System.exit(2);
+        } //try
+    } //method
+
+    /**
+     * Check a move log: --audit PATH_TO_LOG plays every command in it again and prints whether
+     * the game ends with the same board, rounds and score, and --audit PATH_TO_LOG ROUND draws
+     * the board as it was once that many rounds were completed. The program exits with an audit
+     * error if the log does not match or never got to the round.
+     * @param args user command argument line.
+     * @throws IOException when the log or its seed cannot be read.
+     */
+    private static void audit(String[] args) throws IOException {
+        LogReplayer replayer = new LogReplayer(new File(args[1]));
+        try {
+            if (args.length > 2) {
+                MinesweeperGame game = replayer.seek(Integer.parseInt(args[2]));
+                new BoardRenderer(game, game.getRows(), game.getCols(), System.out, false)
+                    .render(game.getRounds(), false);
+                return;
+            } //if
+            System.out.println("seed: " + replayer.getSeed());
+            System.out.println("commands: " + replayer.getEvents());
+            System.out.println("checkpoints: " + replayer.getCheckpoints());
+            String problem = replayer.verify();
+            if (problem == null) {
+                System.out.printf("outcome: %s%nrounds: %d%nscore: %.2f%nverified%n",
+                                  replayer.getOutcome(), replayer.getFinalRounds(),
+                                  replayer.getFinalScore());
+            } else {
+                System.err.println("Audit Error: " + problem);
+                System.exit(2);
+            } //if else
+        } catch (IllegalArgumentException iae) {
+            System.err.println("Audit Error: " + iae.getMessage());
+            System.exit(2);
+        } finally {
+            replayer.close();
+        } //try
+    } //method
+
+    /**
+     * Apply the options that follow --seed PATH_TO_SEED, --resume PATH_TO_SNAPSHOT or --new and
+     * play the game. The options are --ansi, --quiet, --viewport ROWS COLS, --minimap,
+     * --autosave PATH_TO_SNAPSHOT SECONDS, --batch PATH, --log PATH, --metrics and
+     * --metrics-file PATH SECONDS. --minimap does nothing without --viewport. Every option is
+     * checked before any file is opened, so a mistyped option leaves no files behind.
+     * @param game the game to play.
+     * @param args user command argument line.
+     * @param first where the options start in {@code args}.
+     * @throws IOException when an option is not one of these, the batch file cannot be read or
+     * the log cannot be written.
+     * @throws ArrayIndexOutOfBoundsException when an option is missing its values.
+     * @throws NumberFormatException when the autosave or metrics interval or the size of the
+     * viewport is not a number.
+     * @throws IllegalArgumentException when the viewport is smaller than 1 x 1.
+     */
+    private static void playWithOptions(MinesweeperGame game, String[] args, int first)
+        throws IOException {
+        boolean metrics = false;
+        boolean summary = false;
+        int viewRows = 0;
+        int viewCols = 0;
+        boolean minimap = false;
+        File autosaveFile = null;
+        int autosaveSeconds = 0;
+        File batchFile = null;
+        File logFile = null;
+        File metricsFile = null;
+        int metricsSeconds = 0;
+        for (int i = first; i < args.length; i++) {
+            if (args[i].equals("--ansi")) {
+                game.useAnsi();
+            } else if (args[i].equals("--quiet")) {
+                game.quiet();
+            } else if (args[i].equals("--viewport")) {
+                viewRows = Integer.parseInt(args[i + 1]);
+                viewCols = Integer.parseInt(args[i + 2]);
+                game.viewport(viewRows, viewCols, false);
+                i += 2;
+            } else if (args[i].equals("--minimap")) {
+                minimap = true;
+            } else if (args[i].equals("--autosave")) {
+                autosaveFile = new File(args[i + 1]);
+                autosaveSeconds = Integer.parseInt(args[i + 2]);
+                if (autosaveSeconds < 1) {
+                    throw new NumberFormatException();
+                } //if
+                i += 2;
+            } else if (args[i].equals("--batch")) {
+                batchFile = new File(args[i + 1]);
+                i++;
+            } else if (args[i].equals("--log")) {
+                logFile = new File(args[i + 1]);
+                i++;
+            } else if (args[i].equals("--metrics")) {
+                metrics = true;
+                summary = true;
+            } else if (args[i].equals("--metrics-file")) {
+                metricsFile = new File(args[i + 1]);
+                metricsSeconds = Integer.parseInt(args[i + 2]);
+                if (metricsSeconds < 1) {
+                    throw new NumberFormatException();
+                } //if
+                metrics = true;
+                i += 2;
+            } else {
+                throw new IOException(args[i] + " is not an option");
+            } //if else
+        } //for
+        if (minimap && viewRows > 0) {
+            game.viewport(viewRows, viewCols, true);
+        } //if
+        if (autosaveFile != null) {
+            game.autosave(autosaveFile, autosaveSeconds);
+        } //if
+        if (batchFile != null) {
+            game.batch(new FileReader(batchFile));
+        } //if
+        if (logFile != null) {
+            game.logMoves(new MoveLog(logFile, 1));
+        } //if
+        if (metrics) {
+            GameMetrics gameMetrics = new GameMetrics();
+            if (metricsFile != null) {
+                gameMetrics.dumpEvery(metricsFile, metricsSeconds);
+            } //if
+            game.collectMetrics(gameMetrics, summary);
+        } //if
+        game.play();
+    } //method
+
+    /**
+     * Check if a file starts with the given bytes, which tells binary seeds and snapshots from
+     * text seeds.
+     * @param path the path to the file.
+     * @param magic the bytes to look for.
+     * @return true if the file starts with {@code magic}.
+     * @throws IOException when the file cannot be read.
+     */
+    private static boolean startsWith(String path, byte[] magic) throws IOException {
+        try (FileInputStream in = new FileInputStream(path)) {
+            return Arrays.equals(in.readNBytes(magic.length), magic);
+        } //try
+    } //method
+
+    /**
+     * Convert a seed file to the other format: a text seed is written as a binary seed and a
+     * binary seed is written as text. The program exits with a format error if the seed cannot
+     * be read.
+     * @param seed the path to the seed file to convert.
+     * @param fileToMake the seed file to write.
+     * @throws IOException when either file cannot be used.
+     */
+    private static void convert(String seed, File fileToMake) throws IOException {
+        boolean binary = startsWith(seed, SeedWriter.MAGIC);
+        try {
+            SeedReader reader = new SeedReader(seed);
+            int cols = reader.getCols();
+            int[] pairs = reader.getMines();
+            if ((long) reader.getRows() * cols > Integer.MAX_VALUE) {
+                throw new NumberFormatException();
+            } //if
+            int[] mines = new int[pairs.length / 2];
+            for (int i = 0; i < mines.length; i++) {
+                mines[i] = (pairs[2 * i] * cols) + pairs[(2 * i) + 1];
+            } //for
+            if (binary) {
+                SeedWriter.writeText(fileToMake, reader.getRows(), cols, mines);
+            } else {
+                SeedWriter.writeBinary(fileToMake, reader.getRows(), cols, mines);
+            } //if else
+        } catch (NumberFormatException | NoSuchElementException ex) {
+            System.err.println("Seedfile Format Error: Cannot convert " + seed +
+                               ", because it is not formatted correctly.\n");
+            System.exit(1);
+        } //try
+    } //method
 } //class
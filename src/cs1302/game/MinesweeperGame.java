@@ -1,14 +1,23 @@
 package cs1302.game;
 
+import java.io.File;
 import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.io.InputStreamReader;
 import java.util.NoSuchElementException;
-import java.io.File;
-import java.util.Scanner;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.io.StringReader;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.IntConsumer;
 
 /**
  * This class represents a MinesweeperGame object. Each {@code MinesweeperGame} has
- * varies instance variables and methods to keep track of a minesweeper game. The only
+ * varies instance variables and methods to keep track of a minesweeper game. The main
  * method that can be called by a {@code MinesweeperGame} object is the {@link #play()} method.
+ * The board itself is drawn by a {@link BoardRenderer}.
  *
  * <p>
  * A {@code MinesweeperGame} object cannot have a grid size less then a 5 x 5
@@ -16,64 +25,84 @@ import java.util.Scanner;
  * mines, and each mine's location on the grid. The amount of mines cannot exceed
  * the amount of spaces on the grid nor can any of the mines be placed outside of the grid.
  * The constructor of this class will ensure these conditions via exceptions.
+ *
+ * <p>
+ * A game can also be run without a terminal. The {@link #MinesweeperGame(String,Readable,
+ * PrintStream)} constructor takes its commands from any {@code Readable} and writes to any
+ * {@code PrintStream}, or to nothing at all, and {@link #run()} returns the {@link Outcome}
+ * instead of exiting the program.
  */
 public class MinesweeperGame {
+
+    /**
+     * The ways a game run by {@link #run()} can end.
+     */
+    public enum Outcome {
+        /** Every square was revealed or marked. */
+        WON,
+        /** A mine was revealed. */
+        LOST,
+        /** The player used the quit command. */
+        QUIT,
+        /** The commands ran out before the game ended. */
+        UNFINISHED
+    } //enum
+
+    static final byte HIDDEN = 0;
+    static final byte REVEALED = 1;
+    static final byte MARKED = 2;
+    static final byte GUESSED = 3;
+
     private int rows;
     private int cols;
     private int rounds;
     private int numberOfMines;
-    private int xLoc;
-    private int yLoc;
     private double score;
     private boolean gameOver;
-    private Scanner keyboard;
+    private CommandParser commands;
+    private CommandParser batch;
+    private PrintStream out;
+    private PrintStream err;
+    private boolean headless;
     private boolean cheatCode;
-    private String[] command;
-    private String[][] mineField;
-    private boolean[][] winProgress;
-    private boolean[][] mineLocation;
-    private int[][] mineData;
+    private boolean ansi;
+    private boolean fileCommands;
+    private TiledBoard board;
+    private BoardRenderer renderer;
+    private long revealedSafe;
+    private long flaggedMines;
+    private int[] mineData;
+    private String seedPath;
+    private File autosaveFile;
+    private ScheduledExecutorService autosaver;
+    private volatile boolean autosaveDue;
+    private IntConsumer squareListener;
+    private GameMetrics metrics;
+    private boolean metricsSummary;
+    private MoveLog moveLog;
+    private boolean loaded;
+    private MineGenerator generator;
+    private boolean binarySeed;
+    private boolean quiet;
+    private int viewHeight;
+    private int viewWidth;
+    private boolean minimap;
+    private int viewTop;
+    private int viewLeft;
 
     /**
      * Constructs a {@code MinesweeperGame} object with a given {@code seed} file.
      * Seed file must be formatted correctly; including the rows, columns, number of
      * mines, and each mine's location on the grid. The amount of mines cannot exceed
      * the amount of spaces on the grid nor can any of the mines be placed outside of the grid.
-     * The {@link #checkSeed()} method will throw exceptions if conditions
-     * fail to be met.
+     * The game reads commands from standard input and the program exits with an error message
+     * if the {@code seed} cannot be used.
      * @param seed the path to seed file.
-     * @throws FileNotFoundException when file is not accessable or cannot be found.
-     * @throws NoSuchElementException when missing information in the {@code seed}.
-     * @throws NumberFormatException when {@code seed} don't have the right data type
-     * or is out of bounds.
+     * @throws ArrayIndexOutOfBoundsException when there are more mines than squares.
      */
     public MinesweeperGame(String seed) {
         try {
-            this.rounds = 0;
-            this.score = 0.0;
-            this.gameOver = false;
-            this.cheatCode = false;
-            File seedFile = new File(seed);
-            Scanner seedScanner = new Scanner(seedFile);
-            this.keyboard = new Scanner(System.in);
-            this.rows = Integer.parseInt(seedScanner.next());
-            this.cols = Integer.parseInt(seedScanner.next());
-            numberOfMines = Integer.parseInt(seedScanner.next());
-            mineData = new int[numberOfMines][2];
-            int x;
-            int y;
-            for (int i = 0; i < mineData.length; i++) {
-                x = Integer.parseInt(seedScanner.next());
-                y = Integer.parseInt(seedScanner.next());
-                if (isInBounds(x,y)) {
-                    mineData[i][0] = x;
-                    mineData[i][1] = y;
-                } else {
-                    throw new NumberFormatException();
-                }
-            } //for
-            checkSeed();
-            assignArray();
+            loadSeed(seed);
         } catch (FileNotFoundException fnfe) {
             System.err.println("Seedfile Not Found Error: Cannot create game with " +
                                seed + ", because it cannot be found\n\t\tor cannot be" +
@@ -83,55 +112,237 @@ public class MinesweeperGame {
             System.err.println("Seedfile Format Error: Cannot create game with " +
                                seed + ", because it is not formatted correctly.\n");
             System.exit(1);
+        } catch (IllegalArgumentException iae) {
+            System.err.println("\nSeedfile Value Error: Cannot create a mine field " +
+                               "with that many rows and/or columns!");
+            System.exit(3);
         } //try
+        this.out = System.out;
+        this.err = System.err;
+        this.headless = false;
     } //Constructor
 
+    /**
+     * Constructs a {@code MinesweeperGame} object with a given {@code seed} file that reads its
+     * commands from {@code input} and writes everything to {@code output}. If {@code output} is
+     * null nothing is drawn or printed at all. Problems with the {@code seed} are thrown to the
+     * caller instead of exiting the program.
+     * @param seed the path to seed file.
+     * @param input where the commands are read from.
+     * @param output where the board and messages are written, or null for no output.
+     * @throws FileNotFoundException when file is not accessable or cannot be found.
+     * @throws NoSuchElementException when missing information in the {@code seed}.
+     * @throws NumberFormatException when {@code seed} don't have the right data type
+     * or is out of bounds.
+     * @throws IllegalArgumentException when the grid is smaller than 5 x 5.
+     * @throws ArrayIndexOutOfBoundsException when there are more mines than squares.
+     */
+    public MinesweeperGame(String seed, Readable input, PrintStream output)
+        throws FileNotFoundException {
+        loadSeed(seed);
+        this.commands = new CommandParser(input);
+        this.headless = output == null;
+        if (headless) {
+            output = new PrintStream(OutputStream.nullOutputStream());
+        } //if
+        this.out = output;
+        this.err = output;
+    } //Constructor
+
+    /**
+     * Constructs a headless {@code MinesweeperGame} object from mines that are already in
+     * memory, for programs that make and play many boards without writing each one to a seed
+     * file first. The game reads no commands and prints nothing, and since it has no seed file
+     * the save and load commands are turned off.
+     * @param rows the number of rows on the board.
+     * @param cols the number of columns on the board.
+     * @param cells the square number, {@code row * cols + col}, of every mine.
+     * @throws IllegalArgumentException when the grid is smaller than 5 x 5.
+     * @throws ArrayIndexOutOfBoundsException when there are more mines than squares.
+     */
+    MinesweeperGame(int rows, int cols, int[] cells) {
+        this.rounds = 0;
+        this.score = 0.0;
+        this.gameOver = false;
+        this.cheatCode = false;
+        this.fileCommands = false;
+        this.rows = rows;
+        this.cols = cols;
+        useMines(cells);
+        checkSeed();
+        assignArray();
+        this.commands = new CommandParser(new StringReader(""));
+        this.headless = true;
+        this.out = new PrintStream(OutputStream.nullOutputStream());
+        this.err = out;
+    } //Constructor
+
+    /**
+     * Constructs a {@code MinesweeperGame} object on a new board whose mines are not placed
+     * until the first square is revealed. They are then placed by {@code generator} anywhere
+     * but on that square and the squares around it, so the first reveal always opens up an
+     * area, and written to {@code seed} as a text seed, or a binary one if {@code binary} is
+     * true, so that the game can be played again with --seed. Until then the board has no
+     * tiles at all and the save and load commands are not available. The game reads commands
+     * from standard input.
+     * @param seed the path of the seed file to write.
+     * @param rows the number of rows on the board.
+     * @param cols the number of columns on the board.
+     * @param numOfMines the number of mines to place.
+     * @param generator places the mines on a {@code rows} x {@code cols} board.
+     * @param binary true to write a binary seed.
+     * @throws IllegalArgumentException when the grid is smaller than 5 x 5 or the mines do not
+     * fit around the block of nine squares that is kept clear.
+     */
+    public MinesweeperGame(String seed, int rows, int cols, int numOfMines,
+                           MineGenerator generator, boolean binary) {
+        this.rounds = 0;
+        this.score = 0.0;
+        this.gameOver = false;
+        this.cheatCode = false;
+        this.fileCommands = true;
+        this.seedPath = new File(seed).getAbsolutePath();
+        this.rows = rows;
+        this.cols = cols;
+        useMines(new int[0]);
+        checkSeed();
+        if (numOfMines < 0 || numOfMines > (long) rows * cols - 9) {
+            throw new IllegalArgumentException();
+        } //if
+        this.numberOfMines = numOfMines;
+        this.generator = generator;
+        this.binarySeed = binary;
+        assignArray();
+        this.out = System.out;
+        this.err = System.err;
+        this.headless = false;
+    } //Constructor
+
+    /**
+     * Fill the {@code mineData} array, two numbers per mine, from square numbers.
+     * @param cells the square number, {@code row * cols + col}, of every mine.
+     */
+    private void useMines(int[] cells) {
+        mineData = new int[2 * cells.length];
+        for (int i = 0; i < cells.length; i++) {
+            mineData[2 * i] = cells[i] / cols;
+            mineData[(2 * i) + 1] = cells[i] % cols;
+        } //for
+        numberOfMines = cells.length;
+    } //method
+
+    /**
+     * Place the mines of a game whose mines wait for the first reveal, keeping the square being
+     * revealed and the squares around it clear, and write them to the seed file. A marked
+     * square that now holds a mine counts toward winning from here on. If the seed cannot be
+     * written the game goes on, but cannot be saved.
+     * @param row the x value of the square being revealed.
+     * @param col the y value of the square being revealed.
+     */
+    private void placeMines(int row, int col) {
+        int[] cells = generator.placeMinesAround(numberOfMines, row, col);
+        generator = null;
+        useMines(cells);
+        board.setMines(mineData);
+        for (int i = 0; i < mineData.length; i += 2) {
+            if (board.getState(mineData[i], mineData[i + 1]) == MARKED) {
+                flaggedMines++;
+            } //if
+        } //for
+        try {
+            if (binarySeed) {
+                SeedWriter.writeBinary(new File(seedPath), rows, cols, cells);
+            } else {
+                SeedWriter.writeText(new File(seedPath), rows, cols, cells);
+            } //if else
+        } catch (IOException ioe) {
+            err.println("\nSeed Error: " + ioe.getMessage());
+            fileCommands = false;
+        } //try
+    } //method
+
+    /**
+     * Read the {@code seed} file with a {@link SeedReader} and set up the board. The
+     * {@link #checkSeed()} method will throw exceptions if conditions fail to be met.
+     * @param seed the path to seed file.
+     * @throws FileNotFoundException when file is not accessable or cannot be found.
+     * @throws NoSuchElementException when missing information in the {@code seed}.
+     * @throws NumberFormatException when {@code seed} don't have the right data type
+     * or is out of bounds.
+     */
+    private void loadSeed(String seed) throws FileNotFoundException {
+        this.rounds = 0;
+        this.score = 0.0;
+        this.gameOver = false;
+        this.cheatCode = false;
+        this.fileCommands = true;
+        this.seedPath = new File(seed).getAbsolutePath();
+        SeedReader reader = new SeedReader(seed);
+        this.rows = reader.getRows();
+        this.cols = reader.getCols();
+        mineData = reader.getMines();
+        numberOfMines = mineData.length / 2;
+        checkSeed();
+        assignArray();
+    } //method
+
     /**
      * Check to see if the {@code seed} file met all the conditions. If not, the
      * method will either throw an exception or give a Seedfile Value error depending
      * on which condition wasn't met.
+     * @throws IllegalArgumentException when the grid is smaller than 5 x 5.
      * @throws ArrayIndexOutOfBoundsException when values are not within bounds of grid.
      */
     private void checkSeed() {
         if (this.rows < 5 || this.cols < 5) {
-            System.err.println("\nSeedfile Value Error: Cannot create a mine field " +
-                               "with that many rows and/or columns!");
-            System.exit(3);
+            throw new IllegalArgumentException();
         } //if
-        if (numberOfMines > cols * rows) {
+        if (numberOfMines > (long) cols * rows) {
             throw new ArrayIndexOutOfBoundsException();
         } //if
-        for (int i = 0; i < mineData.length; i++) {
-            if (!isInBounds(mineData[i][0], mineData[i][1])) {
+        for (int i = 0; i < mineData.length; i += 2) {
+            if (!isInBounds(mineData[i], mineData[i + 1])) {
                 throw new ArrayIndexOutOfBoundsException();
             } //if
         } //for
     } //method
 
     /**
-     * Initialized the {@code winProgress} and {@code mineLocation} arrays and
-     * set every index value to false. Then retreive the locations of the mines
-     * from the seed file and set the corresponding location in the {@code mineLocation} to true.
+     * Create the {@link TiledBoard} that holds the mines and the state of every square, and
+     * put the mines from the seed file on it. The board only keeps the tiles that hold a mine
+     * or a square that is no longer hidden, so a mostly empty board takes little memory.
      */
     private void assignArray() {
-        winProgress = new boolean[rows][cols];
-        mineLocation = new boolean[rows][cols];
-        for (int row = 0; row < mineLocation.length; row++) {
-            for (int col = 0; col < mineLocation[row].length; col++) {
-                mineLocation[row][col] = false;
-                winProgress[row][col] = false;
-            } //for
-        } //for
-        for (int i = 0; i < mineData.length; i++) {
-            mineLocation[mineData[i][0]][mineData[i][1]] = true;
-        } //for
+        revealedSafe = 0;
+        flaggedMines = 0;
+        board = new TiledBoard(rows, cols);
+        board.setMines(mineData);
     } //method
 
     /**
-     * Print the welcome banner for the minesweeper game.
+     * Move mine number {@code index} of the {@code mineData} array to a new square. The
+     * numbers around both squares follow by themselves, since they are counted from the
+     * mines on the {@code board}. The new square is expected to be empty.
+     * @param index the number of the mine, which is stored at {@code 2 * index} and
+     * {@code 2 * index + 1} of the {@code mineData} array.
+     * @param row the x value of the new square.
+     * @param col the y value of the new square.
+     */
+    void moveMine(int index, int row, int col) {
+        board.setMine(mineData[2 * index], mineData[(2 * index) + 1], false);
+        mineData[2 * index] = row;
+        mineData[(2 * index) + 1] = col;
+        board.setMine(row, col, true);
+    } //method
+
+    /**
+     * Print the welcome banner for the minesweeper game, unless the game is quiet.
      */
     private void printWelcome() {
-        System.out.println("        _\n" +
+        if (quiet) {
+            return;
+        } //if
+        out.println("        _\n" +
                            "  /\\/\\ (_)_ __   ___  _____      _____  ___ _ __   ___ _ __\n" +
                            " /    \\| | '_ \\ / _ \\/ __\\ \\ /\\ / / _ \\/ _ \\ '_ \\ / _ \\ '__" +
                            "|\n/ /\\/\\ \\ | | | |  __/\\__ \\\\ V  V /  __/  __/ |_) |  __/ |\n" +
@@ -140,146 +351,286 @@ public class MinesweeperGame {
     } //method
 
     /**
-     * Assign the value to minesweeper's game board. Assign strings to the
-     * mineField array that represent the current state of the game. The game
-     * board will be padded depending on the numbers of rows and columns.
-     * @param num the case that should be called depending on the length of rows and columns.
-     * @param spaces the amount of whitespaces that the indexs should be padded.
+     * Draw the board in ANSI mode from now on. The whole board is drawn once, and after that
+     * only the squares that changed are repainted in place. Must be called before
+     * {@link #play()}.
      */
-    private void printMineFieldHelper(int num, int spaces) {
-        switch (num) {
-        case 1:
-            for (int i = 0; i < this.rows; i++) {
-                String number = "%" + spaces + "d";
-                mineField[i][0] = "%s" + number;
-            } //for
-            int padding = spaces - 1;
-            mineField[rows][0] = " %" + ((spaces * 2) - padding) + "s";
-            break;
-        case 2:
-            for (int i = 1; i <= this.cols * 2; i += 2) {
-                String number = "%" + spaces + "d";
-                mineField[rows][i] = " %s" + number;
-                mineField[rows][i + 1] = " ";
-            } //for
-            for (int row = 0; row < this.rows; row++) {
-                for (int col = 1; col <= this.cols * 2; col += 2) {
-                    mineField[row][col] = " |%" + spaces + "s";
-                    mineField[row][col + 1] = " ";
-                } //for
-            } //for
-            for (int i = 0; i < this.rows; i++) {
-                mineField[i][(cols * 2) + 1] = " |";
-            } //for
-            break;
-        case 3:
-            if (cheatCode) {
-                for (int i = 0; i < mineData.length; i++) {
-                    mineField[mineData[i][0]][(mineData[i][1] * 2) + 1] = " |%" + spaces + "s";
-                    mineField[mineData[i][0]][(mineData[i][1] * 2) + 3] = " |%" + spaces + "s";
-                } //for
-                cheatCode = false;
-            } //if
-            break;
-        case 4:
-            if (spaces > 1) {
-                for (int i = 0; i < mineData.length; i++) {
-                    int x = mineData[i][0];
-                    int y = mineData[i][1];
-                    String r = mineField[x][(y * 2) + 1];
-                    String l = mineField[x][(y * 2) + 3];
-                    mineField[x][(y * 2) + 1] = r.substring(0,2) + "<%" + (spaces - 1) + "s";
-                    mineField[x][(y * 2) + 3] = ">" + l.substring(1);
-                } //for
-                cheatCode = true;
-            } else {
-                for (int i = 0; i < mineData.length; i++) {
-                    String r = mineField[mineData[i][0]][(mineData[i][1] * 2) + 1];
-                    String l = mineField[mineData[i][0]][(mineData[i][1] * 2) + 3];
-                    mineField[mineData[i][0]][(mineData[i][1] * 2) + 1] = r.substring(0,2) + "<";
-                    mineField[mineData[i][0]][(mineData[i][1] * 2) + 3] = ">" + l.substring(1);
-                } //for
-                cheatCode = true;
-            } //if else
-            break;
-        } //switch
+    public void useAnsi() {
+        this.ansi = true;
     } //method
 
     /**
-     * Calculate the amount of spaces that need to be padded
-     * for the {@link printMineFieldHelper} method to use. This
-     * return a integer based on the number of digits in the rows and cols.
-     * @param digit the number use to calulate the spacing.
-     * @return the number of whitespace to pad.
+     * Leave out the welcome banner and the pictures of the win and lose screens, for scripted
+     * runs that only need the board and the result. Must be called before {@link #play()}.
      */
-    private int spaceNum(int digit) {
-        double widthDouble = Math.ceil(Math.log10(digit));
-        int widthInt = 1;
-        if (digit != 1) {
-            widthInt = (int) widthDouble;
+    public void quiet() {
+        this.quiet = true;
+    } //method
+
+    /**
+     * Draw only a window of {@code height} rows and {@code width} columns of the board from now
+     * on, so that a frame costs the same however large the board is. The window follows the
+     * squares played, moving to center on a square that is played outside it, and can be moved
+     * by the pan and goto commands, which are only recognized in this mode and do not count as
+     * rounds. If {@code minimap} is true, a map of the whole board showing how much of each
+     * block of tiles has been revealed is drawn under the window. Must be called before
+     * {@link #play()}.
+     * @param height the number of rows in the window.
+     * @param width the number of columns in the window.
+     * @param minimap true to draw the minimap.
+     * @throws IllegalArgumentException when {@code height} or {@code width} is less than 1.
+     */
+    public void viewport(int height, int width, boolean minimap) {
+        if (height < 1 || width < 1) {
+            throw new IllegalArgumentException();
         } //if
-        return widthInt;
+        this.viewHeight = Math.min(height, rows);
+        this.viewWidth = Math.min(width, cols);
+        this.minimap = minimap;
     } //method
 
     /**
-     * Print the minesweeper's game board to standard output. Also check
-     * if cheat code is active and switch it off.
+     * Turn the save and load commands off, so that a player who is not at this machine
+     * cannot read or write its files. Must be called before {@link #run()}.
      */
-    private void printMineField() {
-        System.out.println("\n Rounds Completed: " + rounds + "\n");
-        if (rounds == 0) {
-            mineField = new String[rows + 1][(cols * 2) + 2];
-            printMineFieldHelper(1,spaceNum(rows));
-            printMineFieldHelper(2,spaceNum(cols));
-        } //if
-        for (int i = 0; i < mineField.length - 1; i++) {
-            for (int j = 0; j < mineField[i].length; j++) {
-                System.out.printf(mineField[i][j]," ",i);
-            } //for
-            System.out.println();
-        } //for
-        System.out.printf(mineField[rows][0]," ");
-        int xNum = 0;
-        int j = 2;
-        for (int i = 1; i < mineField[rows].length - 1; i += 2) {
-            System.out.printf(mineField[rows][i]," ",(int)xNum);
-            System.out.printf(mineField[rows][j]);
-            xNum++;
-            j += 2;
-        } //for
-        System.out.println();
-        printMineFieldHelper(3,spaceNum(cols));
+    void disableFileCommands() {
+        this.fileCommands = false;
+    } //method
+
+    /**
+     * Record where the time of each command goes, and how many commands, cascades and revealed
+     * squares there are, in {@code metrics}. If {@code summary} is true, {@link #play()} prints
+     * a table of the metrics to standard error when the game ends. Must be called before
+     * {@link #play()}.
+     * @param metrics where to record.
+     * @param summary whether to print the metrics when the game ends.
+     */
+    public void collectMetrics(GameMetrics metrics, boolean summary) {
+        this.metrics = metrics;
+        this.metricsSummary = summary;
+    } //method
+
+    /**
+     * Play every command from {@code input} before reading any from the player, and draw the
+     * board only once they have all been played. The commands count as rounds exactly as if
+     * they had been typed one at a time. Must be called before {@link #play()}.
+     * @param input where the batch of commands is read from.
+     */
+    public void batch(Readable input) {
+        this.batch = new CommandParser(input);
+    } //method
+
+    /**
+     * Append every command to {@code log} as it is played, starting with a checkpoint of the
+     * game as it is when {@link #run()} starts, and end the log with how the game ended. Must
+     * be called before {@link #play()}.
+     * @param log the move log to write.
+     */
+    public void logMoves(MoveLog log) {
+        this.moveLog = log;
+    } //method
+
+    /**
+     * Save the game to {@code file} every {@code seconds} seconds while it is being played.
+     * The timer only raises a flag; after the next command the game copies its squares and a
+     * background thread packs and writes them, so the input loop never waits on the disk.
+     * Must be called before {@link #play()}.
+     * @param file the snapshot file to keep up to date.
+     * @param seconds the time between saves.
+     */
+    public void autosave(File file, int seconds) {
+        this.autosaveFile = file;
+        this.autosaver = Executors.newSingleThreadScheduledExecutor(task -> {
+            Thread thread = new Thread(task, "autosave");
+            thread.setDaemon(true);
+            return thread;
+        });
+        autosaver.scheduleAtFixedRate(() -> autosaveDue = true, seconds, seconds,
+                                      TimeUnit.SECONDS);
+    } //method
+
+    /**
+     * Hand a copy of the game to the {@code autosaver} thread if the timer has gone off since
+     * the last command.
+     */
+    private void checkAutosave() {
+        if (autosaveDue) {
+            autosaveDue = false;
+            Snapshot snapshot;
+            try {
+                snapshot = snapshot();
+            } catch (IllegalArgumentException iae) {
+                err.println("\nAutosave Error: " + iae.getMessage());
+                autosaver.shutdownNow();
+                return;
+            } //try
+            autosaver.execute(() -> {
+                try {
+                    snapshot.save(autosaveFile);
+                } catch (IOException ioe) {
+                    err.println("\nAutosave Error: " + ioe.getMessage());
+                } //try
+            });
+        } //if
+    } //method
+
+    /**
+     * Return a {@link Snapshot} of the game as it is now.
+     * @return the snapshot, holding its own copy of the squares.
+     * @throws IllegalArgumentException when the board has too many squares for a snapshot.
+     */
+    Snapshot snapshot() {
+        if (!Snapshot.fits(rows, cols)) {
+            throw new IllegalArgumentException("board too large to snapshot");
+        } //if
+        byte[] squares = new byte[rows * cols];
+        board.getStates(squares);
+        return new Snapshot(seedPath, rows, cols, rounds, squares);
     } //method
 
     /**
-     * Determine if the user has inputed numbers and return true if
-     * the input is a number and false if it is not. Assign the inputs
-     * to {@code xLoc} and {@code yLoc} respectively in the order of inputs.
-     * @return true if the user input is a number and false if the input is not.
-     * @throws NumberFormatException when input command are not numbers.
+     * Put the game back into the state saved in {@code snapshot}. The progress counters are
+     * worked out again from the squares and the mines, since a square counts toward winning
+     * when it was revealed without a mine or marked with one. Snapshots are only taken of games
+     * that are still going, so the game is no longer over afterwards.
+     * @param snapshot the saved game.
+     * @throws IllegalArgumentException when the snapshot is of a board of a different size,
+     * or the board has too many squares for a snapshot.
      */
-    private boolean isNumber() {
+    public void restore(Snapshot snapshot) {
+        if (!Snapshot.fits(rows, cols)) {
+            throw new IllegalArgumentException("board too large to snapshot");
+        } //if
+        if (snapshot.getRows() != rows || snapshot.getCols() != cols) {
+            throw new IllegalArgumentException();
+        } //if
+        board.setStates(snapshot.getSquares());
+        revealedSafe = board.countStates(REVEALED, false);
+        flaggedMines = board.countStates(MARKED, true);
+        this.rounds = snapshot.getRounds();
+        this.gameOver = false;
+        this.score = 0.0;
+        this.renderer = null;
+    } //method
+
+    /**
+     * Carry out the save and load commands. Without a path the snapshot file is the seed path
+     * followed by ".save".
+     * @param load true to load the snapshot, false to save it.
+     * @param path the snapshot file, or null for the default.
+     */
+    private void saveOrLoad(boolean load, String path) {
+        File file = new File(path == null ? seedPath + ".save" : path);
         try {
-            if (command[1] != null && command[2] != null) {
-                Double.parseDouble(command[1]);
-                Double.parseDouble(command[2]);
-                int x = Integer.parseInt(command[1]);
-                int y = Integer.parseInt(command[2]);
-                if (isInBounds(x,y)) {
-                    this.xLoc = x;
-                    this.yLoc = y;
-                    return true;
-                } else {
-                    return false;
-                }
+            if (!fileCommands) {
+                throw new IOException("Not available in this game");
+            } //if
+            if (generator != null) {
+                throw new IOException("Not available before the first reveal");
+            } //if
+            if (load) {
+                Snapshot snapshot = Snapshot.load(file);
+                if (!snapshot.getSeed().equals(seedPath)) {
+                    throw new IOException(file + " was saved from " + snapshot.getSeed());
+                } //if
+                restore(snapshot);
+                loaded = true;
+                out.println("\nLoaded " + file);
             } else {
-                return false;
+                snapshot().save(file);
+                out.println("\nSaved " + file);
             } //if else
-        } catch (NumberFormatException nfe) {
-            return false;
+        } catch (IOException | IllegalArgumentException ex) {
+            err.println("\n" + (load ? "Load" : "Save") + " Error: " + ex.getMessage());
         } //try
     } //method
 
+    /**
+     * Print the minesweeper's game board to standard output through the {@code renderer}.
+     * Also check if cheat code is active and switch it off.
+     */
+    private void printMineField() {
+        if (headless) {
+            cheatCode = false;
+            return;
+        } //if
+        if (renderer == null) {
+            renderer = new BoardRenderer(this, rows, cols, out, ansi);
+            if (viewHeight > 0) {
+                renderer.viewport(viewHeight, viewWidth, minimap ? board : null);
+            } //if
+        } //if
+        boolean repaintMines = cheatCode && viewHeight == 0;
+        if (repaintMines) {
+            markMinesDirty();
+        } //if
+        if (viewHeight > 0) {
+            renderer.moveViewport(viewTop, viewLeft);
+        } //if
+        renderer.render(rounds, cheatCode);
+        if (repaintMines) {
+            markMinesDirty();
+        } //if
+        cheatCode = false;
+    } //method
+
+    /**
+     * Tell the {@code renderer} that every mine square must be repainted, so that the
+     * {@code <} and {@code >} of the nofog command appear and disappear again.
+     */
+    private void markMinesDirty() {
+        for (int i = 0; i < mineData.length; i += 2) {
+            renderer.markDirty((mineData[i] * cols) + mineData[i + 1]);
+        } //for
+    } //method
+
+    /**
+     * Set what is shown on a square, keep the progress counters in step and tell the
+     * {@code renderer} that it changed.
+     * @param row the x value of the square.
+     * @param col the y value of the square.
+     * @param state one of {@code HIDDEN}, {@code REVEALED}, {@code MARKED} or {@code GUESSED}.
+     */
+    private void setSquare(int row, int col, byte state) {
+        countProgress(row, col, -1);
+        board.setState(row, col, state);
+        countProgress(row, col, 1);
+        squareChanged((row * cols) + col);
+    } //method
+
+    /**
+     * Tell the {@code renderer} and the {@code squareListener} that a square changed.
+     * @param square the number of the square, {@code row * cols + col}.
+     */
+    private void squareChanged(int square) {
+        if (renderer != null) {
+            renderer.markDirty(square);
+        } //if
+        if (squareListener != null) {
+            squareListener.accept(square);
+        } //if
+    } //method
+
+    /**
+     * Return what is shown on a square.
+     * @param row the x value of the square.
+     * @param col the y value of the square.
+     * @return one of {@code HIDDEN}, {@code REVEALED}, {@code MARKED} or {@code GUESSED}.
+     */
+    byte getSquare(int row, int col) {
+        return board.getState(row, col);
+    } //method
+
+    /**
+     * Checks if a square holds a mine.
+     * @param row the x value of the square.
+     * @param col the y value of the square.
+     * @return true if there is a mine on the square.
+     */
+    boolean isMine(int row, int col) {
+        return board.isMine(row, col);
+    } //method
+
     /**
      * Checks if a square is within the game board grid.
      * @param row the x value of the square.
@@ -296,95 +647,116 @@ public class MinesweeperGame {
     } //method
 
     /**
-     * Checks if the user won or lost the game then prompt the user for a input
-     * and store the command to the {@code command} array.
+     * Prompt the user for a input and read it into the command record of {@code commands}. A
+     * game that reads standard input only sets up its parser here, so a game that ends before
+     * the first prompt never does.
+     * @return false if there are no more commands to read, otherwise true.
      */
-    private void promptUser() {
-        System.out.print("\nminesweeper-alpha: ");
-        command = keyboard.nextLine().split(" ");
-        String[] temp = new String[3];
-        int index = 0;
-        for (int i = 0; i < command.length; i++) {
-            if (index == 3) {
-                i = command.length;
-            } //if
-            if (!command[i].equals("")) {
-                temp[index] = command[i];
-                index++;
-            } //if
-        } //for
-        this.command = temp;
+    private boolean promptUser() {
+        out.print("\nminesweeper-alpha: ");
+        if (commands == null) {
+            commands = new CommandParser(new InputStreamReader(System.in));
+        } //if
+        if (metrics == null) {
+            return commands.next();
+        } //if
+        long time = System.nanoTime();
+        if (!commands.readLine()) {
+            return false;
+        } //if
+        time = metrics.record(GameMetrics.INPUT, time);
+        commands.parseLine();
+        metrics.record(GameMetrics.PARSE, time);
+        metrics.countCommand(commands.getOpcode());
+        return true;
     } //method
 
     /**
-     * Find the number of mines touching a square.
+     * Find the number of mines touching a square. The count is worked out from the mine bits
+     * of the {@code board}.
      * @param row the x value of the square.
      * @param col the y value of the square.
      * @return the number of mines touching the square.
      */
-    private int getNumAdjMines(int row, int col) {
-        int numAdjMines = 0;
-        for (int i = 0; i < mineData.length; i++) {
-            if (mineData[i][0] == row + 1 && mineData[i][1] == col) {
-                numAdjMines++;
-            } else if (mineData[i][0] == row && mineData[i][1] == col + 1) {
-                numAdjMines++;
-            } else if (mineData[i][0] == row - 1 && mineData[i][1] == col) {
-                numAdjMines++;
-            } else if (mineData[i][0] == row && mineData[i][1] == col - 1) {
-                numAdjMines++;
-            } else if (mineData[i][0] == row + 1 && mineData[i][1] == col - 1) {
-                numAdjMines++;
-            } else if (mineData[i][0] == row + 1 && mineData[i][1] == col + 1) {
-                numAdjMines++;
-            } else if (mineData[i][0] == row - 1 && mineData[i][1] == col + 1) {
-                numAdjMines++;
-            } else if (mineData[i][0] == row - 1 && mineData[i][1] == col - 1) {
-                numAdjMines++;
-            } //else if
-        } //for
-        return numAdjMines;
+    int getNumAdjMines(int row, int col) {
+        return board.countAdjacentMines(row, col);
     } //method
 
     /**
-     * Determine if the player have won the game or not by checking the {@code winProgress}
-     * array. The player win the game if all the values in the {@code winProgress} is true.
+     * Add {@code change} to the {@code revealedSafe} or {@code flaggedMines} counter if a
+     * square counts toward winning the game, which it does when it was revealed without a
+     * mine or marked with one. Called with -1 before a square changes and with 1 after.
+     * @param row the x value of the square.
+     * @param col the y value of the square.
+     * @param change 1 or -1.
+     */
+    private void countProgress(int row, int col, int change) {
+        byte state = board.getState(row, col);
+        if (state == REVEALED || state == MARKED) {
+            boolean mine = board.isMine(row, col);
+            if (mine && state == MARKED) {
+                flaggedMines += change;
+            } else if (!mine && state == REVEALED) {
+                revealedSafe += change;
+            } //if else
+        } //if
+    } //method
+
+    /**
+     * Determine if the player have won the game or not by checking the {@code revealedSafe}
+     * and {@code flaggedMines} counters. The player win the game if every square has
+     * either been revealed safely or marked as a mine.
      * @return true if the user won the game and false if the player did not.
      */
-    private boolean isWon() {
-        boolean winConditionMet = false;
-        int counter = 0;
-        for (int row = 0; row < winProgress.length; row++) {
-            for (int col = 0; col < winProgress[row].length; col++) {
-                if (winProgress[row][col] == true) {
-                    counter++;
-                } //if
-            } //for
-        } //for
-        if (counter == rows * cols) {
-            winConditionMet = true;
+    boolean isWon() {
+        return revealedSafe + flaggedMines == (long) rows * cols;
+    } //method
+
+    /**
+     * Reveal every square connected to a square with no adjacent mines. The {@code board} does
+     * the work a whole tile at a time with {@link TiledBoard#cascade(int, int, IntConsumer)},
+     * 64 squares to a word, so large open areas take no stack and no queue of squares. Marked
+     * squares are left alone. Every square revealed is safe, so the {@code revealedSafe}
+     * counter goes up by the number revealed.
+     * @param row the x value of the square that was revealed.
+     * @param col the y value of the square that was revealed.
+     * @return the number of squares revealed, not counting the starting square.
+     */
+    private long cascadeReveal(int row, int col) {
+        IntConsumer changed = null;
+        if (renderer != null || squareListener != null) {
+            changed = this::squareChanged;
         } //if
-        return winConditionMet;
+        long revealed = board.cascade(row, col, changed);
+        revealedSafe += revealed;
+        return revealed;
     } //method
 
     /**
      * Determine if the player have lost the game or not by checking if the player have reveal any
      * mines. If the player has reveal a mine location, the method will return true.
+     * @param row the x value of the square that was just revealed.
+     * @param col the y value of the square that was just revealed.
      * @return true if the player reveal a mine otherwise return false.
      */
-    private boolean isLost() {
+    private boolean isLost(int row, int col) {
         boolean loseConditionMet = false;
-        if (mineLocation[xLoc][yLoc] == true) {
+        if (board.isMine(row, col)) {
             loseConditionMet = true;
         } //if
         return loseConditionMet;
     } //method
 
     /**
-     * Print the win screen of the minesweeper game. Also display the score of the player.
+     * Print the win screen of the minesweeper game. Also display the score of the player. A
+     * quiet game only prints the score.
      */
     private void printWin() {
-        System.out.print("\n ░░░░░░░░░▄░░░░░░░░░░░░░░▄░░░░ \"So Doge\"\n" +
+        if (quiet) {
+            out.printf("\n YOU HAVE WON! SCORE: %.2f\n\n", score);
+            return;
+        } //if
+        out.print("\n ░░░░░░░░░▄░░░░░░░░░░░░░░▄░░░░ \"So Doge\"\n" +
                          " ░░░░░░░░▌▒█░░░░░░░░░░░▄▀▒▌░░░\n" +
                          " ░░░░░░░░▌▒▒█░░░░░░░░▄▀▒▒▒▐░░░ \"Such Score\"\n" +
                          " ░░░░░░░▐▄▀▒▒▀▀▀▀▄▄▄▀▒▒▒▒▒▐░░░\n" +
@@ -402,15 +774,18 @@ public class MinesweeperGame {
                          " ░░▀▄▒▒▒▒▒▒▒▒▒▒▒░▒░▒░▒▄▒▒▒▒▌░░\n" +
                          " ░░░░▀▄▒▒▒▒▒▒▒▒▒▒▄▄▄▀▒▒▒▒▄▀░░░ CONGRATULATIONS!\n" +
                          " ░░░░░░▀▄▄▄▄▄▄▀▀▀▒▒▒▒▒▄▄▀░░░░░ YOU HAVE WON!\n");
-        System.out.printf(" ░░░░░░░░░▒▒▒▒▒▒▒▒▒▒▀▀░░░░░░░░ SCORE: %.2f\n\n", score);
+        out.printf(" ░░░░░░░░░▒▒▒▒▒▒▒▒▒▒▀▀░░░░░░░░ SCORE: %.2f\n\n", score);
     } //method
 
     /**
-     * Print the lose screen of the minesweeper game.
+     * Print the lose screen of the minesweeper game. A quiet game leaves out the banner.
      */
     private void printLoss() {
-        System.out.println("\n Oh no... You revealed a mine!");
-        System.out.println("  __ _  __ _ _ __ ___   ___    _____   _____ _ __\n" +
+        out.println("\n Oh no... You revealed a mine!");
+        if (quiet) {
+            return;
+        } //if
+        out.println("  __ _  __ _ _ __ ___   ___    _____   _____ _ __\n" +
                            " / _` |/ _` | '_ ` _ \\ / _ \\  / _ \\ \\ / / _ \\ '__|\n" +
                            "| (_| | (_| | | | | | |  __/ | (_) \\ V /  __/ |\n" +
                            " \\__, |\\__,_|_| |_| |_|\\___|  \\___/ \\_/ \\___|_|\n" +
@@ -418,125 +793,548 @@ public class MinesweeperGame {
     } //method
 
     /**
-     * Holds all the command conditions for the {@link #play()} method. Checks if the user
-     * have inputed valid commands and return true if the case's conditions are met.
-     * @param num the case number to check certain conditions.
-     * @return true if all conditons if a case are met, otherwise return false.
+     * Reveal a square, along with the open area around it if no mines are touching it. In a
+     * game whose mines wait for the first reveal, they are placed first.
+     * @param row the x value of the square.
+     * @param col the y value of the square.
      */
-    private boolean playCommandHelper (int num) {
-        switch (num) {
-        case 0:
-            if (command[0].equals("r") || command[0].equals("reveal")) {
-                if (isNumber()) {
-                    return true;
-                } else {
-                    return false;
-                } //if else
-            } //if
-            break;
-        case 1:
-            if (command[0].equals("m") || command[0].equals("mark")) {
-                if (isNumber()) {
-                    return true;
-                } else {
-                    return false;
-                } //if else
-            } //if
-            break;
-        case 2:
-            if (command[0].equals("g") || command[0].equals("guess")) {
-                if (isNumber()) {
-                    return true;
-                } else {
-                    return false;
-                } //if else
-            } //if
-            break;
-        case 3:
-            if (command[0].equals("h") || command[0].equals("help")) {
-                if (command[1] == null && command[2] == null) {
-                    return true;
-                } else {
-                    return false;
-                } //if else
+    private void revealSquare(int row, int col) {
+        if (generator != null) {
+            placeMines(row, col);
+        } //if
+        long time = 0;
+        if (metrics != null) {
+            time = System.nanoTime();
+            metrics.countRevealed(getSquare(row, col) == REVEALED ? 0 : 1);
+        } //if
+        setSquare(row, col, REVEALED);
+        if (!board.isMine(row, col)) {
+            if (getNumAdjMines(row,col) == 0) {
+                long revealed = cascadeReveal(row, col);
+                if (metrics != null) {
+                    metrics.countCascade(revealed);
+                } //if
             } //if
-            break;
-        case 4:
-            if (command[0].equals("q") || command[0].equals("quit")) {
-                if (command[1] == null && command[2] == null) {
-                    return true;
-                } else {
-                    return false;
-                } //if else
+        } //if
+        if (metrics != null) {
+            time = metrics.record(GameMetrics.UPDATE, time);
+        } //if
+        gameOver = isWon() || isLost(row, col);
+        if (metrics != null) {
+            metrics.record(GameMetrics.WIN_CHECK, time);
+        } //if
+    } //method
+
+    /**
+     * Mark a square as holding a mine.
+     * @param row the x value of the square.
+     * @param col the y value of the square.
+     */
+    private void markSquare(int row, int col) {
+        long time = metrics == null ? 0 : System.nanoTime();
+        setSquare(row, col, MARKED);
+        if (metrics != null) {
+            time = metrics.record(GameMetrics.UPDATE, time);
+        } //if
+        gameOver = isWon();
+        if (metrics != null) {
+            metrics.record(GameMetrics.WIN_CHECK, time);
+        } //if
+    } //method
+
+    /**
+     * Mark a square with a question mark.
+     * @param row the x value of the square.
+     * @param col the y value of the square.
+     */
+    private void guessSquare(int row, int col) {
+        long time = metrics == null ? 0 : System.nanoTime();
+        setSquare(row, col, GUESSED);
+        if (metrics != null) {
+            metrics.record(GameMetrics.UPDATE, time);
+        } //if
+    } //method
+
+    /**
+     * Chord on a revealed square: if as many of its neighbors are marked as there are mines
+     * touching it, reveal every neighbor that is not marked, each with its open area. A wrong
+     * mark means a mine is revealed and the game is lost. Nothing happens on a square that is
+     * not revealed or whose number is not met.
+     * @param row the x value of the square.
+     * @param col the y value of the square.
+     */
+    private void chordSquare(int row, int col) {
+        if (getSquare(row, col) != REVEALED) {
+            return;
+        } //if
+        int marked = 0;
+        for (int x = Math.max(0, row - 1); x <= Math.min(rows - 1, row + 1); x++) {
+            for (int y = Math.max(0, col - 1); y <= Math.min(cols - 1, col + 1); y++) {
+                marked += getSquare(x, y) == MARKED ? 1 : 0;
+            } //for
+        } //for
+        if (marked != getNumAdjMines(row, col)) {
+            return;
+        } //if
+        for (int x = Math.max(0, row - 1); x <= Math.min(rows - 1, row + 1); x++) {
+            for (int y = Math.max(0, col - 1); y <= Math.min(cols - 1, col + 1); y++) {
+                byte state = getSquare(x, y);
+                if (!gameOver && state != REVEALED && state != MARKED) {
+                    revealSquare(x, y);
+                } //if
+            } //for
+        } //for
+    } //method
+
+    /**
+     * Reveal a square, exactly like the reveal command, and complete a round. Lets a program
+     * such as the {@link Solver} play the game without going through text commands.
+     * @param row the x value of the square.
+     * @param col the y value of the square.
+     * @throws IllegalStateException when the game is already over.
+     * @throws IllegalArgumentException when the square is not on the board.
+     */
+    public void reveal(int row, int col) {
+        checkMove(row, col);
+        revealSquare(row, col);
+        endRound();
+    } //method
+
+    /**
+     * Mark a square, exactly like the mark command, and complete a round.
+     * @param row the x value of the square.
+     * @param col the y value of the square.
+     * @throws IllegalStateException when the game is already over.
+     * @throws IllegalArgumentException when the square is not on the board.
+     */
+    public void mark(int row, int col) {
+        checkMove(row, col);
+        markSquare(row, col);
+        endRound();
+    } //method
+
+    /**
+     * Guess a square, exactly like the guess command, and complete a round.
+     * @param row the x value of the square.
+     * @param col the y value of the square.
+     * @throws IllegalStateException when the game is already over.
+     * @throws IllegalArgumentException when the square is not on the board.
+     */
+    public void guess(int row, int col) {
+        checkMove(row, col);
+        guessSquare(row, col);
+        endRound();
+    } //method
+
+    /**
+     * Chord on a square, exactly like the chord command, and complete a round.
+     * @param row the x value of the square.
+     * @param col the y value of the square.
+     * @throws IllegalStateException when the game is already over.
+     * @throws IllegalArgumentException when the square is not on the board.
+     */
+    public void chord(int row, int col) {
+        checkMove(row, col);
+        chordSquare(row, col);
+        endRound();
+    } //method
+
+    /**
+     * Make sure a move can be made on a square.
+     * @param row the x value of the square.
+     * @param col the y value of the square.
+     * @throws IllegalStateException when the game is already over.
+     * @throws IllegalArgumentException when the square is not on the board.
+     */
+    private void checkMove(int row, int col) {
+        if (gameOver) {
+            throw new IllegalStateException();
+        } //if
+        if (!isInBounds(row, col)) {
+            throw new IllegalArgumentException();
+        } //if
+    } //method
+
+    /**
+     * Count a move made through the public methods as a round, and work out the score if the
+     * move ended the game.
+     */
+    private void endRound() {
+        rounds++;
+        if (gameOver) {
+            this.score = 100.0 * rows * cols / rounds;
+        } //if
+    } //method
+
+    /**
+     * Return what a player can see on a square: the number of mines touching it if it has been
+     * revealed, or -1 if it has not.
+     * @param row the x value of the square.
+     * @param col the y value of the square.
+     * @return the number on the square, or -1 if it is not revealed.
+     */
+    public int getClue(int row, int col) {
+        if (getSquare(row, col) != REVEALED) {
+            return -1;
+        } //if
+        return getNumAdjMines(row, col);
+    } //method
+
+    /**
+     * Checks if a square has been revealed. This is {@code getClue(row, col) >= 0} without
+     * counting the mines around the square.
+     * @param row the x value of the square.
+     * @param col the y value of the square.
+     * @return true if the square is revealed.
+     */
+    public boolean isRevealed(int row, int col) {
+        return getSquare(row, col) == REVEALED;
+    } //method
+
+    /**
+     * Call {@code listener} with the square number, {@code row * cols + col}, of every square
+     * whose state changes from now on, including each square opened by a cascade.
+     * @param listener the listener, or null to stop listening.
+     */
+    public void setSquareListener(IntConsumer listener) {
+        this.squareListener = listener;
+    } //method
+
+    /**
+     * Return the number of rows on the board.
+     * @return the number of rows.
+     */
+    public int getRows() {
+        return rows;
+    } //method
+
+    /**
+     * Return the number of columns on the board.
+     * @return the number of columns.
+     */
+    public int getCols() {
+        return cols;
+    } //method
+
+    /**
+     * Return the number of mines given in the seed.
+     * @return the number of mines.
+     */
+    public int getNumberOfMines() {
+        return numberOfMines;
+    } //method
+
+    /**
+     * Checks if the game has been won or lost.
+     * @return true if the game is over.
+     */
+    public boolean isGameOver() {
+        return gameOver;
+    } //method
+
+    /**
+     * Checks if the game has been won.
+     * @return true if the game is over and was won.
+     */
+    public boolean hasWon() {
+        return gameOver && isWon();
+    } //method
+
+    /**
+     * Plays the minesweeper game with the {@link #run()} method and then exits the program.
+     * If metrics are being collected, they are written out first.
+     */
+    public void play() {
+        run();
+        if (metrics != null) {
+            metrics.finish(err);
+            if (metricsSummary) {
+                metrics.printSummary(err);
             } //if
-            break;
-        } //switch
-        return false;
+        } //if
+        System.exit(0);
     } //method
 
     /**
      * The main game loop that plays the minesweeper game. The method will display the board and
      * ask the user for a command via the {@link #printMineField()} and {@link #promptUser()}
-     * methods. The user can either reveal a square, mark a square, guess a square, get help, and
-     * quit the game. There is also a nofog command that will reveal the mines location for one
-     * round. The game will update every actions that the player take to the game board and print
-     * it back to standard output. Game will end either when the player won or lose then print
-     * the corresponding win or lose screen via the {@link #printWin()} and {@link #printLoss()}
-     * methods.
-     * @throws ArrayIndexOutOfBoundsException when square that command is used on is not in bounds.
+     * methods. The user can either reveal a square, mark a square, guess a square, chord on a
+     * square, get help, save or load the game, and quit the game. Revealing a square with no
+     * adjacent mines also reveals the open area around it via {@link #cascadeReveal(int,int)}.
+     * Several commands can be given on one line, separated by {@code ;}, and the board is only
+     * drawn again once all of them have been played; a batch given to {@link #batch(Readable)}
+     * is played before the first prompt the same way. There is also a nofog command that will
+     * reveal the mines location for one round. The game will update every actions that the
+     * player take to the game board and print it back to the output. Game will end either when
+     * the player won or lose then print the corresponding win or lose screen via the
+     * {@link #printWin()} and {@link #printLoss()} methods. The game also ends when the player
+     * quits or there are no more commands to read. If a {@link MoveLog} was given to
+     * {@link #logMoves(MoveLog)}, it is closed once the game ends.
+     * @return how the game ended.
      */
-    public void play() {
+    public Outcome run() {
+        try {
+            if (moveLog != null) {
+                moveLog.start(this);
+            } //if
+            Outcome outcome = runGame();
+            if (moveLog != null) {
+                moveLog.finish(this, outcome);
+            } //if
+            return outcome;
+        } catch (IOException ioe) {
+            err.println("\nMove Log Error: " + ioe.getMessage());
+            return Outcome.UNFINISHED;
+        } //try
+    } //method
+
+    /**
+     * Play the game for {@link #run()}.
+     * @return how the game ended.
+     * @throws IOException when the move log cannot be written.
+     */
+    private Outcome runGame() throws IOException {
         printWelcome();
-        do {
-            try {
-                printMineField();
-                promptUser();
-                if (command[0] == null) {
-                    throw new ArrayIndexOutOfBoundsException();
-                } else if (playCommandHelper(0)) {
-                    mineField[xLoc][(yLoc * 2) + 2] = Integer.toString(getNumAdjMines(xLoc,yLoc));
-                    winProgress[xLoc][yLoc] = true;
-                    gameOver = isWon() || isLost();
-                } else if (playCommandHelper(1)) {
-                    mineField[xLoc][(yLoc * 2) + 2] = "F";
-                    if (mineLocation[xLoc][yLoc] == true) {
-                        winProgress[xLoc][yLoc] = true;
-                    } else if (winProgress[xLoc][yLoc] == true) {
-                        winProgress[xLoc][yLoc] = false;
-                    } //else if
-                    gameOver = isWon();
-                } else if (playCommandHelper(2)) {
-                    mineField[xLoc][(yLoc * 2) + 2] = "?";
-                    if (winProgress[xLoc][yLoc] == true) {
-                        winProgress[xLoc][yLoc] = false;
-                    } //if
-                } else if (playCommandHelper(3)) {
-                    System.out.println("\nCommands Available...\n" +
-                                       " - Reveal: r/reveal row col\n" +
-                                       " -   Mark: m/mark   row col\n" +
-                                       " -  Guess: g/guess  row col\n" +
-                                       " -   Help: h/help\n" +
-                                       " -   Quit: q/quit");
-                } else if (playCommandHelper(4)) {
-                    System.out.println("\nQuitting the game...\nBye!");
-                    System.exit(0);
-                } else if (command[0].equals("nofog")) {
-                    printMineFieldHelper(4,spaceNum(cols));
-                } else {
-                    System.err.println("\nInput Error: Command not recognized!");
-                    rounds--;
-                } //else if
-                rounds++;
-            } catch (ArrayIndexOutOfBoundsException aiobe) {
-                System.err.println("\nInput Error: Command not recognized!");
-            } //try
-        } while (!gameOver); //do while
+        if (batch != null) {
+            while (!gameOver && nextLine(batch)) {
+                Outcome outcome = playLine(batch);
+                if (outcome != null) {
+                    return outcome;
+                } //if
+            } //while
+            batch = null;
+        } //if
+        while (!gameOver) {
+            long time = metrics == null ? 0 : System.nanoTime();
+            printMineField();
+            if (metrics != null) {
+                metrics.record(GameMetrics.RENDER, time);
+            } //if
+            if (!promptUser()) {
+                return Outcome.UNFINISHED;
+            } //if
+            Outcome outcome = playLine(commands);
+            if (outcome != null) {
+                return outcome;
+            } //if
+        } //while
         this.score = 100.0 * rows * cols / rounds;
         if (isWon()) {
             printWin();
+            return Outcome.WON;
         } else {
             printLoss();
+            return Outcome.LOST;
         } //if else
-        System.exit(0);
+    } //method
+
+    /**
+     * Play the command that was just parsed by {@code parser} and then every other command on
+     * the same line, stopping early if the game ends. The board is not drawn in between.
+     * @param parser the parser holding the line.
+     * @return {@code QUIT} if the player quit, otherwise null.
+     * @throws IOException when the move log cannot be written.
+     */
+    private Outcome playLine(CommandParser parser) throws IOException {
+        do {
+            int opcode = parser.getOpcode();
+            loaded = false;
+            boolean playing = playCommand(opcode, parser.getRow(), parser.getCol(),
+                                          parser.getPath());
+            if (playing) {
+                rounds++;
+            } //if
+            if (moveLog != null) {
+                moveLog.record(this, opcode, parser.getRow(), parser.getCol(), loaded);
+            } //if
+            if (!playing) {
+                return Outcome.QUIT;
+            } //if
+            if (autosaver != null) {
+                checkAutosave();
+            } //if
+            if (metrics != null) {
+                metrics.checkDump(err);
+            } //if
+        } while (!gameOver && nextCommand(parser));
+        return null;
+    } //method
+
+    /**
+     * Play one command that was read back from a {@link MoveLog}, exactly as {@link #run()}
+     * played it, and work out the score if it ended the game. Nothing is printed and the save
+     * and load commands do nothing, so the game must have its file commands turned off; a load
+     * that worked is put back with {@link #restore(Snapshot)} instead.
+     * @param opcode the {@link CommandParser} opcode of the command.
+     * @param row the row given with the command.
+     * @param col the column given with the command.
+     */
+    void replay(int opcode, int row, int col) {
+        if (playCommand(opcode, row, col, null)) {
+            rounds++;
+        } //if
+        if (gameOver) {
+            this.score = 100.0 * rows * cols / rounds;
+        } //if
+    } //method
+
+    /**
+     * Play one command.
+     * @param opcode the {@link CommandParser} opcode of the command.
+     * @param row the row given with the command.
+     * @param col the column given with the command.
+     * @param path the path given with the save and load commands, or null.
+     * @return false if the command was quit, otherwise true.
+     */
+    private boolean playCommand(int opcode, int row, int col, String path) {
+        switch (opcode) {
+        case CommandParser.REVEAL:
+        case CommandParser.MARK:
+        case CommandParser.GUESS:
+        case CommandParser.CHORD:
+            if (!isInBounds(row, col)) {
+                notRecognized();
+                break;
+            } //if
+            if (viewHeight > 0 && (row < viewTop || row >= viewTop + viewHeight
+                                   || col < viewLeft || col >= viewLeft + viewWidth)) {
+                centerViewport(row, col);
+            } //if
+            if (opcode == CommandParser.REVEAL) {
+                revealSquare(row, col);
+            } else if (opcode == CommandParser.MARK) {
+                markSquare(row, col);
+            } else if (opcode == CommandParser.GUESS) {
+                guessSquare(row, col);
+            } else {
+                chordSquare(row, col);
+            } //if else
+            break;
+        case CommandParser.HELP:
+            out.println("\nCommands Available...\n" +
+                        " - Reveal: r/reveal row col\n" +
+                        " -   Mark: m/mark   row col\n" +
+                        " -  Guess: g/guess  row col\n" +
+                        " -  Chord: c/chord  row col\n" +
+                        (viewHeight > 0 ?
+                         " -    Pan: p/pan    rows cols\n" +
+                         " -   Goto: goto     row col\n" : "") +
+                        " -   Help: h/help\n" +
+                        " -   Save: save [path]\n" +
+                        " -   Load: load [path]\n" +
+                        " -   Quit: q/quit\n" +
+                        " Separate commands with ; to play them all before the board is drawn.");
+            break;
+        case CommandParser.SAVE:
+        case CommandParser.LOAD:
+            saveOrLoad(opcode == CommandParser.LOAD, path);
+            rounds--;
+            break;
+        case CommandParser.QUIT:
+            out.println("\nQuitting the game...\nBye!");
+            return false;
+        case CommandParser.NOFOG:
+            cheatCode = true;
+            break;
+        case CommandParser.PAN:
+        case CommandParser.GOTO:
+            if (viewHeight == 0 || (opcode == CommandParser.GOTO && !isInBounds(row, col))) {
+                notRecognized();
+            } else {
+                if (opcode == CommandParser.PAN) {
+                    moveViewport((long) viewTop + row, (long) viewLeft + col);
+                } else {
+                    centerViewport(row, col);
+                } //if else
+                rounds--;
+            } //if else
+            break;
+        default:
+            notRecognized();
+        } //switch
+        return true;
+    } //method
+
+    /**
+     * Move the viewport so that a square is as near its middle as the edges of the board allow.
+     * @param row the x value of the square.
+     * @param col the y value of the square.
+     */
+    private void centerViewport(int row, int col) {
+        moveViewport(row - (viewHeight / 2), col - (viewWidth / 2));
+    } //method
+
+    /**
+     * Move the top left corner of the viewport to a square, or as near to it as keeps the
+     * whole viewport on the board.
+     * @param top the x value of the square.
+     * @param left the y value of the square.
+     */
+    private void moveViewport(long top, long left) {
+        viewTop = (int) Math.max(0, Math.min(top, rows - viewHeight));
+        viewLeft = (int) Math.max(0, Math.min(left, cols - viewWidth));
+    } //method
+
+    /**
+     * Read the next line of a batch and parse its first command, recording the time it took
+     * if metrics are being collected.
+     * @param parser the parser of the batch.
+     * @return false if there are no more lines, otherwise true.
+     */
+    private boolean nextLine(CommandParser parser) {
+        if (metrics == null) {
+            return parser.next();
+        } //if
+        long time = System.nanoTime();
+        if (!parser.next()) {
+            return false;
+        } //if
+        metrics.record(GameMetrics.PARSE, time);
+        metrics.countCommand(parser.getOpcode());
+        return true;
+    } //method
+
+    /**
+     * Parse the next command on the current line, recording the time it took if metrics are
+     * being collected.
+     * @param parser the parser holding the line.
+     * @return false if the line has no more commands, otherwise true.
+     */
+    private boolean nextCommand(CommandParser parser) {
+        if (metrics == null) {
+            return parser.nextCommand();
+        } //if
+        long time = System.nanoTime();
+        if (!parser.nextCommand()) {
+            return false;
+        } //if
+        metrics.record(GameMetrics.PARSE, time);
+        metrics.countCommand(parser.getOpcode());
+        return true;
+    } //method
+
+    /**
+     * Tell the user the command was not recognized. The command does not count as a round.
+     */
+    private void notRecognized() {
+        err.println("\nInput Error: Command not recognized!");
+        rounds--;
+    } //method
+
+    /**
+     * Return the number of rounds completed so far.
+     * @return the number of rounds completed.
+     */
+    public int getRounds() {
+        return rounds;
+    } //method
+
+    /**
+     * Return the score of the game. The score is only set once the game has been won or lost,
+     * and is 0 before that.
+     * @return the score of the game.
+     */
+    public double getScore() {
+        return score;
     } //method
 } //class
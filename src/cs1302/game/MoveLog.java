@@ -0,0 +1,261 @@
+package cs1302.game;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * This class represents a MoveLog object. A {@code MoveLog} appends every command played by
+ * {@link MinesweeperGame#run()} to a compact binary file, so that a {@link LogReplayer} can
+ * later rebuild the game at any round and check that it ends the way it did.
+ *
+ * <p>
+ * The file starts with the four {@link #MAGIC} bytes, a version byte and the seed path, the
+ * rows and the columns. Records follow, each starting with one byte:
+ * <ul>
+ * <li>a {@link CommandParser} opcode. Reveal, mark, guess and chord are followed by the row and
+ * column, and load by a byte that is 1 if the game was loaded, in which case the rounds and the
+ * loaded squares follow. The other commands are a single byte.</li>
+ * <li>{@link #CHECKPOINT}: the rounds, the most rounds reached so far and every square.</li>
+ * <li>{@link #END}: how the game ended, the rounds, the score and a hash of every square.</li>
+ * </ul>
+ * Numbers are unsigned LEB128 varints, the score is a big endian {@code double}, and squares
+ * are packed four to a byte as in a {@link Snapshot}, so a move takes three bytes or so.
+ *
+ * <p>
+ * The first record is always a checkpoint of the game as it starts. After that a checkpoint
+ * is written once at least {@link #CHECKPOINT_EVENTS} commands and as many bytes as one
+ * checkpoint takes have been logged since the last one, so checkpoints never take more room
+ * than the moves and seeking never replays more than one stretch between them.
+ *
+ * <p>
+ * Records are gathered in a buffer that is written to the file when it fills up, or after the
+ * next command once a timer has gone off, the same way as autosave.
+ */
+public class MoveLog {
+    /** The first bytes of every move log. */
+    static final byte[] MAGIC = {'M', 'S', 'W', 'L'};
+    /** The version of the move log format. */
+    static final int VERSION = 1;
+    /** The first byte of a checkpoint record. */
+    static final int CHECKPOINT = 0x40;
+    /** The first byte of the record written when the game ends. */
+    static final int END = 0x41;
+    /** The fewest commands between two checkpoints. */
+    static final int CHECKPOINT_EVENTS = 4096;
+
+    private static final int BUFFER_SIZE = 1 << 16;
+
+    private FileChannel channel;
+    private ByteBuffer buffer;
+    private ScheduledExecutorService flusher;
+    private volatile boolean flushDue;
+    private int packedSize;
+    private long sinceCheckpoint;
+    private int eventsSinceCheckpoint;
+    private int peak;
+
+    /**
+     * Constructs a {@code MoveLog} that writes to {@code file}, replacing anything in it, and
+     * writes the buffer out every {@code seconds} seconds.
+     * @param file the move log file.
+     * @param seconds the time between writes.
+     * @throws IOException when the file cannot be opened.
+     */
+    public MoveLog(File file, int seconds) throws IOException {
+        this.channel = FileChannel.open(file.toPath(), StandardOpenOption.CREATE,
+                                        StandardOpenOption.WRITE,
+                                        StandardOpenOption.TRUNCATE_EXISTING);
+        this.buffer = ByteBuffer.allocate(BUFFER_SIZE);
+        this.flusher = Executors.newSingleThreadScheduledExecutor(task -> {
+            Thread thread = new Thread(task, "move log");
+            thread.setDaemon(true);
+            return thread;
+        });
+        flusher.scheduleAtFixedRate(() -> flushDue = true, seconds, seconds, TimeUnit.SECONDS);
+    } //Constructor
+
+    /**
+     * Write the header and a checkpoint of {@code game} as it is before the first command.
+     * @param game the game being logged.
+     * @throws IOException when the file cannot be written or the board has too many squares
+     * for a snapshot.
+     */
+    void start(MinesweeperGame game) throws IOException {
+        if (!Snapshot.fits(game.getRows(), game.getCols())) {
+            throw new IOException("board too large to snapshot");
+        } //if
+        Snapshot snapshot = game.snapshot();
+        byte[] seed = snapshot.getSeed().getBytes(StandardCharsets.UTF_8);
+        buffer.put(MAGIC);
+        buffer.put((byte) VERSION);
+        putVarint(seed.length);
+        putBytes(seed);
+        putVarint(snapshot.getRows());
+        putVarint(snapshot.getCols());
+        packedSize = (snapshot.getSquares().length + 3) / 4;
+        peak = snapshot.getRounds();
+        checkpoint(snapshot);
+    } //method
+
+    /**
+     * Append a command that has just been played.
+     * @param game the game being logged.
+     * @param opcode the {@link CommandParser} opcode of the command.
+     * @param row the row given with the command.
+     * @param col the column given with the command.
+     * @param loaded true if the command loaded a snapshot.
+     * @throws IOException when the file cannot be written.
+     */
+    void record(MinesweeperGame game, int opcode, int row, int col, boolean loaded)
+        throws IOException {
+        putByte(opcode);
+        if (opcode == CommandParser.REVEAL || opcode == CommandParser.MARK
+            || opcode == CommandParser.GUESS || opcode == CommandParser.CHORD) {
+            putVarint(row);
+            putVarint(col);
+        } else if (opcode == CommandParser.LOAD) {
+            putByte(loaded ? 1 : 0);
+            if (loaded) {
+                Snapshot snapshot = game.snapshot();
+                putVarint(snapshot.getRounds());
+                putBytes(Snapshot.pack(snapshot.getSquares()));
+            } //if
+        } //if else
+        eventsSinceCheckpoint++;
+        peak = Math.max(peak, game.getRounds());
+        if (eventsSinceCheckpoint >= CHECKPOINT_EVENTS && sinceCheckpoint >= packedSize
+            && !game.isGameOver() && opcode != CommandParser.QUIT) {
+            checkpoint(game.snapshot());
+        } //if
+        if (flushDue) {
+            flushDue = false;
+            flush();
+        } //if
+    } //method
+
+    /**
+     * Append the end record, write out everything left in the buffer and close the file.
+     * @param game the game being logged.
+     * @param outcome how the game ended.
+     * @throws IOException when the file cannot be written.
+     */
+    void finish(MinesweeperGame game, MinesweeperGame.Outcome outcome) throws IOException {
+        flusher.shutdownNow();
+        try {
+            putByte(END);
+            putByte(outcome.ordinal());
+            putVarint(game.getRounds());
+            reserve(Double.BYTES);
+            buffer.putDouble(game.getScore());
+            reserve(Long.BYTES);
+            buffer.putLong(hash(game.snapshot().getSquares()));
+            flush();
+        } finally {
+            channel.close();
+        } //try
+    } //method
+
+    /**
+     * Return a 64 bit FNV-1a hash of what is shown on every square, which the end record keeps
+     * in place of the whole board.
+     * @param squares what is shown on each square.
+     * @return the hash.
+     */
+    static long hash(byte[] squares) {
+        long hash = 0xcbf29ce484222325L;
+        for (int i = 0; i < squares.length; i++) {
+            hash = (hash ^ squares[i]) * 0x100000001b3L;
+        } //for
+        return hash;
+    } //method
+
+    /**
+     * Append a checkpoint record of {@code snapshot}.
+     * @param snapshot the game as it is now.
+     * @throws IOException when the file cannot be written.
+     */
+    private void checkpoint(Snapshot snapshot) throws IOException {
+        putByte(CHECKPOINT);
+        putVarint(snapshot.getRounds());
+        putVarint(peak);
+        putBytes(Snapshot.pack(snapshot.getSquares()));
+        sinceCheckpoint = 0;
+        eventsSinceCheckpoint = 0;
+    } //method
+
+    /**
+     * Write everything in the buffer to the file.
+     * @throws IOException when the file cannot be written.
+     */
+    private void flush() throws IOException {
+        buffer.flip();
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        } //while
+        buffer.clear();
+    } //method
+
+    /**
+     * Make room for {@code bytes} more bytes in the buffer, writing it out if needed.
+     * @param bytes the number of bytes, at most the size of the buffer.
+     * @throws IOException when the file cannot be written.
+     */
+    private void reserve(int bytes) throws IOException {
+        if (buffer.remaining() < bytes) {
+            flush();
+        } //if
+        sinceCheckpoint += bytes;
+    } //method
+
+    /**
+     * Append one byte.
+     * @param value the byte.
+     * @throws IOException when the file cannot be written.
+     */
+    private void putByte(int value) throws IOException {
+        reserve(1);
+        buffer.put((byte) value);
+    } //method
+
+    /**
+     * Append an unsigned LEB128 varint.
+     * @param value a number that is not negative.
+     * @throws IOException when the file cannot be written.
+     */
+    private void putVarint(int value) throws IOException {
+        reserve(5);
+        sinceCheckpoint -= 5;
+        while (value >= 0x80) {
+            buffer.put((byte) ((value & 0x7F) | 0x80));
+            value >>>= 7;
+            sinceCheckpoint++;
+        } //while
+        buffer.put((byte) value);
+        sinceCheckpoint++;
+    } //method
+
+    /**
+     * Append {@code bytes}, however many there are.
+     * @param bytes the bytes.
+     * @throws IOException when the file cannot be written.
+     */
+    private void putBytes(byte[] bytes) throws IOException {
+        int offset = 0;
+        while (offset < bytes.length) {
+            if (!buffer.hasRemaining()) {
+                flush();
+            } //if
+            int length = Math.min(buffer.remaining(), bytes.length - offset);
+            buffer.put(bytes, offset, length);
+            offset += length;
+        } //while
+        sinceCheckpoint += bytes.length;
+    } //method
+} //class
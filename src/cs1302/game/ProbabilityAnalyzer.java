@@ -0,0 +1,922 @@
+package cs1302.game;
+
+import cs1302.game.BoardRenderer;
+import cs1302.game.MinesweeperGame;
+import java.io.PrintStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+
+/**
+ * This class represents a ProbabilityAnalyzer object. A {@code ProbabilityAnalyzer} works out
+ * the chance that each unrevealed square of a {@link MinesweeperGame} holds a mine, using only
+ * what a player can see: the revealed numbers and the total number of mines. Marks are not
+ * trusted, so a marked square is just another unrevealed square.
+ *
+ * <p>
+ * The unrevealed squares next to a revealed number form the frontier, which falls apart into
+ * components that share no number. Each component is counted exactly: its squares are taken
+ * one at a time, and a dynamic program keeps, for every way the numbers still being filled in
+ * can stand, the number of mine layouts so far by how many mines they use. Layouts that end the
+ * same way are merged, which is what keeps long frontiers cheap. Components with the same shape
+ * and numbers give the same answer, so each shape is counted once. The components are then
+ * joined through the total number of mines, by a tree of convolutions, since how likely a
+ * component is to hold {@code k} mines depends on how many are left for everything else.
+ * Squares away from the frontier all share one chance.
+ *
+ * <p>
+ * The components are independent, so they are counted at the same time on a
+ * {@code ForkJoinPool}, and the tree is split across it as well.
+ */
+public class ProbabilityAnalyzer {
+    private static final String NO_LAYOUT = "No layout of the mines fits the revealed squares.";
+    private static final String TOO_WIDE = "A frontier is too tangled to count exactly.";
+    private static final int MAX_ATTEMPTS = 8;
+    private static final double FLOOR = 1e-12;
+    private static final double NEGLIGIBLE = 1e-40;
+    private static final int MAX_STATES = 1 << 16;
+    private static final long CHECKPOINT_BUDGET = 1 << 22;
+
+    private MinesweeperGame game;
+    private int threads;
+    private int rows;
+    private int cols;
+    private double[] probability;
+    private int unrevealed;
+    private int frontier;
+    private int numComponents;
+    private int numDistinct;
+    private double interior;
+    private long nanos;
+
+    /**
+     * Constructs a {@code ProbabilityAnalyzer} for the board of {@code game} as it is now.
+     * @param game the game to analyze.
+     * @param threads the number of threads to count components on.
+     */
+    public ProbabilityAnalyzer(MinesweeperGame game, int threads) {
+        this.game = game;
+        this.threads = threads;
+        this.rows = game.getRows();
+        this.cols = game.getCols();
+    } //Constructor
+
+    /**
+     * Work out the chance of a mine on every square.
+     * @return the chance for every square, indexed by {@code row * cols + col}, or -1 for a
+     * square that has been revealed.
+     * @throws IllegalArgumentException when the board has more than 2^31 - 1 squares.
+     * @throws IllegalStateException when no layout of the mines fits the revealed numbers.
+     */
+    public double[] analyze() {
+        if ((long) rows * cols > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException();
+        } //if
+        long start = System.nanoTime();
+        int squares = rows * cols;
+        this.probability = new double[squares];
+        int[] frontierId = new int[squares];
+        Arrays.fill(frontierId, -1);
+        int knownMines = 0;
+        this.unrevealed = 0;
+        this.frontier = 0;
+        List<int[]> members = new ArrayList<>();
+        List<Integer> needs = new ArrayList<>();
+        for (int row = 0; row < rows; row++) {
+            for (int col = 0; col < cols; col++) {
+                int cell = (row * cols) + col;
+                if (game.getSquare(row, col) != MinesweeperGame.REVEALED) {
+                    unrevealed++;
+                    continue;
+                } //if
+                probability[cell] = -1;
+                if (game.isMine(row, col)) {
+                    knownMines++;
+                    continue;
+                } //if
+                int need = game.getNumAdjMines(row, col);
+                int[] around = new int[8];
+                int count = 0;
+                for (int x = Math.max(0, row - 1); x <= Math.min(rows - 1, row + 1); x++) {
+                    for (int y = Math.max(0, col - 1); y <= Math.min(cols - 1, col + 1); y++) {
+                        if (game.getSquare(x, y) != MinesweeperGame.REVEALED) {
+                            around[count++] = (x * cols) + y;
+                        } else if (game.isMine(x, y)) {
+                            need--;
+                        } //if else
+                    } //for
+                } //for
+                if (count == 0) {
+                    continue;
+                } //if
+                for (int i = 0; i < count; i++) {
+                    if (frontierId[around[i]] < 0) {
+                        frontierId[around[i]] = frontier++;
+                    } //if
+                } //for
+                members.add(Arrays.copyOf(around, count));
+                needs.add(need);
+            } //for
+        } //for
+
+        List<Component> leaves = components(frontierId, members, needs);
+        Map<String, Component> distinct = new HashMap<>();
+        List<Component> solved = new ArrayList<>();
+        for (int i = 0; i < leaves.size(); i++) {
+            Component known = distinct.putIfAbsent(leaves.get(i).signature, leaves.get(i));
+            if (known == null) {
+                solved.add(leaves.get(i));
+            } else {
+                leaves.get(i).same = known;
+            } //if else
+        } //for
+        this.numComponents = leaves.size();
+        this.numDistinct = solved.size();
+        solved.sort((a, b) -> b.cells.length - a.cells.length);
+
+        ForkJoinPool pool = new ForkJoinPool(threads);
+        try {
+            List<ForkJoinTask<?>> steps = new ArrayList<>();
+            for (Component component : solved) {
+                steps.add(ForkJoinTask.adapt(component::steps));
+            } //for
+            pool.invoke(ForkJoinTask.adapt(() -> ForkJoinTask.invokeAll(steps)));
+            int remaining = game.getNumberOfMines() - knownMines;
+            int away = unrevealed - frontier;
+            double tilt = clamp((remaining + 0.5) / (unrevealed - remaining + 0.5));
+            for (int attempt = 0; true; attempt++) {
+                double odds = tilt;
+                List<ForkJoinTask<?>> count = new ArrayList<>();
+                for (Component component : solved) {
+                    count.add(ForkJoinTask.adapt(() -> component.count(odds)));
+                } //for
+                pool.invoke(ForkJoinTask.adapt(() -> ForkJoinTask.invokeAll(count)));
+                for (Component leaf : leaves) {
+                    if (leaf.same != null) {
+                        leaf.weight = leaf.same.weight;
+                    } //if
+                } //for
+                tilt = pool.invoke(ForkJoinTask.adapt(() -> spread(leaves, remaining, away,
+                                                                   odds)));
+                if (tilt == odds) {
+                    break;
+                } //if
+                if (attempt == MAX_ATTEMPTS) {
+                    throw new IllegalStateException(NO_LAYOUT);
+                } //if
+            } //for
+            List<ForkJoinTask<?>> backward = new ArrayList<>();
+            for (Component component : solved) {
+                backward.add(ForkJoinTask.adapt(component::backward));
+            } //for
+            pool.invoke(ForkJoinTask.adapt(() -> ForkJoinTask.invokeAll(backward)));
+        } catch (IllegalStateException ise) {
+            // A task's exception comes back wrapped in a copy; pass on the original.
+            throw ise.getCause() instanceof IllegalStateException
+                ? (IllegalStateException) ise.getCause() : ise;
+        } finally {
+            pool.shutdown();
+        } //try
+
+        for (Component leaf : leaves) {
+            Component answer = leaf.same == null ? leaf : leaf.same;
+            for (int i = 0; i < leaf.cells.length; i++) {
+                probability[leaf.cells[i]] = answer.probability[i];
+            } //for
+        } //for
+        for (int cell = 0; cell < squares; cell++) {
+            if (probability[cell] == 0 && frontierId[cell] < 0) {
+                probability[cell] = interior;
+            } //if
+        } //for
+        this.nanos = System.nanoTime() - start;
+        return probability;
+    } //method
+
+    /**
+     * Split the frontier into components joined by the numbers around them, with a union-find
+     * over the frontier squares.
+     * @param frontierId the number of each frontier square, -1 for the others.
+     * @param members the unrevealed squares around each revealed number.
+     * @param needs the mines still needed around each revealed number.
+     * @return the components.
+     */
+    private List<Component> components(int[] frontierId, List<int[]> members,
+                                       List<Integer> needs) {
+        int[] parent = new int[frontier];
+        for (int i = 0; i < frontier; i++) {
+            parent[i] = i;
+        } //for
+        for (int[] around : members) {
+            int root = find(parent, frontierId[around[0]]);
+            for (int i = 1; i < around.length; i++) {
+                int other = find(parent, frontierId[around[i]]);
+                parent[other] = root;
+            } //for
+        } //for
+        Map<Integer, List<Integer>> byRoot = new HashMap<>();
+        List<List<Integer>> groups = new ArrayList<>();
+        for (int i = 0; i < members.size(); i++) {
+            int root = find(parent, frontierId[members.get(i)[0]]);
+            List<Integer> group = byRoot.get(root);
+            if (group == null) {
+                group = new ArrayList<>();
+                byRoot.put(root, group);
+                groups.add(group);
+            } //if
+            group.add(i);
+        } //for
+        List<Component> leaves = new ArrayList<>();
+        for (List<Integer> group : groups) {
+            int[][] around = new int[group.size()][];
+            int[] need = new int[group.size()];
+            for (int i = 0; i < group.size(); i++) {
+                around[i] = members.get(group.get(i));
+                need[i] = needs.get(group.get(i));
+            } //for
+            leaves.add(new Component(around, need));
+        } //for
+        return leaves;
+    } //method
+
+    /**
+     * Find the root of a frontier square in the union-find, halving the path on the way.
+     * @param parent the union-find.
+     * @param i the frontier square.
+     * @return the root.
+     */
+    private static int find(int[] parent, int i) {
+        while (parent[i] != i) {
+            parent[i] = parent[parent[i]];
+            i = parent[i];
+        } //while
+        return parent[i];
+    } //method
+
+    /**
+     * Join the components through the total number of mines. Every component gets, for each
+     * number of mines it could hold, how many ways there are to place the rest of the mines
+     * in the other components and away from the frontier.
+     *
+     * <p>
+     * The counts of a large frontier span far more than a {@code double} can hold, so every
+     * layout has been weighted by {@code tilt} to the power of its mines, and the ways to place
+     * the rest by the inverse, which changes nothing in the end. With a good tilt both sides
+     * peak near the number of frontier mines that matters, and what falls off the ends is too
+     * small to count. If they do not meet, a better tilt is returned to count again with.
+     * @param leaves every component, with its counts by number of mines.
+     * @param remaining the number of mines that are not revealed.
+     * @param away the number of unrevealed squares away from the frontier.
+     * @param tilt the weight of one mine in the counts.
+     * @return {@code tilt} if the weights were handed to the components, otherwise the tilt
+     * to try next.
+     * @throws IllegalStateException when no layout of the mines fits.
+     */
+    private double spread(List<Component> leaves, int remaining, int away, double tilt) {
+        Node root = leaves.isEmpty() ? null : build(leaves, 0, leaves.size());
+        double[] total = root == null ? new double[] {1} : root.product;
+        int first = root == null ? 0 : root.offset;
+        int last = first + total.length - 1;
+        int low = Math.max(0, remaining - last);
+        int high = Math.min(away, remaining - first);
+        if (low > high) {
+            throw new IllegalStateException(NO_LAYOUT);
+        } //if
+        double[] logWays = new double[total.length];
+        Arrays.fill(logWays, Double.NEGATIVE_INFINITY);
+        double log = 0;
+        for (int j = 1; j <= low; j++) {
+            log += Math.log((double) (away - j + 1) / j);
+        } //for
+        double best = Double.NEGATIVE_INFINITY;
+        for (int m = low; m <= high; m++) {
+            if (m > low) {
+                log += Math.log((double) (away - m + 1) / m);
+            } //if
+            int t = remaining - m;
+            logWays[t - first] = log - (t * Math.log(tilt));
+            best = Math.max(best, logWays[t - first]);
+        } //for
+        double[] ways = new double[total.length];
+        double all = 0;
+        double mines = 0;
+        int peak = -1;
+        int peakTotal = 0;
+        int peakWays = 0;
+        for (int i = 0; i < total.length; i++) {
+            if (logWays[i] > Double.NEGATIVE_INFINITY) {
+                ways[i] = Math.exp(logWays[i] - best);
+            } //if
+            double both = total[i] * ways[i];
+            if (both > 0 && (peak < 0 || both > total[peak] * ways[peak])) {
+                peak = i;
+            } //if
+            peakTotal = total[i] > total[peakTotal] ? i : peakTotal;
+            peakWays = ways[i] > ways[peakWays] ? i : peakWays;
+            all += both;
+            mines += both * (away == 0 ? 0 : (double) (remaining - first - i) / away);
+        } //for
+        if (peak >= 0 && total[peak] > FLOOR && ways[peak] > FLOOR) {
+            this.interior = mines / all;
+            if (root != null) {
+                push(root, ways);
+            } //if
+            return tilt;
+        } //if
+        int target = first + (peak >= 0 ? peak : (peakTotal + peakWays) / 2);
+        if (away == 0) {
+            // Only one number of frontier mines is possible: move the peak of the counts there.
+            int most = 0;
+            for (Component leaf : leaves) {
+                most += leaf.cells.length;
+            } //for
+            int now = first + peakTotal;
+            return clamp(tilt * ((remaining + 0.5) / (most - remaining + 0.5))
+                         / ((now + 0.5) / (most - now + 0.5)));
+        } //if
+        return clamp((remaining - target + 0.5) / (away - remaining + target + 0.5));
+    } //method
+
+    /**
+     * Keep a tilt within a range where its powers stay usable.
+     * @param tilt the tilt.
+     * @return the tilt, no smaller than 1e-9 and no larger than 1e9.
+     */
+    private static double clamp(double tilt) {
+        return Math.max(1e-9, Math.min(1e9, tilt));
+    } //method
+
+    /**
+     * Multiply the counts of a range of components together, each half on its own task.
+     * Only the stretch of each product that is not negligible next to its largest value is
+     * kept, which with a good tilt is a narrow band around its peak however many components
+     * there are.
+     * @param leaves every component.
+     * @param lo the first component of the range.
+     * @param hi one past the last component of the range.
+     * @return the node for the range.
+     */
+    private static Node build(List<Component> leaves, int lo, int hi) {
+        Node node = new Node();
+        if (hi - lo == 1) {
+            node.leaf = leaves.get(lo);
+            keep(node, node.leaf.weight.clone(), 0);
+            return node;
+        } //if
+        int mid = (lo + hi) >>> 1;
+        ForkJoinTask<Node> left = ForkJoinTask.adapt(() -> build(leaves, lo, mid));
+        ForkJoinTask<Node> right = ForkJoinTask.adapt(() -> build(leaves, mid, hi));
+        ForkJoinTask.invokeAll(left, right);
+        node.left = left.join();
+        node.right = right.join();
+        double[] a = node.left.product;
+        double[] b = node.right.product;
+        double[] product = new double[a.length + b.length - 1];
+        for (int i = 0; i < a.length; i++) {
+            if (a[i] != 0) {
+                for (int j = 0; j < b.length; j++) {
+                    product[i + j] += a[i] * b[j];
+                } //for
+            } //if
+        } //for
+        keep(node, product, node.left.offset + node.right.offset);
+        return node;
+    } //method
+
+    /**
+     * Store the counts of a node without the ends that are negligible.
+     * @param node the node.
+     * @param product the counts by number of mines, starting at {@code offset} mines.
+     * @param offset the number of mines of the first count.
+     */
+    private static void keep(Node node, double[] product, int offset) {
+        normalize(product);
+        int lo = 0;
+        int hi = product.length;
+        while (lo < hi - 1 && product[lo] < NEGLIGIBLE) {
+            lo++;
+        } //while
+        while (hi - 1 > lo && product[hi - 1] < NEGLIGIBLE) {
+            hi--;
+        } //while
+        node.product = lo == 0 && hi == product.length ? product
+            : Arrays.copyOfRange(product, lo, hi);
+        node.offset = offset + lo;
+    } //method
+
+    /**
+     * Hand the weight of each number of mines down the tree. A node's weights say how many
+     * ways the mines outside its range can be placed when its range holds {@code k} mines;
+     * each child gets them combined with the counts of its sibling.
+     * @param node the node.
+     * @param ways the weights of the node, over the same numbers of mines as its counts.
+     */
+    private static void push(Node node, double[] ways) {
+        if (node.leaf != null) {
+            if (node.leaf.same == null) {
+                node.leaf.ways = ways;
+                node.leaf.waysOffset = node.offset;
+            } //if
+            return;
+        } //if
+        ForkJoinTask.invokeAll(
+            ForkJoinTask.adapt(() -> push(node.left, through(ways, node, node.right,
+                                                             node.left))),
+            ForkJoinTask.adapt(() -> push(node.right, through(ways, node, node.left,
+                                                              node.right))));
+    } //method
+
+    /**
+     * Work out a child's weights from its parent's and its sibling's counts.
+     * @param ways the parent's weights.
+     * @param parent the parent.
+     * @param sibling the sibling.
+     * @param child the child.
+     * @return the child's weights.
+     */
+    private static double[] through(double[] ways, Node parent, Node sibling, Node child) {
+        double[] counts = sibling.product;
+        double[] weights = new double[child.product.length];
+        for (int k = 0; k < weights.length; k++) {
+            int start = child.offset + k + sibling.offset - parent.offset;
+            double sum = 0;
+            for (int j = Math.max(0, -start); j < counts.length && start + j < ways.length; j++) {
+                sum += ways[start + j] * counts[j];
+            } //for
+            weights[k] = sum;
+        } //for
+        return normalize(weights);
+    } //method
+
+    /**
+     * Scale an array so that its largest value is 1, which keeps large counts from
+     * overflowing. Only ratios between the values are ever used.
+     * @param values the array to scale in place.
+     * @return the array.
+     */
+    private static double[] normalize(double[] values) {
+        double max = 0;
+        for (int i = 0; i < values.length; i++) {
+            max = Math.max(max, values[i]);
+        } //for
+        if (max > 0 && max != 1) {
+            for (int i = 0; i < values.length; i++) {
+                values[i] /= max;
+            } //for
+        } //if
+        return values;
+    } //method
+
+    /**
+     * Scale every row of a table so that its largest value is 1.
+     * @param table the table to scale in place.
+     * @return the table.
+     */
+    private static double[][] normalize(double[][] table) {
+        double max = 0;
+        for (int s = 0; s < table.length; s++) {
+            for (int a = 0; a < table[s].length; a++) {
+                max = Math.max(max, table[s][a]);
+            } //for
+        } //for
+        if (max > 0 && max != 1) {
+            for (int s = 0; s < table.length; s++) {
+                for (int a = 0; a < table[s].length; a++) {
+                    table[s][a] /= max;
+                } //for
+            } //for
+        } //if
+        return table;
+    } //method
+
+    /**
+     * Analyze the board and draw it with every unrevealed square replaced by its chance of a
+     * mine, followed by a legend and a summary.
+     * @param out where the heatmap is drawn.
+     */
+    public void report(PrintStream out) {
+        analyze();
+        BoardRenderer renderer = new BoardRenderer(game, rows, cols, out, false);
+        renderer.showHeat(probability);
+        renderer.render(game.getRounds(), false);
+        out.println("\n Legend: S no mine, M mine, " + BoardRenderer.HEAT.charAt(0)
+                    + " under " + (100 / BoardRenderer.HEAT.length()) + "% ... "
+                    + BoardRenderer.HEAT.charAt(BoardRenderer.HEAT.length() - 1) + " over "
+                    + (100 - (100 / BoardRenderer.HEAT.length())) + "%");
+        int safest = -1;
+        int safe = 0;
+        int mines = 0;
+        for (int cell = 0; cell < probability.length; cell++) {
+            if (probability[cell] < 0) {
+                continue;
+            } //if
+            safe += probability[cell] == 0 ? 1 : 0;
+            mines += probability[cell] == 1 ? 1 : 0;
+            if (safest < 0 || probability[cell] < probability[safest]) {
+                safest = cell;
+            } //if
+        } //for
+        out.printf(" Unrevealed: %d, on the frontier: %d in %d components (%d distinct)%n",
+                   unrevealed, frontier, numComponents, numDistinct);
+        out.printf(" Certain: %d without a mine, %d with one; away from the frontier: %.2f%%%n",
+                   safe, mines, 100 * interior);
+        if (safest >= 0) {
+            out.printf(" Safest square: %d %d, %.2f%% chance of a mine%n", safest / cols,
+                       safest % cols, 100 * probability[safest]);
+        } //if
+        out.printf(" Threads: %d, time: %.3f ms%n", threads, nanos / 1e6);
+    } //method
+
+    /**
+     * Return the number of components in the last analysis.
+     * @return the number of components.
+     */
+    public int getComponents() {
+        return numComponents;
+    } //method
+
+    /**
+     * Return the number of components with a shape of their own in the last analysis; the
+     * rest were answered from one of these.
+     * @return the number of distinct components.
+     */
+    public int getDistinctComponents() {
+        return numDistinct;
+    } //method
+
+    /**
+     * Return the number of unrevealed squares next to a revealed number in the last analysis.
+     * @return the size of the frontier.
+     */
+    public int getFrontier() {
+        return frontier;
+    } //method
+
+    /**
+     * One node of the tree that joins the components.
+     */
+    private static class Node {
+        private Node left;
+        private Node right;
+        private Component leaf;
+        private double[] product;
+        private int offset;
+    } //class
+
+    /**
+     * One component of the frontier: its squares, in the order they are counted, and the
+     * numbers around them.
+     */
+    private static class Component {
+        private int[] cells;
+        private String signature;
+        private Component same;
+        private int[] need;
+        private int[][] cellConstraints;
+        private int[][] remainingAfter;
+        private int[][] open;
+        private int[][] nextSafe;
+        private int[][] nextMine;
+        private double tilt;
+        private List<Integer> marks;
+        private List<double[][]> checkpoints;
+        private double[] weight;
+        private double[] ways;
+        private int waysOffset;
+        private double[] probability;
+
+        /**
+         * Constructs a {@code Component} from the numbers that touch it. The squares are put
+         * in breadth first order, starting from the first one on the board, so that each
+         * number is only being filled in for a short stretch. The signature describes the
+         * numbers in that order, so two components with the same signature have the same
+         * answer.
+         * @param around the unrevealed squares around each number.
+         * @param needs the mines still needed around each number.
+         */
+        Component(int[][] around, int[] needs) {
+            Map<Integer, List<Integer>> touching = new HashMap<>();
+            int start = Integer.MAX_VALUE;
+            for (int c = 0; c < around.length; c++) {
+                for (int cell : around[c]) {
+                    touching.computeIfAbsent(cell, key -> new ArrayList<>()).add(c);
+                    start = Math.min(start, cell);
+                } //for
+            } //for
+            this.cells = new int[touching.size()];
+            Map<Integer, Integer> local = new HashMap<>();
+            local.put(start, 0);
+            cells[0] = start;
+            int size = 1;
+            for (int head = 0; head < size; head++) {
+                for (int c : touching.get(cells[head])) {
+                    int[] sorted = around[c].clone();
+                    Arrays.sort(sorted);
+                    for (int cell : sorted) {
+                        if (!local.containsKey(cell)) {
+                            local.put(cell, size);
+                            cells[size++] = cell;
+                        } //if
+                    } //for
+                } //for
+            } //for
+
+            int[][] positions = new int[around.length][];
+            Integer[] byFirst = new Integer[around.length];
+            for (int c = 0; c < around.length; c++) {
+                positions[c] = new int[around[c].length];
+                for (int i = 0; i < around[c].length; i++) {
+                    positions[c][i] = local.get(around[c][i]);
+                } //for
+                Arrays.sort(positions[c]);
+                byFirst[c] = c;
+            } //for
+            Arrays.sort(byFirst, (a, b) -> {
+                int order = Arrays.compare(positions[a], positions[b]);
+                return order != 0 ? order : needs[a] - needs[b];
+            });
+            this.need = new int[around.length];
+            int[][] members = new int[around.length][];
+            StringBuilder key = new StringBuilder().append(cells.length);
+            for (int c = 0; c < around.length; c++) {
+                members[c] = positions[byFirst[c]];
+                need[c] = needs[byFirst[c]];
+                key.append('|').append(need[c]);
+                for (int position : members[c]) {
+                    key.append(',').append(position);
+                } //for
+            } //for
+            this.signature = key.toString();
+            layout(members);
+        } //Constructor
+
+        /**
+         * Work out, for every step of the count, which numbers are being filled in, and which
+         * numbers each square touches.
+         * @param members the positions of the squares around each number, sorted.
+         */
+        private void layout(int[][] members) {
+            int n = cells.length;
+            int[] first = new int[need.length];
+            int[] last = new int[need.length];
+            List<List<Integer>> byCell = new ArrayList<>();
+            for (int i = 0; i < n; i++) {
+                byCell.add(new ArrayList<>());
+            } //for
+            for (int c = 0; c < need.length; c++) {
+                first[c] = members[c][0];
+                last[c] = members[c][members[c].length - 1];
+                for (int position : members[c]) {
+                    byCell.get(position).add(c);
+                } //for
+            } //for
+            this.cellConstraints = new int[n][];
+            for (int i = 0; i < n; i++) {
+                cellConstraints[i] = byCell.get(i).stream().mapToInt(Integer::intValue).toArray();
+            } //for
+            this.open = new int[n + 1][];
+            List<Integer> current = new ArrayList<>();
+            open[0] = new int[0];
+            for (int i = 0; i < n; i++) {
+                for (int c : cellConstraints[i]) {
+                    if (first[c] == i && last[c] > i) {
+                        current.add(c);
+                    } else if (last[c] == i && first[c] < i) {
+                        current.remove(Integer.valueOf(c));
+                    } //if else
+                } //for
+                current.sort(null);
+                open[i + 1] = current.stream().mapToInt(Integer::intValue).toArray();
+            } //for
+            this.remainingAfter = new int[n][];
+            for (int i = 0; i < n; i++) {
+                remainingAfter[i] = new int[cellConstraints[i].length];
+                for (int j = 0; j < cellConstraints[i].length; j++) {
+                    int c = cellConstraints[i][j];
+                    int after = 0;
+                    for (int position : members[c]) {
+                        after += position > i ? 1 : 0;
+                    } //for
+                    remainingAfter[i][j] = after;
+                } //for
+            } //for
+        } //method
+
+        /**
+         * Work out the states of every step of the count. Each state of a step is the number
+         * of mines placed so far around every number still being filled in. Each square leads
+         * every state to at most two states of the next step, one for each choice, and those
+         * links are all the counting needs.
+         * @throws IllegalStateException when a step has too many states to count.
+         */
+        void steps() {
+            int n = cells.length;
+            this.nextSafe = new int[n][];
+            this.nextMine = new int[n][];
+            List<long[]> states = new ArrayList<>();
+            states.add(new long[0]);
+            for (int i = 0; i < n; i++) {
+                Map<Profile, Integer> index = new HashMap<>();
+                List<long[]> next = new ArrayList<>();
+                nextSafe[i] = new int[states.size()];
+                nextMine[i] = new int[states.size()];
+                for (int s = 0; s < states.size(); s++) {
+                    nextSafe[i][s] = follow(states.get(s), i, 0, index, next);
+                    nextMine[i][s] = follow(states.get(s), i, 1, index, next);
+                } //for
+                if (next.size() > MAX_STATES) {
+                    throw new IllegalStateException(TOO_WIDE);
+                } //if
+                states = next;
+            } //for
+            if (states.size() != 1) {
+                throw new IllegalStateException(NO_LAYOUT);
+            } //if
+        } //method
+
+        /**
+         * Count the layouts of the component, one square at a time, keeping for every state
+         * the number of layouts that reach it by how many mines they use, each weighted by
+         * {@code tilt} to the power of its mines. The counts are only kept at checkpoints,
+         * spaced so that the steps between two checkpoints fit in a fixed budget, and worked
+         * out again from there when they are needed.
+         * @param odds the weight of one mine.
+         */
+        void count(double odds) {
+            int n = cells.length;
+            this.tilt = odds;
+            this.marks = new ArrayList<>();
+            this.checkpoints = new ArrayList<>();
+            double[][] counts = {{1}};
+            long since = 0;
+            for (int i = 0; i < n; i++) {
+                long size = (long) counts.length * (i + 1);
+                if (i == 0 || since + size > CHECKPOINT_BUDGET) {
+                    marks.add(i);
+                    checkpoints.add(counts);
+                    since = 0;
+                } //if
+                since += size;
+                counts = step(counts, i, i + 1 < n ? nextSafe[i + 1].length : 1);
+            } //for
+            this.weight = counts[0];
+        } //method
+
+        /**
+         * Find the state a square leads to when it does or does not hold a mine.
+         * @param state the state before the square, four bits per number being filled in.
+         * @param i the position of the square.
+         * @param mine 1 if the square holds a mine, 0 if not.
+         * @param index the states of the next step found so far.
+         * @param next the states of the next step, in the order they were found.
+         * @return the number of the next state, or -1 if a number cannot be satisfied.
+         */
+        private int follow(long[] state, int i, int mine, Map<Profile, Integer> index,
+                           List<long[]> next) {
+            int[] before = open[i];
+            int[] after = open[i + 1];
+            long[] words = new long[(after.length + 15) / 16];
+            for (int j = 0; j < cellConstraints[i].length; j++) {
+                int c = cellConstraints[i][j];
+                int slot = Arrays.binarySearch(before, c);
+                int placed = (slot >= 0 ? get(state, slot) : 0) + mine;
+                if (placed > need[c] || placed + remainingAfter[i][j] < need[c]) {
+                    return -1;
+                } //if
+            } //for
+            int j = 0;
+            for (int slot = 0; slot < after.length; slot++) {
+                int c = after[slot];
+                while (j < before.length && before[j] < c) {
+                    j++;
+                } //while
+                int placed = j < before.length && before[j] == c ? get(state, j) : 0;
+                if (Arrays.binarySearch(cellConstraints[i], c) >= 0) {
+                    placed += mine;
+                } //if
+                words[slot >> 4] |= (long) placed << ((slot & 15) * 4);
+            } //for
+            Profile profile = new Profile(words);
+            Integer found = index.get(profile);
+            if (found != null) {
+                return found;
+            } //if
+            index.put(profile, next.size());
+            next.add(words);
+            return next.size() - 1;
+        } //method
+
+        /**
+         * Read the mines placed around the number in one slot of a state.
+         * @param state the state.
+         * @param slot the slot.
+         * @return the number of mines.
+         */
+        private static int get(long[] state, int slot) {
+            return (int) ((state[slot >> 4] >>> ((slot & 15) * 4)) & 15);
+        } //method
+
+        /**
+         * Carry the counts of one step over a square to the next step.
+         * @param counts the counts of each state by number of mines, before square {@code i}.
+         * @param i the position of the square.
+         * @param states the number of states after the square.
+         * @return the counts after the square, scaled so the largest is 1.
+         */
+        private double[][] step(double[][] counts, int i, int states) {
+            double[][] next = new double[states][i + 2];
+            for (int s = 0; s < counts.length; s++) {
+                int safe = nextSafe[i][s];
+                int mine = nextMine[i][s];
+                double[] from = counts[s];
+                for (int a = 0; a < from.length; a++) {
+                    if (safe >= 0) {
+                        next[safe][a] += from[a];
+                    } //if
+                    if (mine >= 0) {
+                        next[mine][a + 1] += from[a] * tilt;
+                    } //if
+                } //for
+            } //for
+            return normalize(next);
+        } //method
+
+        /**
+         * Work out the chance of a mine on every square of the component, given
+         * {@code ways}, the weight of each number of mines it could hold. The steps are
+         * walked backwards, keeping for every state the weight of all the ways to finish the
+         * component from it. The counts between two checkpoints are worked out again from the
+         * first of them.
+         */
+        void backward() {
+            int n = cells.length;
+            this.probability = new double[n];
+            double[][] finish = new double[1][n + 1];
+            System.arraycopy(ways, 0, finish[0], waysOffset, ways.length);
+            for (int k = marks.size() - 1; k >= 0; k--) {
+                int from = marks.get(k);
+                int to = k + 1 < marks.size() ? marks.get(k + 1) : n;
+                double[][][] counts = new double[to - from][][];
+                counts[0] = checkpoints.get(k);
+                for (int i = from + 1; i < to; i++) {
+                    counts[i - from] = step(counts[i - from - 1], i - 1, nextSafe[i].length);
+                } //for
+                for (int i = to - 1; i >= from; i--) {
+                    double[][] before = counts[i - from];
+                    double[][] earlier = new double[before.length][i + 1];
+                    double mineWeight = 0;
+                    double safeWeight = 0;
+                    for (int s = 0; s < before.length; s++) {
+                        int safe = nextSafe[i][s];
+                        int mine = nextMine[i][s];
+                        for (int a = 0; a <= i; a++) {
+                            if (safe >= 0) {
+                                safeWeight += before[s][a] * finish[safe][a];
+                                earlier[s][a] += finish[safe][a];
+                            } //if
+                            if (mine >= 0) {
+                                double weighted = finish[mine][a + 1] * tilt;
+                                mineWeight += before[s][a] * weighted;
+                                earlier[s][a] += weighted;
+                            } //if
+                        } //for
+                    } //for
+                    probability[i] = mineWeight == 0 ? 0 : mineWeight / (mineWeight + safeWeight);
+                    finish = normalize(earlier);
+                } //for
+            } //for
+            this.checkpoints = null;
+        } //method
+    } //class
+
+    /**
+     * A state used as a key: the mines placed around each number being filled in.
+     */
+    private static class Profile {
+        private long[] words;
+        private int hash;
+
+        /**
+         * Constructs a {@code Profile} over packed counts.
+         * @param words four bits per number.
+         */
+        Profile(long[] words) {
+            this.words = words;
+            this.hash = Arrays.hashCode(words);
+        } //Constructor
+
+        @Override
+        public int hashCode() {
+            return hash;
+        } //method
+
+        @Override
+        public boolean equals(Object other) {
+            return other instanceof Profile && Arrays.equals(words, ((Profile) other).words);
+        } //method
+    } //class
+} //class
@@ -0,0 +1,195 @@
+package cs1302.game;
+
+import cs1302.game.MinesweeperGame;
+import java.io.File;
+import java.io.FileNotFoundException;
+import java.io.FileReader;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+
+/**
+ * This class represents a ReplayRunner object. A {@code ReplayRunner} plays every
+ * seed/command pair in a directory inside one JVM, spread over a {@code ForkJoinPool}. A pair
+ * is named like the files in {@code tests/}: {@code NAME.seed.txt} holds the seed and
+ * {@code NAME.in.txt} holds the commands, one per line. Each game is run headless, so nothing is
+ * drawn and nothing exits the program, and the outcome, rounds, score and time of every game are
+ * written as a summary once they have all finished.
+ */
+public class ReplayRunner {
+    private static final String SEED_SUFFIX = ".seed.txt";
+    private static final String INPUT_SUFFIX = ".in.txt";
+
+    private File directory;
+    private int threads;
+
+    /**
+     * Constructs a {@code ReplayRunner} for the pairs in {@code directory}.
+     * @param directory the directory holding the seed and command files.
+     * @param threads the number of games to play at the same time.
+     */
+    public ReplayRunner(File directory, int threads) {
+        this.directory = directory;
+        this.threads = threads;
+    } //Constructor
+
+    /**
+     * Play every pair in the directory and write the summary to {@code out}.
+     * @param out where the summary is written.
+     * @return the number of games that could not be played because of a bad seed or because
+     * the game failed.
+     * @throws IOException when the directory cannot be listed.
+     */
+    public int run(PrintStream out) throws IOException {
+        String[] names = pairNames();
+        List<Callable<Result>> games = new ArrayList<>();
+        for (int i = 0; i < names.length; i++) {
+            String name = names[i];
+            games.add(() -> replay(name));
+        } //for
+        ForkJoinPool pool = new ForkJoinPool(threads);
+        long start = System.nanoTime();
+        List<Future<Result>> futures = pool.invokeAll(games);
+        long wallTime = System.nanoTime() - start;
+        pool.shutdown();
+
+        int[] outcomes = new int[MinesweeperGame.Outcome.values().length];
+        int invalid = 0;
+        long totalTime = 0;
+        long maxTime = 0;
+        out.printf("%-24s %-10s %8s %12s %10s%n", "game", "outcome", "rounds", "score", "ms");
+        for (int i = 0; i < futures.size(); i++) {
+            Result result = join(futures.get(i), names[i]);
+            if (result.outcome == null) {
+                invalid++;
+                out.printf("%-24s %-10s %s%n", result.name, "INVALID", result.error);
+            } else {
+                outcomes[result.outcome.ordinal()]++;
+                out.printf("%-24s %-10s %8d %12.2f %10.3f%n", result.name, result.outcome,
+                           result.rounds, result.score, result.nanos / 1e6);
+            } //if else
+            totalTime += result.nanos;
+            maxTime = Math.max(maxTime, result.nanos);
+        } //for
+        out.printf("%ngames: %d", futures.size());
+        for (MinesweeperGame.Outcome outcome : MinesweeperGame.Outcome.values()) {
+            out.printf(", %s: %d", outcome.toString().toLowerCase(), outcomes[outcome.ordinal()]);
+        } //for
+        out.printf(", invalid: %d%n", invalid);
+        out.printf("threads: %d, wall time: %.3f ms, mean game: %.3f ms, max game: %.3f ms%n",
+                   threads, wallTime / 1e6,
+                   futures.isEmpty() ? 0.0 : totalTime / 1e6 / futures.size(), maxTime / 1e6);
+        return invalid;
+    } //method
+
+    /**
+     * Find the names of every pair in the directory that has both a seed and a command file.
+     * @return the names, sorted so the summary is always in the same order.
+     * @throws IOException when the directory cannot be listed.
+     */
+    private String[] pairNames() throws IOException {
+        String[] files = directory.list();
+        if (files == null) {
+            throw new IOException();
+        } //if
+        List<String> names = new ArrayList<>();
+        for (int i = 0; i < files.length; i++) {
+            if (files[i].endsWith(SEED_SUFFIX)) {
+                String name = files[i].substring(0, files[i].length() - SEED_SUFFIX.length());
+                if (new File(directory, name + INPUT_SUFFIX).isFile()) {
+                    names.add(name);
+                } //if
+            } //if
+        } //for
+        String[] sorted = names.toArray(new String[0]);
+        Arrays.sort(sorted);
+        return sorted;
+    } //method
+
+    /**
+     * Play one pair headless and time it. Problems with the seed, and anything that goes wrong
+     * while the game is played, are recorded in the result instead of being thrown.
+     * @param name the name of the pair.
+     * @return the result of the game.
+     */
+    private Result replay(String name) {
+        Result result = new Result(name);
+        long start = System.nanoTime();
+        File seed = new File(directory, name + SEED_SUFFIX);
+        try (FileReader commands = new FileReader(new File(directory, name + INPUT_SUFFIX))) {
+            MinesweeperGame game = null;
+            try {
+                game = new MinesweeperGame(seed.getPath(), commands, null);
+            } catch (NumberFormatException | NoSuchElementException ex) {
+                result.error = "seed is not formatted correctly";
+            } catch (IllegalArgumentException iae) {
+                result.error = "grid is smaller than 5 x 5";
+            } catch (ArrayIndexOutOfBoundsException aiobe) {
+                result.error = "more mines than squares";
+            } //try
+            if (game != null) {
+                try {
+                    result.outcome = game.run();
+                    result.rounds = game.getRounds();
+                    result.score = game.getScore();
+                } catch (RuntimeException re) {
+                    result.outcome = null;
+                    result.error = "game failed: " + re;
+                } //try
+            } //if
+        } catch (FileNotFoundException fnfe) {
+            result.error = "seed or command file cannot be read";
+        } catch (IOException ioe) {
+            result.error = ioe.toString();
+        } //try
+        result.nanos = System.nanoTime() - start;
+        return result;
+    } //method
+
+    /**
+     * Wait for a game to finish and return its result. A game that threw is returned as a
+     * failed result instead of stopping the summary.
+     * @param future the game.
+     * @param name the name of the pair.
+     * @return the result of the game.
+     */
+    private static Result join(Future<Result> future, String name) {
+        try {
+            return future.get();
+        } catch (ExecutionException ee) {
+            Result result = new Result(name);
+            result.error = "game failed: " + ee.getCause();
+            return result;
+        } catch (InterruptedException ie) {
+            throw new IllegalStateException(ie);
+        } //try
+    } //method
+
+    /**
+     * The outcome of one replayed game. The {@code outcome} is null when the game could not
+     * be played or failed part way, and {@code error} then says why.
+     */
+    private static class Result {
+        private String name;
+        private MinesweeperGame.Outcome outcome;
+        private String error;
+        private int rounds;
+        private double score;
+        private long nanos;
+
+        /**
+         * Constructs an empty {@code Result} for the pair called {@code name}.
+         * @param name the name of the pair.
+         */
+        Result(String name) {
+            this.name = name;
+        } //Constructor
+    } //class
+} //class
@@ -0,0 +1,309 @@
+package cs1302.game;
+
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.InvalidPathException;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.NoSuchElementException;
+
+/**
+ * This class represents a SeedReader object. A {@code SeedReader} loads a text seed file
+ * (rows and columns, the number of mines, then one {@code row col} pair per mine) straight from
+ * the bytes of the file. The file is read through a {@code FileChannel} into one reused direct
+ * buffer and each number is parsed as it goes by, so no {@code String} is made for any token
+ * and the mines end up in a single {@code int[]}.
+ *
+ * <p>
+ * The reader accepts and rejects exactly what {@code Scanner.next()} followed by
+ * {@code Integer.parseInt} did: numbers are separated by whitespace, may start with a sign, and
+ * must fit in an {@code int}. Missing numbers throw {@code NoSuchElementException} and anything
+ * else that is not a number throws {@code NumberFormatException}.
+ *
+ * <p>
+ * Files that start with the {@link SeedWriter#MAGIC} bytes are read as binary seeds instead,
+ * in any of the layouts described in {@link SeedWriter}. A truncated binary seed throws
+ * {@code NoSuchElementException} and one whose contents do not add up throws
+ * {@code NumberFormatException}, so both formats fail the same way.
+ */
+public class SeedReader {
+    private static final int BUFFER_SIZE = 1 << 16;
+
+    private int rows;
+    private int cols;
+    private int[] mines;
+    private FileChannel channel;
+    private ByteBuffer buffer;
+    private long remaining;
+
+    /**
+     * Read the seed file at {@code seed}. Each mine must be on the grid as it is read, the
+     * same check the {@code Scanner} based loader made.
+     * @param seed the path to seed file.
+     * @throws FileNotFoundException when file is not accessable or cannot be found.
+     * @throws NoSuchElementException when missing information in the {@code seed}.
+     * @throws NumberFormatException when {@code seed} don't have the right data type
+     * or is out of bounds.
+     */
+    public SeedReader(String seed) throws FileNotFoundException {
+        try (FileChannel file = FileChannel.open(Paths.get(seed), StandardOpenOption.READ)) {
+            this.channel = file;
+            this.remaining = file.size();
+            this.buffer = ByteBuffer.allocateDirect(BUFFER_SIZE);
+            this.buffer.flip();
+            fill();
+            if (isBinary()) {
+                readBinary();
+                return;
+            } //if
+            this.rows = nextInt();
+            this.cols = nextInt();
+            int numberOfMines = nextInt();
+            if (numberOfMines < 0 || numberOfMines > (Integer.MAX_VALUE - 8) / 2) {
+                throw new NumberFormatException();
+            } //if
+            if ((4L * numberOfMines) - 1 > remaining + buffer.remaining()) {
+                throw new NoSuchElementException();
+            } //if
+            this.mines = new int[numberOfMines * 2];
+            for (int i = 0; i < mines.length; i += 2) {
+                int x = nextInt();
+                int y = nextInt();
+                if (x < 0 || x >= rows || y < 0 || y >= cols) {
+                    throw new NumberFormatException();
+                } //if
+                mines[i] = x;
+                mines[i + 1] = y;
+            } //for
+        } catch (IOException | InvalidPathException ex) {
+            throw new FileNotFoundException(seed);
+        } finally {
+            this.channel = null;
+            this.buffer = null;
+        } //try
+    } //Constructor
+
+    /**
+     * Return the number of rows given in the seed.
+     * @return the number of rows.
+     */
+    public int getRows() {
+        return rows;
+    } //method
+
+    /**
+     * Return the number of columns given in the seed.
+     * @return the number of columns.
+     */
+    public int getCols() {
+        return cols;
+    } //method
+
+    /**
+     * Return every mine in the seed, in file order, as {@code row, col} pairs laid out one after
+     * another: the mine {@code i} is at {@code mines[2 * i]}, {@code mines[2 * i + 1]}.
+     * @return the mines.
+     */
+    public int[] getMines() {
+        return mines;
+    } //method
+
+    /**
+     * Refill the buffer from the channel. Any bytes still in the buffer are thrown away, so
+     * this is only called once the buffer is empty.
+     * @return false if the end of the file has been reached.
+     * @throws IOException when the file cannot be read.
+     */
+    private boolean fill() throws IOException {
+        if (remaining <= 0) {
+            return false;
+        } //if
+        buffer.clear();
+        int read = channel.read(buffer);
+        buffer.flip();
+        if (read <= 0) {
+            remaining = 0;
+            return false;
+        } //if
+        remaining -= read;
+        return true;
+    } //method
+
+    /**
+     * Return the next byte of the file, refilling the buffer from the channel when it runs out.
+     * @return the next byte, or -1 at the end of the file.
+     * @throws IOException when the file cannot be read.
+     */
+    private int nextByte() throws IOException {
+        if (!buffer.hasRemaining() && !fill()) {
+            return -1;
+        } //if
+        return buffer.get() & 0xFF;
+    } //method
+
+    /**
+     * Checks if the file starts with the {@link SeedWriter#MAGIC} bytes of a binary seed.
+     * Only looks at the first buffer, without using up any of it.
+     * @return true if the seed is binary.
+     */
+    private boolean isBinary() {
+        if (buffer.remaining() < SeedWriter.MAGIC.length) {
+            return false;
+        } //if
+        for (int i = 0; i < SeedWriter.MAGIC.length; i++) {
+            if (buffer.get(i) != SeedWriter.MAGIC[i]) {
+                return false;
+            } //if
+        } //for
+        return true;
+    } //method
+
+    /**
+     * Read a binary seed, starting at its {@link SeedWriter#MAGIC} bytes.
+     * @throws IOException when the file cannot be read.
+     * @throws NoSuchElementException when the file ends too soon.
+     * @throws NumberFormatException when the header or mines do not add up.
+     */
+    private void readBinary() throws IOException {
+        buffer.position(SeedWriter.MAGIC.length);
+        int version = nextBinaryByte();
+        int layout = nextBinaryByte();
+        this.rows = nextBinaryInt();
+        this.cols = nextBinaryInt();
+        int numberOfMines = nextBinaryInt();
+        long squares = (long) rows * cols;
+        if (version != SeedWriter.VERSION || rows < 0 || cols < 0 || numberOfMines < 0
+            || numberOfMines > squares || numberOfMines > (Integer.MAX_VALUE - 8) / 2) {
+            throw new NumberFormatException();
+        } //if
+        this.mines = new int[numberOfMines * 2];
+        int found = 0;
+        if (layout == SeedWriter.BITMAP) {
+            for (long first = 0; first < squares; first += 8) {
+                int bits = nextBinaryByte();
+                while (bits != 0) {
+                    long cell = first + Integer.numberOfTrailingZeros(bits);
+                    if (cell >= squares || found == numberOfMines) {
+                        throw new NumberFormatException();
+                    } //if
+                    mines[2 * found] = (int) (cell / cols);
+                    mines[(2 * found) + 1] = (int) (cell % cols);
+                    found++;
+                    bits &= bits - 1;
+                } //while
+            } //for
+        } else if (layout == SeedWriter.VARINT || layout == SeedWriter.REPEATS) {
+            long cell = -1;
+            for (found = 0; found < numberOfMines; found++) {
+                cell += nextVarint() + (layout == SeedWriter.VARINT ? 1 : 0);
+                if (cell < 0 || cell >= squares) {
+                    throw new NumberFormatException();
+                } //if
+                mines[2 * found] = (int) (cell / cols);
+                mines[(2 * found) + 1] = (int) (cell % cols);
+            } //for
+        } else {
+            throw new NumberFormatException();
+        } //if else
+        if (found != numberOfMines) {
+            throw new NumberFormatException();
+        } //if
+    } //method
+
+    /**
+     * Return the next byte of a binary seed.
+     * @return the next byte.
+     * @throws IOException when the file cannot be read.
+     * @throws NoSuchElementException when the file has ended.
+     */
+    private int nextBinaryByte() throws IOException {
+        int b = nextByte();
+        if (b == -1) {
+            throw new NoSuchElementException();
+        } //if
+        return b;
+    } //method
+
+    /**
+     * Return the next four bytes of a binary seed as a big endian {@code int}.
+     * @return the number.
+     * @throws IOException when the file cannot be read.
+     * @throws NoSuchElementException when the file has ended.
+     */
+    private int nextBinaryInt() throws IOException {
+        int value = 0;
+        for (int i = 0; i < 4; i++) {
+            value = (value << 8) | nextBinaryByte();
+        } //for
+        return value;
+    } //method
+
+    /**
+     * Return the next unsigned LEB128 varint of a binary seed.
+     * @return the number.
+     * @throws IOException when the file cannot be read.
+     * @throws NoSuchElementException when the file has ended.
+     * @throws NumberFormatException when the varint is longer than five bytes.
+     */
+    private long nextVarint() throws IOException {
+        long value = 0;
+        for (int shift = 0; shift < 35; shift += 7) {
+            int b = nextBinaryByte();
+            value |= (long) (b & 0x7F) << shift;
+            if (b < 0x80) {
+                return value;
+            } //if
+        } //for
+        throw new NumberFormatException();
+    } //method
+
+    /**
+     * Checks if a byte is whitespace as far as {@code Character.isWhitespace} is concerned.
+     * @param b the byte.
+     * @return true if the byte separates numbers.
+     */
+    private static boolean isWhitespace(int b) {
+        return b == ' ' || (b >= '\t' && b <= '\r') || (b >= 0x1C && b <= 0x1F);
+    } //method
+
+    /**
+     * Parse the next whitespace separated number in the file.
+     * @return the number.
+     * @throws IOException when the file cannot be read.
+     * @throws NoSuchElementException when there are no more numbers.
+     * @throws NumberFormatException when the next token is not an {@code int}.
+     */
+    private int nextInt() throws IOException {
+        int b = nextByte();
+        while (b != -1 && isWhitespace(b)) {
+            b = nextByte();
+        } //while
+        if (b == -1) {
+            throw new NoSuchElementException();
+        } //if
+        boolean negative = b == '-';
+        if (b == '-' || b == '+') {
+            b = nextByte();
+        } //if
+        long limit = negative ? 1L + Integer.MAX_VALUE : Integer.MAX_VALUE;
+        long value = 0;
+        int digits = 0;
+        boolean valid = true;
+        while (b != -1 && !isWhitespace(b)) {
+            if (b >= '0' && b <= '9' && valid) {
+                value = (value * 10) + (b - '0');
+                digits++;
+                valid = value <= limit;
+            } else {
+                valid = false;
+            } //if else
+            b = nextByte();
+        } //while
+        if (!valid || digits == 0) {
+            throw new NumberFormatException();
+        } //if
+        return (int) (negative ? -value : value);
+    } //method
+} //class
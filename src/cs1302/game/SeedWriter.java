@@ -0,0 +1,174 @@
+package cs1302.game;
+
+import java.io.BufferedOutputStream;
+import java.io.BufferedWriter;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.util.Arrays;
+
+/**
+ * This class represents a SeedWriter object. The {@code SeedWriter} class writes seed files
+ * in the text format that {@code MinesweeperGame} has always read, or in a compact binary
+ * format. {@link SeedReader} tells the two apart by the first bytes of the file.
+ *
+ * <p>
+ * A binary seed starts with an 18 byte header: the four {@link #MAGIC} bytes, the
+ * {@link #VERSION} byte, a layout byte, and then the rows, columns and number of mines as big
+ * endian {@code int}s. Squares are numbered {@code row * cols + col}, and the mines follow in
+ * one of two layouts, whichever makes the smaller file:
+ * <ul>
+ * <li>{@link #BITMAP}: one bit per square, lowest bit of each byte first.</li>
+ * <li>{@link #VARINT}: the squares in increasing order, each stored as the number of empty
+ * squares since the previous mine, as an unsigned LEB128 varint.</li>
+ * </ul>
+ * Sparse boards end up in the varint layout and dense ones in the bitmap layout, so a binary
+ * seed never takes more than one bit per square.
+ *
+ * <p>
+ * A text seed may list a square more than once, and the game counts every copy as a mine.
+ * Neither layout above can hold a repeat, so such a seed is written in a third layout,
+ * {@link #REPEATS}: the squares in increasing order, each stored as the distance from the
+ * previous one as a varint, where 0 means the same square again. The number of mines in the
+ * header counts every copy.
+ */
+public class SeedWriter {
+    /** The first bytes of every binary seed. */
+    static final byte[] MAGIC = {'M', 'S', 'W', 'B'};
+    /** The version of the binary format. */
+    static final int VERSION = 1;
+    /** The layout byte of a binary seed that stores one bit per square. */
+    static final int BITMAP = 0;
+    /** The layout byte of a binary seed that stores the gaps between mines. */
+    static final int VARINT = 1;
+    /** The layout byte of a binary seed that stores the distance between mines, 0 for a repeat. */
+    static final int REPEATS = 2;
+
+    private static final int BUFFER_SIZE = 1 << 16;
+
+    /**
+     * This class only has static methods and cannot be constructed.
+     */
+    private SeedWriter() {
+    } //Constructor
+
+    /**
+     * Write a text seed file: the rows and columns, the number of mines, then one
+     * {@code row col} line per mine, in the order given.
+     * @param file the seed file to write.
+     * @param rows the number of rows on the board.
+     * @param cols the number of columns on the board.
+     * @param cells the square number of every mine.
+     * @throws IOException when the file cannot be written.
+     */
+    public static void writeText(File file, int rows, int cols, int[] cells) throws IOException {
+        try (BufferedWriter writer = new BufferedWriter(new FileWriter(file), BUFFER_SIZE)) {
+            StringBuilder line = new StringBuilder();
+            line.append(rows).append(' ').append(cols).append('\n')
+                .append(cells.length).append('\n');
+            for (int i = 0; i < cells.length; i++) {
+                line.append(cells[i] / cols).append(' ').append(cells[i] % cols).append('\n');
+                if (line.length() > 8192) {
+                    writer.append(line);
+                    line.setLength(0);
+                } //if
+            } //for
+            writer.append(line);
+        } //try
+    } //method
+
+    /**
+     * Write a binary seed file in whichever layout is smaller, or in the {@link #REPEATS}
+     * layout if a square is listed more than once.
+     * @param file the seed file to write.
+     * @param rows the number of rows on the board.
+     * @param cols the number of columns on the board.
+     * @param cells the square number of every mine.
+     * @throws IOException when the file cannot be written.
+     */
+    public static void writeBinary(File file, int rows, int cols, int[] cells)
+        throws IOException {
+        try (DataOutputStream out = new DataOutputStream(
+                 new BufferedOutputStream(new FileOutputStream(file), BUFFER_SIZE))) {
+            writeBinary(out, rows, cols, cells);
+        } //try
+    } //method
+
+    /**
+     * Write a binary seed to a stream that is left open, so that many seeds can follow one
+     * another in one file.
+     * @param out where the seed is written.
+     * @param rows the number of rows on the board.
+     * @param cols the number of columns on the board.
+     * @param cells the square number of every mine.
+     * @throws IOException when the stream cannot be written.
+     */
+    static void writeBinary(DataOutputStream out, int rows, int cols, int[] cells)
+        throws IOException {
+        int[] sorted = cells.clone();
+        Arrays.sort(sorted);
+        boolean repeats = false;
+        long squares = (long) rows * cols;
+        long bitmapSize = (squares + 7) / 8;
+        long varintSize = 0;
+        int previous = -1;
+        for (int i = 0; i < sorted.length; i++) {
+            repeats |= sorted[i] == previous;
+            varintSize += varintLength(Math.max(0, sorted[i] - previous - 1));
+            previous = sorted[i];
+        } //for
+        int layout = repeats ? REPEATS : (varintSize < bitmapSize ? VARINT : BITMAP);
+        out.write(MAGIC);
+        out.write(VERSION);
+        out.write(layout);
+        out.writeInt(rows);
+        out.writeInt(cols);
+        out.writeInt(sorted.length);
+        if (layout != BITMAP) {
+            previous = -1;
+            for (int i = 0; i < sorted.length; i++) {
+                int gap = sorted[i] - previous - (layout == VARINT ? 1 : 0);
+                while (gap >= 0x80) {
+                    out.write((gap & 0x7F) | 0x80);
+                    gap >>>= 7;
+                } //while
+                out.write(gap);
+                previous = sorted[i];
+            } //for
+        } else {
+            long next = 0;
+            int bits = 0;
+            for (int i = 0; i < sorted.length; i++) {
+                long index = sorted[i] / 8;
+                if (index != next) {
+                    out.write(bits);
+                    bits = 0;
+                    for (next++; next < index; next++) {
+                        out.write(0);
+                    } //for
+                } //if
+                bits |= 1 << (sorted[i] % 8);
+            } //for
+            for (; next < bitmapSize; next++) {
+                out.write(bits);
+                bits = 0;
+            } //for
+        } //if else
+    } //method
+
+    /**
+     * Return the number of bytes an unsigned LEB128 varint of {@code value} takes.
+     * @param value a number that is not negative.
+     * @return the number of bytes.
+     */
+    private static int varintLength(int value) {
+        int length = 1;
+        while (value >= 0x80) {
+            value >>>= 7;
+            length++;
+        } //while
+        return length;
+    } //method
+} //class
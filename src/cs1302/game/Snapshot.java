@@ -0,0 +1,188 @@
+package cs1302.game;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.Arrays;
+
+/**
+ * This class represents a Snapshot object. A {@code Snapshot} is an in-progress
+ * {@link MinesweeperGame} saved by the save command, by autosave or for --resume. It holds the
+ * path of the seed the game was started from, the size of the board, the number of rounds
+ * completed and what is shown on every square. The mines themselves are not saved; they are
+ * read again from the seed.
+ *
+ * <p>
+ * On disk a snapshot is the four {@link #MAGIC} bytes, a version byte, the seed path, the rows,
+ * columns and rounds, and then the state of every square packed four to a byte, two bits each,
+ * lowest bits first. A 4000 x 4000 board takes 4 MB.
+ */
+public class Snapshot {
+    /** The first bytes of every snapshot file. */
+    static final byte[] MAGIC = {'M', 'S', 'W', 'S'};
+    /** The version of the snapshot format. */
+    static final int VERSION = 1;
+
+    private static final int BUFFER_SIZE = 1 << 16;
+
+    private String seed;
+    private int rows;
+    private int cols;
+    private int rounds;
+    private byte[] squares;
+
+    /**
+     * Constructs a {@code Snapshot} of a game. The {@code squares} array is kept as it is, so
+     * the caller must hand over a copy if the game goes on changing it.
+     * @param seed the path of the seed the game was started from.
+     * @param rows the number of rows on the board.
+     * @param cols the number of columns on the board.
+     * @param rounds the number of rounds completed.
+     * @param squares what is shown on each square, {@code row * cols + col}.
+     */
+    Snapshot(String seed, int rows, int cols, int rounds, byte[] squares) {
+        this.seed = seed;
+        this.rows = rows;
+        this.cols = cols;
+        this.rounds = rounds;
+        this.squares = squares;
+    } //Constructor
+
+    /**
+     * Checks if a board is small enough for its squares to be held in one array, one byte per
+     * square, which is how a snapshot holds them.
+     * @param rows the number of rows on the board.
+     * @param cols the number of columns on the board.
+     * @return true if the board can be snapshot.
+     */
+    static boolean fits(int rows, int cols) {
+        return rows >= 0 && cols >= 0 && (long) rows * cols <= Integer.MAX_VALUE - 8;
+    } //method
+
+    /**
+     * Read a snapshot file.
+     * @param file the snapshot file.
+     * @return the snapshot.
+     * @throws IOException when the file cannot be read or is not a snapshot.
+     */
+    public static Snapshot load(File file) throws IOException {
+        try (DataInputStream in = new DataInputStream(
+                 new BufferedInputStream(new FileInputStream(file), BUFFER_SIZE))) {
+            byte[] magic = new byte[MAGIC.length];
+            in.readFully(magic);
+            if (!Arrays.equals(magic, MAGIC) || in.readUnsignedByte() != VERSION) {
+                throw new IOException(file + " is not a snapshot");
+            } //if
+            String seed = in.readUTF();
+            int rows = in.readInt();
+            int cols = in.readInt();
+            int rounds = in.readInt();
+            if (!fits(rows, cols)) {
+                throw new IOException(file + " is not a snapshot");
+            } //if
+            byte[] packed = new byte[(int) (((long) rows * cols + 3) / 4)];
+            in.readFully(packed);
+            return new Snapshot(seed, rows, cols, rounds, unpack(packed, rows * cols));
+        } catch (EOFException eofe) {
+            throw new IOException(file + " is cut short", eofe);
+        } //try
+    } //method
+
+    /**
+     * Write the snapshot to a file. The file is written under a temporary name first and then
+     * renamed, so an interrupted save never leaves half a snapshot behind.
+     * @param file the snapshot file.
+     * @throws IOException when the file cannot be written.
+     */
+    public void save(File file) throws IOException {
+        File temp = new File(file.getPath() + ".tmp");
+        byte[] packed = pack(squares);
+        try (DataOutputStream out = new DataOutputStream(
+                 new BufferedOutputStream(new FileOutputStream(temp), BUFFER_SIZE))) {
+            out.write(MAGIC);
+            out.write(VERSION);
+            out.writeUTF(seed);
+            out.writeInt(rows);
+            out.writeInt(cols);
+            out.writeInt(rounds);
+            out.write(packed);
+        } //try
+        if (!temp.renameTo(file)) {
+            temp.delete();
+            throw new IOException("cannot replace " + file);
+        } //if
+    } //method
+
+    /**
+     * Pack the state of every square four to a byte, two bits each, lowest bits first.
+     * @param squares what is shown on each square.
+     * @return the packed squares.
+     */
+    static byte[] pack(byte[] squares) {
+        byte[] packed = new byte[(squares.length + 3) / 4];
+        for (int i = 0; i < squares.length; i++) {
+            packed[i >> 2] |= (byte) ((squares[i] & 3) << ((i & 3) * 2));
+        } //for
+        return packed;
+    } //method
+
+    /**
+     * Undo {@link #pack(byte[])}.
+     * @param packed the packed squares.
+     * @param size the number of squares.
+     * @return what is shown on each square.
+     */
+    static byte[] unpack(byte[] packed, int size) {
+        byte[] squares = new byte[size];
+        for (int i = 0; i < size; i++) {
+            squares[i] = (byte) ((packed[i >> 2] >> ((i & 3) * 2)) & 3);
+        } //for
+        return squares;
+    } //method
+
+    /**
+     * Return the path of the seed the game was started from.
+     * @return the seed path.
+     */
+    public String getSeed() {
+        return seed;
+    } //method
+
+    /**
+     * Return the number of rows on the board.
+     * @return the number of rows.
+     */
+    int getRows() {
+        return rows;
+    } //method
+
+    /**
+     * Return the number of columns on the board.
+     * @return the number of columns.
+     */
+    int getCols() {
+        return cols;
+    } //method
+
+    /**
+     * Return the number of rounds completed.
+     * @return the number of rounds.
+     */
+    int getRounds() {
+        return rounds;
+    } //method
+
+    /**
+     * Return what is shown on each square, {@code row * cols + col}.
+     * @return the square states.
+     */
+    byte[] getSquares() {
+        return squares;
+    } //method
+} //class
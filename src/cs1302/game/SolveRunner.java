@@ -0,0 +1,191 @@
+package cs1302.game;
+
+import cs1302.game.MinesweeperGame;
+import cs1302.game.Solver;
+import java.io.File;
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+
+/**
+ * This class represents a SolveRunner object. A {@code SolveRunner} hands every seed in a
+ * directory to a {@link Solver}, spread over a {@code ForkJoinPool} the same way
+ * {@link ReplayRunner} plays command files. Files that are not seeds are skipped, and listed
+ * with the reason in place of their results, as are boards the solver fails on. The outcome,
+ * number of moves and guesses and time of every board are written as a summary, with the win
+ * rate over all boards, once they have all finished.
+ */
+public class SolveRunner {
+    private File directory;
+    private int threads;
+
+    /**
+     * Constructs a {@code SolveRunner} for the seeds in {@code directory}.
+     * @param directory the directory holding the seed files.
+     * @param threads the number of boards to solve at the same time.
+     */
+    public SolveRunner(File directory, int threads) {
+        this.directory = directory;
+        this.threads = threads;
+    } //Constructor
+
+    /**
+     * Solve every seed in the directory and write the summary to {@code out}.
+     * @param out where the summary is written.
+     * @return the number of boards that were won.
+     * @throws IOException when the directory cannot be listed.
+     */
+    public int run(PrintStream out) throws IOException {
+        String[] names = directory.list();
+        if (names == null) {
+            throw new IOException();
+        } //if
+        Arrays.sort(names);
+        List<String> files = new ArrayList<>();
+        List<Callable<Result>> boards = new ArrayList<>();
+        for (int i = 0; i < names.length; i++) {
+            String name = names[i];
+            if (new File(directory, name).isFile()) {
+                files.add(name);
+                boards.add(() -> solve(name));
+            } //if
+        } //for
+        ForkJoinPool pool = new ForkJoinPool(threads);
+        long start = System.nanoTime();
+        List<Future<Result>> futures = pool.invokeAll(boards);
+        long wallTime = System.nanoTime() - start;
+        pool.shutdown();
+
+        int solved = 0;
+        int failed = 0;
+        int won = 0;
+        long totalMoves = 0;
+        long totalGuesses = 0;
+        long totalTime = 0;
+        out.printf("%-24s %11s %9s %-5s %10s %8s %10s%n", "board", "size", "mines", "won",
+                   "moves", "guesses", "ms");
+        for (int i = 0; i < futures.size(); i++) {
+            Result result = join(futures.get(i), files.get(i));
+            if (result.error != null) {
+                failed += result.failed ? 1 : 0;
+                out.printf("%-24s %11s %9s %-5s %s%n", result.name, "", "",
+                           result.failed ? "fail" : "skip", result.error);
+                continue;
+            } //if
+            solved++;
+            won += result.won ? 1 : 0;
+            totalMoves += result.moves;
+            totalGuesses += result.guesses;
+            totalTime += result.nanos;
+            out.printf("%-24s %11s %9d %-5s %10d %8d %10.3f%n", result.name,
+                       result.rows + "x" + result.cols, result.mines, result.won ? "yes" : "no",
+                       result.moves, result.guesses, result.nanos / 1e6);
+        } //for
+        out.printf("%nboards: %d, won: %d, lost: %d, skipped: %d, failed: %d, win rate: %.1f%%%n",
+                   solved, won, solved - won, futures.size() - solved - failed, failed,
+                   solved == 0 ? 0.0 : 100.0 * won / solved);
+        out.printf("threads: %d, wall time: %.3f ms, mean moves: %.1f, mean guesses: %.2f, "
+                   + "mean board: %.3f ms%n", threads, wallTime / 1e6,
+                   solved == 0 ? 0.0 : (double) totalMoves / solved,
+                   solved == 0 ? 0.0 : (double) totalGuesses / solved,
+                   solved == 0 ? 0.0 : totalTime / 1e6 / solved);
+        return won;
+    } //method
+
+    /**
+     * Solve one seed headless and time it. Loading the seed is not part of the time. Files
+     * that are not seeds, and anything that goes wrong while solving, are recorded in the
+     * result instead of being thrown.
+     * @param name the name of the seed file.
+     * @return the result of the board.
+     */
+    private Result solve(String name) {
+        Result result = new Result(name);
+        MinesweeperGame game;
+        try {
+            game = new MinesweeperGame(new File(directory, name).getPath(),
+                                       new StringReader(""), null);
+        } catch (FileNotFoundException fnfe) {
+            result.error = "seed cannot be read";
+            return result;
+        } catch (NumberFormatException | NoSuchElementException ex) {
+            result.error = "seed is not formatted correctly";
+            return result;
+        } catch (IllegalArgumentException iae) {
+            result.error = "grid is smaller than 5 x 5";
+            return result;
+        } catch (ArrayIndexOutOfBoundsException aiobe) {
+            result.error = "more mines than squares";
+            return result;
+        } //try
+        try {
+            Solver solver = new Solver(game);
+            long start = System.nanoTime();
+            result.won = solver.solve();
+            result.nanos = System.nanoTime() - start;
+            result.rows = game.getRows();
+            result.cols = game.getCols();
+            result.mines = game.getNumberOfMines();
+            result.moves = game.getRounds();
+            result.guesses = solver.getGuesses();
+        } catch (RuntimeException re) {
+            result.failed = true;
+            result.error = "game failed: " + re;
+        } //try
+        return result;
+    } //method
+
+    /**
+     * Wait for a board to be solved and return its result. A board that threw is returned as
+     * a failed result instead of stopping the summary.
+     * @param future the board.
+     * @param name the name of the seed file.
+     * @return the result of the board.
+     */
+    private static Result join(Future<Result> future, String name) {
+        try {
+            return future.get();
+        } catch (ExecutionException ee) {
+            Result result = new Result(name);
+            result.failed = true;
+            result.error = "game failed: " + ee.getCause();
+            return result;
+        } catch (InterruptedException ie) {
+            throw new IllegalStateException(ie);
+        } //try
+    } //method
+
+    /**
+     * The outcome of one solved board. {@code error} is set when the file was not a seed, or
+     * when {@code failed} is set, when solving it went wrong.
+     */
+    private static class Result {
+        private String name;
+        private String error;
+        private boolean failed;
+        private boolean won;
+        private int rows;
+        private int cols;
+        private int mines;
+        private int moves;
+        private int guesses;
+        private long nanos;
+
+        /**
+         * Constructs an empty {@code Result} for the seed called {@code name}.
+         * @param name the name of the seed file.
+         */
+        Result(String name) {
+            this.name = name;
+        } //Constructor
+    } //class
+} //class
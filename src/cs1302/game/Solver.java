@@ -0,0 +1,398 @@
+package cs1302.game;
+
+import cs1302.game.MinesweeperGame;
+import java.util.Arrays;
+import java.util.BitSet;
+
+/**
+ * This class represents a Solver object. A {@code Solver} plays a {@link MinesweeperGame}
+ * through its public methods, seeing only what a player would see: the numbers on revealed
+ * squares and the total number of mines.
+ *
+ * <p>
+ * Revealed squares that might lead somewhere are kept on a worklist. A square is only put back
+ * on the list when something around it changes: when it or one of its neighbors is revealed,
+ * or when a neighbor is marked. Each square on the list is checked with two rules:
+ * <ul>
+ * <li>Single square: if the number is already met by marked neighbors the other hidden
+ * neighbors are safe, and if it needs every hidden neighbor they are all mines.</li>
+ * <li>Subset: if the hidden neighbors of one square are all hidden neighbors of a nearby square
+ * too, the squares only the second one touches hold the difference of their numbers.</li>
+ * </ul>
+ * Only when the worklist is empty does the solver guess, picking the hidden square with the
+ * lowest estimated chance of holding a mine. Guessing only looks at the revealed squares that
+ * still touch hidden ones, which are kept in a separate set, so the cost of a guess follows the
+ * size of the frontier rather than the size of the board.
+ */
+public class Solver {
+    private static final int WINDOW = 7;
+
+    private MinesweeperGame game;
+    private int rows;
+    private int cols;
+    private BitSet marked;
+    private int hidden;
+    private int[] work;
+    private BitSet queued;
+    private int head;
+    private int size;
+    private int guesses;
+    private int guessLimit;
+    private BitSet frontier;
+    private int interior;
+    private double[] risk;
+    private int[] touched;
+
+    /**
+     * Constructs a {@code Solver} for a game that has not been played yet.
+     * @param game the game to play.
+     */
+    public Solver(MinesweeperGame game) {
+        this.game = game;
+        this.rows = game.getRows();
+        this.cols = game.getCols();
+        this.marked = new BitSet(rows * cols);
+        this.hidden = rows * cols;
+        this.work = new int[rows * cols];
+        this.queued = new BitSet(rows * cols);
+        this.guesses = 0;
+        this.guessLimit = Integer.MAX_VALUE;
+        this.frontier = new BitSet(rows * cols);
+        this.interior = 0;
+    } //Constructor
+
+    /**
+     * Give up instead of guessing once the solver has guessed {@code limit} times, leaving the
+     * game unfinished. With a limit of 1 the solver only wins boards that need no guess after
+     * the first click, and gives up on the others as soon as that is clear.
+     * @param limit the most guesses to make.
+     */
+    public void limitGuesses(int limit) {
+        this.guessLimit = limit;
+    } //method
+
+    /**
+     * Play the game until it is won or lost, or until it would take more guesses than the
+     * limit allows.
+     * @return true if the game was won.
+     */
+    public boolean solve() {
+        game.setSquareListener(this::squareChanged);
+        while (!game.isGameOver()) {
+            if (size > 0) {
+                int cell = work[head];
+                head = (head + 1) % work.length;
+                size--;
+                queued.clear(cell);
+                check(cell / cols, cell % cols);
+            } else if (!finish()) {
+                if (guesses == guessLimit) {
+                    break;
+                } //if
+                guess();
+            } //if else
+        } //while
+        game.setSquareListener(null);
+        return game.hasWon();
+    } //method
+
+    /**
+     * Return the number of times the solver had to guess.
+     * @return the number of guesses.
+     */
+    public int getGuesses() {
+        return guesses;
+    } //method
+
+    /**
+     * Called by the game for every square that changes. A newly revealed square, and every
+     * revealed square around it, goes on the worklist.
+     * @param cell the square number.
+     */
+    private void squareChanged(int cell) {
+        int row = cell / cols;
+        int col = cell % cols;
+        if (game.isRevealed(row, col)) {
+            hidden--;
+            frontier.set(cell);
+            enqueue(cell);
+            enqueueNeighbors(row, col);
+        } //if
+    } //method
+
+    /**
+     * Put a square on the worklist unless it is already there.
+     * @param cell the square number.
+     */
+    private void enqueue(int cell) {
+        if (!queued.get(cell)) {
+            queued.set(cell);
+            work[(head + size) % work.length] = cell;
+            size++;
+        } //if
+    } //method
+
+    /**
+     * Put every revealed square around a square on the worklist.
+     * @param row the x value of the square.
+     * @param col the y value of the square.
+     */
+    private void enqueueNeighbors(int row, int col) {
+        for (int x = Math.max(0, row - 1); x <= Math.min(rows - 1, row + 1); x++) {
+            for (int y = Math.max(0, col - 1); y <= Math.min(cols - 1, col + 1); y++) {
+                if (game.isRevealed(x, y)) {
+                    enqueue((x * cols) + y);
+                } //if
+            } //for
+        } //for
+    } //method
+
+    /**
+     * Checks if a square is neither revealed nor marked by the solver.
+     * @param row the x value of the square.
+     * @param col the y value of the square.
+     * @return true if nothing is known about the square yet.
+     */
+    private boolean isHidden(int row, int col) {
+        return !game.isRevealed(row, col) && !marked.get((row * cols) + col);
+    } //method
+
+    /**
+     * Return the hidden neighbors of a revealed square as bits of a 7 x 7 window centred on
+     * {@code (centerRow, centerCol)}, so that squares up to two apart can be compared.
+     * @param row the x value of the revealed square.
+     * @param col the y value of the revealed square.
+     * @param centerRow the x value of the middle of the window.
+     * @param centerCol the y value of the middle of the window.
+     * @return the bits of the hidden neighbors.
+     */
+    private long hiddenMask(int row, int col, int centerRow, int centerCol) {
+        long mask = 0;
+        for (int x = Math.max(0, row - 1); x <= Math.min(rows - 1, row + 1); x++) {
+            for (int y = Math.max(0, col - 1); y <= Math.min(cols - 1, col + 1); y++) {
+                if (isHidden(x, y)) {
+                    mask |= 1L << (((x - centerRow + 3) * WINDOW) + (y - centerCol + 3));
+                } //if
+            } //for
+        } //for
+        return mask;
+    } //method
+
+    /**
+     * Return how many more mines a revealed square needs among its hidden neighbors.
+     * @param row the x value of the revealed square.
+     * @param col the y value of the revealed square.
+     * @return the number on the square minus its marked neighbors.
+     */
+    private int minesNeeded(int row, int col) {
+        int needed = game.getClue(row, col);
+        for (int x = Math.max(0, row - 1); x <= Math.min(rows - 1, row + 1); x++) {
+            for (int y = Math.max(0, col - 1); y <= Math.min(cols - 1, col + 1); y++) {
+                if (marked.get((x * cols) + y)) {
+                    needed--;
+                } //if
+            } //for
+        } //for
+        return needed;
+    } //method
+
+    /**
+     * Apply the single square rule and then the subset rule to a revealed square.
+     * @param row the x value of the square.
+     * @param col the y value of the square.
+     */
+    private void check(int row, int col) {
+        long mask = hiddenMask(row, col, row, col);
+        if (mask == 0) {
+            frontier.clear((row * cols) + col);
+            return;
+        } //if
+        int needed = minesNeeded(row, col);
+        if (needed == 0) {
+            apply(mask, row, col, false);
+            return;
+        } else if (needed == Long.bitCount(mask)) {
+            apply(mask, row, col, true);
+            return;
+        } //if else
+        for (int x = Math.max(0, row - 2); x <= Math.min(rows - 1, row + 2); x++) {
+            for (int y = Math.max(0, col - 2); y <= Math.min(cols - 1, col + 2); y++) {
+                if ((x != row || y != col) && game.isRevealed(x, y)) {
+                    long other = hiddenMask(x, y, row, col);
+                    if (other != 0 && other != mask && subset(mask, needed, other,
+                                                                minesNeeded(x, y), row, col)) {
+                        return;
+                    } //if
+                } //if
+            } //for
+        } //for
+    } //method
+
+    /**
+     * Apply the subset rule to two revealed squares, in whichever direction fits.
+     * @param mask the hidden neighbors of the first square.
+     * @param needed the mines the first square still needs.
+     * @param other the hidden neighbors of the second square.
+     * @param otherNeeded the mines the second square still needs.
+     * @param centerRow the x value of the middle of the window.
+     * @param centerCol the y value of the middle of the window.
+     * @return true if any square was revealed or marked.
+     */
+    private boolean subset(long mask, int needed, long other, int otherNeeded,
+                           int centerRow, int centerCol) {
+        if ((mask & ~other) != 0) {
+            if ((other & ~mask) != 0) {
+                return false;
+            } //if
+            long swap = mask;
+            mask = other;
+            other = swap;
+            int swapNeeded = needed;
+            needed = otherNeeded;
+            otherNeeded = swapNeeded;
+        } //if
+        long rest = other & ~mask;
+        int restNeeded = otherNeeded - needed;
+        if (restNeeded == 0) {
+            apply(rest, centerRow, centerCol, false);
+            return true;
+        } else if (restNeeded == Long.bitCount(rest)) {
+            apply(rest, centerRow, centerCol, true);
+            return true;
+        } //if else
+        return false;
+    } //method
+
+    /**
+     * Reveal or mark every square in a window mask that is still hidden.
+     * @param mask the squares, as bits of the window.
+     * @param centerRow the x value of the middle of the window.
+     * @param centerCol the y value of the middle of the window.
+     * @param mines true to mark the squares, false to reveal them.
+     */
+    private void apply(long mask, int centerRow, int centerCol, boolean mines) {
+        while (mask != 0 && !game.isGameOver()) {
+            int bit = Long.numberOfTrailingZeros(mask);
+            mask &= mask - 1;
+            int row = centerRow + (bit / WINDOW) - 3;
+            int col = centerCol + (bit % WINDOW) - 3;
+            if (isHidden(row, col)) {
+                move(row, col, mines);
+            } //if
+        } //while
+    } //method
+
+    /**
+     * Reveal or mark one hidden square.
+     * @param row the x value of the square.
+     * @param col the y value of the square.
+     * @param mine true to mark the square, false to reveal it.
+     */
+    private void move(int row, int col, boolean mine) {
+        if (mine) {
+            marked.set((row * cols) + col);
+            hidden--;
+            game.mark(row, col);
+            enqueueNeighbors(row, col);
+        } else {
+            game.reveal(row, col);
+        } //if else
+    } //method
+
+    /**
+     * Use the total number of mines once nothing else helps: if every mine is marked the rest
+     * of the board is safe, and if every hidden square must be a mine they are all marked.
+     * @return true if any square was revealed or marked.
+     */
+    private boolean finish() {
+        int minesLeft = game.getNumberOfMines() - marked.cardinality();
+        if (minesLeft != 0 && minesLeft != hidden) {
+            return false;
+        } //if
+        for (int row = 0; row < rows && !game.isGameOver(); row++) {
+            for (int col = 0; col < cols && !game.isGameOver(); col++) {
+                if (isHidden(row, col)) {
+                    move(row, col, minesLeft != 0);
+                } //if
+            } //for
+        } //for
+        return true;
+    } //method
+
+    /**
+     * Reveal the hidden square least likely to hold a mine. A square next to revealed numbers
+     * takes the highest chance any of those numbers gives it; every other square takes the
+     * chance of a mine among all hidden squares, and wins a tie because it is more likely to
+     * open up an area. The very first guess is the middle of the board.
+     */
+    private void guess() {
+        guesses++;
+        if (hidden == rows * cols) {
+            game.reveal(rows / 2, cols / 2);
+            return;
+        } //if
+        if (risk == null) {
+            risk = new double[rows * cols];
+            touched = new int[rows * cols];
+            Arrays.fill(risk, -1.0);
+        } //if
+        int numTouched = 0;
+        for (int cell = frontier.nextSetBit(0); cell >= 0; cell = frontier.nextSetBit(cell + 1)) {
+            int row = cell / cols;
+            int col = cell % cols;
+            long mask = hiddenMask(row, col, row, col);
+            if (mask == 0) {
+                frontier.clear(cell);
+                continue;
+            } //if
+            double chance = (double) minesNeeded(row, col) / Long.bitCount(mask);
+            for (; mask != 0; mask &= mask - 1) {
+                int bit = Long.numberOfTrailingZeros(mask);
+                int square = ((row + (bit / WINDOW) - 3) * cols) + col + (bit % WINDOW) - 3;
+                if (risk[square] < 0) {
+                    touched[numTouched++] = square;
+                } //if
+                risk[square] = Math.max(risk[square], chance);
+            } //for
+        } //for
+        int best = -1;
+        double bestRisk = 2.0;
+        for (int i = 0; i < numTouched; i++) {
+            if (risk[touched[i]] < bestRisk) {
+                best = touched[i];
+                bestRisk = risk[touched[i]];
+            } //if
+            risk[touched[i]] = -1.0;
+        } //for
+        while (interior < rows * cols && !isInterior(interior / cols, interior % cols)) {
+            interior++;
+        } //while
+        double density = (double) (game.getNumberOfMines() - marked.cardinality()) / hidden;
+        if (interior < rows * cols && density <= bestRisk) {
+            best = interior;
+        } //if
+        game.reveal(best / cols, best % cols);
+    } //method
+
+    /**
+     * Checks if a square is hidden and has no revealed neighbors. Once a square stops being
+     * one of these it never becomes one again, which lets {@link #guess} look for them with a
+     * cursor that only moves forward.
+     * @param row the x value of the square.
+     * @param col the y value of the square.
+     * @return true if the square is hidden and nothing around it is revealed.
+     */
+    private boolean isInterior(int row, int col) {
+        if (!isHidden(row, col)) {
+            return false;
+        } //if
+        for (int x = Math.max(0, row - 1); x <= Math.min(rows - 1, row + 1); x++) {
+            for (int y = Math.max(0, col - 1); y <= Math.min(cols - 1, col + 1); y++) {
+                if (game.isRevealed(x, y)) {
+                    return false;
+                } //if
+            } //for
+        } //for
+        return true;
+    } //method
+} //class
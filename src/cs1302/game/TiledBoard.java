@@ -0,0 +1,833 @@
+package cs1302.game;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.LongBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.function.IntConsumer;
+
+/**
+ * This class represents a TiledBoard object. A {@code TiledBoard} stores the mines and the
+ * state of every square of a {@link MinesweeperGame} in 64 x 64 tiles. A tile is a single
+ * {@code long[]} holding one bit per square for the mines and two bits per square for the state
+ * ({@code HIDDEN}, {@code REVEALED}, {@code MARKED} or {@code GUESSED}), so a square costs three
+ * bits. Tiles are only created the first time something is written to them; a square in a tile
+ * that was never written reads as hidden and empty, and the untouched tile costs one null
+ * reference.
+ *
+ * <p>
+ * Boards whose tiles would not all fit in a quarter of the heap spill to a memory mapped
+ * temporary file. Only that many tiles stay in memory; when another one is needed, a tile that
+ * has not been used recently is written to its slot in the file (if it changed since it was last
+ * read) and dropped. Tiles to drop are picked with the clock algorithm: every tile in memory has
+ * a used bit that is set when it is read or written, and a hand moving round the tiles drops the
+ * first one whose bit is clear, clearing bits as it passes.
+ *
+ * <p>
+ * Squares are addressed by row and column. The number of mines touching a square is not stored
+ * but counted from the mine bits, three bits of a row at a time; away from the edges of a tile
+ * that takes three words of the same tile. A seed may list the same square more than once, and
+ * every copy counts toward the numbers around it; the copies beyond the first are kept apart in
+ * {@code extraMines}, which is empty for every seed without them.
+ *
+ * <p>
+ * The open area around a square is revealed a tile at a time with {@link #cascade(int, int,
+ * IntConsumer)}, working on the 64 squares of a tile row in one {@code long}. The squares next
+ * to a mine are found by spreading the mine bits one square in every direction with shifts, and
+ * the area is grown inside a tile with an occluded fill along each row and a sweep up and down
+ * the rows, so a tile of open ground costs a few hundred word operations instead of a visit to
+ * each of its 4096 squares.
+ *
+ * <p>
+ * Every tile also keeps a count of its revealed squares, held next to the tiles rather than in
+ * them, so the count of a tile can be read without bringing it back into memory.
+ */
+class TiledBoard {
+    private static final int SHIFT = 6;
+    /** The number of rows, and of columns, in a tile. */
+    static final int SIZE = 1 << SHIFT;
+    private static final int MASK = SIZE - 1;
+    private static final int LOW = SIZE;
+    private static final int HIGH = 2 * SIZE;
+    private static final int TILE_LONGS = 3 * SIZE;
+    private static final int TILE_BYTES = TILE_LONGS * Long.BYTES;
+    private static final int TILES_PER_SEGMENT = (1 << 30) / TILE_BYTES;
+
+    private int rows;
+    private int cols;
+    private int tileCols;
+    private long[][] tiles;
+    private int[] revealed;
+    private int resident;
+
+    private File spillFile;
+    private FileChannel channel;
+    private LongBuffer[] segments;
+    private int maxResident;
+    private int[] clock;
+    private int hand;
+    private BitSet used;
+    private BitSet modified;
+    private BitSet spilled;
+
+    private HashMap<Long, Integer> extraMines;
+
+    private HashMap<Integer, long[]> touched;
+    private ArrayDeque<Integer> pending;
+    private ArrayDeque<long[]> spare;
+    private long[] mineRows;
+    private long[] open;
+    private long[] clear;
+    private long[] area;
+
+    /**
+     * Constructs an empty {@code TiledBoard}. If all of its tiles would take more than a quarter
+     * of the heap, tiles beyond that spill to a temporary file.
+     * @param rows the number of rows on the board.
+     * @param cols the number of columns on the board.
+     * @throws IllegalArgumentException when the board has more tiles than an {@code int} can
+     * number.
+     */
+    TiledBoard(int rows, int cols) {
+        this(rows, cols, null, 0);
+        long budget = Runtime.getRuntime().maxMemory() / 4 / TILE_BYTES;
+        if (tiles.length > budget) {
+            try {
+                File file = File.createTempFile("minesweeper", ".tiles");
+                file.deleteOnExit();
+                spill(file, (int) Math.max(16, budget));
+            } catch (IOException ioe) {
+                throw new UncheckedIOException(ioe);
+            } //try
+        } //if
+    } //Constructor
+
+    /**
+     * Constructs an empty {@code TiledBoard} that keeps at most {@code maxResident} tiles in
+     * memory and spills the rest to {@code file}. The file is overwritten.
+     * @param rows the number of rows on the board.
+     * @param cols the number of columns on the board.
+     * @param file the spill file, or null to keep every tile in memory.
+     * @param maxResident the number of tiles to keep in memory when spilling.
+     * @throws IllegalArgumentException when the board has more tiles than an {@code int} can
+     * number.
+     */
+    TiledBoard(int rows, int cols, File file, int maxResident) {
+        long tileRows = ((long) rows + MASK) >> SHIFT;
+        long numTiles = tileRows * (((long) cols + MASK) >> SHIFT);
+        if (rows < 0 || cols < 0 || numTiles > Integer.MAX_VALUE - 8) {
+            throw new IllegalArgumentException();
+        } //if
+        this.rows = rows;
+        this.cols = cols;
+        this.tileCols = (cols + MASK) >> SHIFT;
+        this.tiles = new long[(int) numTiles][];
+        this.revealed = new int[(int) numTiles];
+        this.resident = 0;
+        if (file != null) {
+            try {
+                spill(file, maxResident);
+            } catch (IOException ioe) {
+                throw new UncheckedIOException(ioe);
+            } //try
+        } //if
+    } //Constructor
+
+    /**
+     * Start spilling tiles to {@code file} once more than {@code maxResident} are in memory.
+     * @param file the spill file.
+     * @param maxResident the number of tiles to keep in memory.
+     * @throws IOException when the file cannot be opened.
+     */
+    private void spill(File file, int maxResident) throws IOException {
+        this.spillFile = file;
+        this.channel = FileChannel.open(file.toPath(), StandardOpenOption.CREATE,
+                                        StandardOpenOption.READ, StandardOpenOption.WRITE,
+                                        StandardOpenOption.TRUNCATE_EXISTING);
+        this.segments = new LongBuffer[(tiles.length / TILES_PER_SEGMENT) + 1];
+        this.maxResident = Math.max(1, maxResident);
+        this.clock = new int[this.maxResident];
+        this.hand = 0;
+        this.used = new BitSet();
+        this.modified = new BitSet();
+        this.spilled = new BitSet();
+    } //method
+
+    /**
+     * Return the tile holding a square, reading it back from the spill file if it was dropped.
+     * The common case, a board that does not spill, is kept short so that it can be inlined.
+     * @param row the x value of the square.
+     * @param col the y value of the square.
+     * @param create true to create the tile if it has never been written.
+     * @return the tile, or null if it was never written and {@code create} is false.
+     */
+    private long[] tile(int row, int col, boolean create) {
+        int index = ((row >> SHIFT) * tileCols) + (col >> SHIFT);
+        long[] tile = tiles[index];
+        if (channel == null && (tile != null || !create)) {
+            return tile;
+        } //if
+        return fetch(index, create);
+    } //method
+
+    /**
+     * Create a tile, or bring a spilled tile back into memory, and note that it was used.
+     * @param index the number of the tile.
+     * @param create true to create the tile if it has never been written.
+     * @return the tile, or null if it was never written and {@code create} is false.
+     */
+    private long[] fetch(int index, boolean create) {
+        long[] tile = tiles[index];
+        if (channel == null) {
+            tile = new long[TILE_LONGS];
+            tiles[index] = tile;
+            resident++;
+            return tile;
+        } //if
+        if (tile == null) {
+            if (!spilled.get(index) && !create) {
+                return null;
+            } //if
+            tile = new long[TILE_LONGS];
+            if (spilled.get(index)) {
+                segment(index).get((index % TILES_PER_SEGMENT) * TILE_LONGS, tile);
+            } //if
+            admit(index, tile);
+        } //if
+        used.set(index);
+        return tile;
+    } //method
+
+    /**
+     * Return the tile holding a square so that it can be changed, and note that it must be
+     * written out before it is dropped.
+     * @param row the x value of the square.
+     * @param col the y value of the square.
+     * @param create true to create the tile if it has never been written.
+     * @return the tile, or null if it was never written and {@code create} is false.
+     */
+    private long[] changeTile(int row, int col, boolean create) {
+        long[] tile = tile(row, col, create);
+        if (tile != null && channel != null) {
+            modified.set(((row >> SHIFT) * tileCols) + (col >> SHIFT));
+        } //if
+        return tile;
+    } //method
+
+    /**
+     * Bring a tile into memory, first dropping another one if memory is full.
+     * @param index the number of the tile.
+     * @param tile the contents of the tile.
+     */
+    private void admit(int index, long[] tile) {
+        if (resident == maxResident) {
+            while (used.get(clock[hand])) {
+                used.clear(clock[hand]);
+                hand = (hand + 1) % maxResident;
+            } //while
+            int victim = clock[hand];
+            if (modified.get(victim)) {
+                segment(victim).put((victim % TILES_PER_SEGMENT) * TILE_LONGS, tiles[victim]);
+                modified.clear(victim);
+                spilled.set(victim);
+            } //if
+            tiles[victim] = null;
+            resident--;
+        } else {
+            hand = resident;
+        } //if else
+        clock[hand] = index;
+        hand = (hand + 1) % maxResident;
+        tiles[index] = tile;
+        resident++;
+    } //method
+
+    /**
+     * Return the part of the spill file that holds a tile, mapping it the first time.
+     * @param index the number of the tile.
+     * @return the mapped part of the file.
+     */
+    private LongBuffer segment(int index) {
+        int number = index / TILES_PER_SEGMENT;
+        if (segments[number] == null) {
+            long size = (long) TILES_PER_SEGMENT * TILE_BYTES;
+            try {
+                segments[number] = channel.map(FileChannel.MapMode.READ_WRITE, number * size,
+                                               size).asLongBuffer();
+            } catch (IOException ioe) {
+                throw new UncheckedIOException(ioe);
+            } //try
+        } //if
+        return segments[number];
+    } //method
+
+    /**
+     * Checks if a square holds a mine.
+     * @param row the x value of the square.
+     * @param col the y value of the square.
+     * @return true if there is a mine on the square.
+     */
+    boolean isMine(int row, int col) {
+        long[] tile = tile(row, col, false);
+        return tile != null && (tile[row & MASK] >>> (col & MASK) & 1) != 0;
+    } //method
+
+    /**
+     * Put a mine on a square or take one away. A mine put on a square that already holds one
+     * is an extra copy, and taking a mine away takes an extra copy first if there is one.
+     * @param row the x value of the square.
+     * @param col the y value of the square.
+     * @param mine true to put a mine on the square.
+     */
+    void setMine(int row, int col, boolean mine) {
+        Long square = ((long) row * cols) + col;
+        if (mine && isMine(row, col)) {
+            if (extraMines == null) {
+                extraMines = new HashMap<>();
+            } //if
+            extraMines.merge(square, 1, Integer::sum);
+            return;
+        } //if
+        if (!mine && extraMines != null && extraMines.containsKey(square)) {
+            extraMines.computeIfPresent(square, (key, copies) -> copies == 1 ? null : copies - 1);
+            return;
+        } //if
+        long[] tile = changeTile(row, col, mine);
+        if (tile != null) {
+            if (mine) {
+                tile[row & MASK] |= 1L << (col & MASK);
+            } else {
+                tile[row & MASK] &= ~(1L << (col & MASK));
+            } //if else
+        } //if
+    } //method
+
+    /**
+     * Put a mine on every square listed in {@code mines}, given as {@code row, col} pairs laid
+     * out one after another. When the board spills, the list is gone through once for each band
+     * of tile rows that fits in memory, and only the mines in that band are placed, so every
+     * tile is written out at most once instead of every time a mine lands on it.
+     * @param mines the mines.
+     */
+    void setMines(int[] mines) {
+        int band = rows;
+        if (channel != null) {
+            band = Math.max(1, maxResident / tileCols) << SHIFT;
+        } //if
+        for (int first = 0; first < rows; first += band) {
+            int last = (int) Math.min((long) first + band, rows);
+            for (int i = 0; i < mines.length; i += 2) {
+                if (mines[i] >= first && mines[i] < last) {
+                    setMine(mines[i], mines[i + 1], true);
+                } //if
+            } //for
+        } //for
+    } //method
+
+    /**
+     * Return the state of a square.
+     * @param row the x value of the square.
+     * @param col the y value of the square.
+     * @return one of the state constants of {@code MinesweeperGame}.
+     */
+    byte getState(int row, int col) {
+        long[] tile = tile(row, col, false);
+        if (tile == null) {
+            return MinesweeperGame.HIDDEN;
+        } //if
+        int line = row & MASK;
+        int bit = col & MASK;
+        return (byte) ((tile[LOW + line] >>> bit & 1) | ((tile[HIGH + line] >>> bit & 1) << 1));
+    } //method
+
+    /**
+     * Set the state of a square.
+     * @param row the x value of the square.
+     * @param col the y value of the square.
+     * @param state one of the state constants of {@code MinesweeperGame}.
+     */
+    void setState(int row, int col, byte state) {
+        long[] tile = changeTile(row, col, state != MinesweeperGame.HIDDEN);
+        if (tile != null) {
+            int line = row & MASK;
+            long bit = 1L << (col & MASK);
+            boolean was = (tile[LOW + line] & bit) != 0 && (tile[HIGH + line] & bit) == 0;
+            if (was != (state == MinesweeperGame.REVEALED)) {
+                revealed[((row >> SHIFT) * tileCols) + (col >> SHIFT)] += was ? -1 : 1;
+            } //if
+            tile[LOW + line] = (state & 1) != 0 ? tile[LOW + line] | bit : tile[LOW + line] & ~bit;
+            tile[HIGH + line] = (state & 2) != 0 ? tile[HIGH + line] | bit
+                : tile[HIGH + line] & ~bit;
+        } //if
+    } //method
+
+    /**
+     * Copy the state of every square into {@code squares}, one byte for each square numbered
+     * {@code row * cols + col}, which must all be hidden to begin with. Only the tiles that have
+     * been written are gone through, and a spilled tile is read straight from the spill file
+     * without bringing it back into memory.
+     * @param squares the states, with room for every square of the board.
+     */
+    void getStates(byte[] squares) {
+        long[] scratch = new long[TILE_LONGS];
+        for (int index = 0; index < tiles.length; index++) {
+            long[] tile = peek(index, scratch);
+            if (tile == null) {
+                continue;
+            } //if
+            int top = (index / tileCols) << SHIFT;
+            int left = (index % tileCols) << SHIFT;
+            int lines = Math.min(SIZE, rows - top);
+            int width = Math.min(SIZE, cols - left);
+            for (int i = 0; i < lines; i++) {
+                long low = tile[LOW + i];
+                long high = tile[HIGH + i];
+                if ((low | high) == 0) {
+                    continue;
+                } //if
+                int base = ((top + i) * cols) + left;
+                for (int bit = 0; bit < width; bit++) {
+                    squares[base + bit] = (byte) ((low >>> bit & 1) | ((high >>> bit & 1) << 1));
+                } //for
+            } //for
+        } //for
+    } //method
+
+    /**
+     * Set the state of every square from {@code squares}, laid out as by {@link
+     * #getStates(byte[])}. A tile that has never been written is left alone when all of its
+     * squares are to be hidden.
+     * @param squares the states of every square of the board.
+     */
+    void setStates(byte[] squares) {
+        long[] low = new long[SIZE];
+        long[] high = new long[SIZE];
+        for (int index = 0; index < tiles.length; index++) {
+            int top = (index / tileCols) << SHIFT;
+            int left = (index % tileCols) << SHIFT;
+            int lines = Math.min(SIZE, rows - top);
+            int width = Math.min(SIZE, cols - left);
+            boolean shown = false;
+            int count = 0;
+            for (int i = 0; i < lines; i++) {
+                int base = ((top + i) * cols) + left;
+                low[i] = 0;
+                high[i] = 0;
+                for (int bit = 0; bit < width; bit++) {
+                    low[i] |= (long) (squares[base + bit] & 1) << bit;
+                    high[i] |= (long) (squares[base + bit] >> 1 & 1) << bit;
+                } //for
+                shown |= (low[i] | high[i]) != 0;
+                count += Long.bitCount(low[i] & ~high[i]);
+            } //for
+            long[] tile = changeTile(top, left, shown);
+            if (tile != null) {
+                System.arraycopy(low, 0, tile, LOW, lines);
+                System.arraycopy(high, 0, tile, HIGH, lines);
+            } //if
+            revealed[index] = count;
+        } //for
+    } //method
+
+    /**
+     * Count the squares in a state that do or do not hold a mine, going through only the tiles
+     * that have been written, as {@link #getStates(byte[])} does.
+     * @param state one of the state constants of {@code MinesweeperGame} other than
+     * {@code HIDDEN}.
+     * @param mine true to count the squares with a mine, false the ones without.
+     * @return the number of squares.
+     */
+    long countStates(byte state, boolean mine) {
+        long[] scratch = new long[TILE_LONGS];
+        long count = 0;
+        for (int index = 0; index < tiles.length; index++) {
+            long[] tile = peek(index, scratch);
+            for (int i = 0; tile != null && i < SIZE; i++) {
+                long low = (state & 1) != 0 ? tile[LOW + i] : ~tile[LOW + i];
+                long high = (state & 2) != 0 ? tile[HIGH + i] : ~tile[HIGH + i];
+                count += Long.bitCount(low & high & (mine ? tile[i] : ~tile[i]));
+            } //for
+        } //for
+        return count;
+    } //method
+
+    /**
+     * Return a tile as it is now without noting that it was used: the tile itself if it is in
+     * memory, or its contents read from the spill file into {@code scratch} if it was dropped.
+     * @param index the number of the tile.
+     * @param scratch room for a tile.
+     * @return the tile, or null if it was never written.
+     */
+    private long[] peek(int index, long[] scratch) {
+        long[] tile = tiles[index];
+        if (tile == null && channel != null && spilled.get(index)) {
+            segment(index).get((index % TILES_PER_SEGMENT) * TILE_LONGS, scratch);
+            tile = scratch;
+        } //if
+        return tile;
+    } //method
+
+    /**
+     * Count the mines touching a square, not counting the square itself.
+     * @param row the x value of the square.
+     * @param col the y value of the square.
+     * @return the number of mines touching the square.
+     */
+    int countAdjacentMines(int row, int col) {
+        int extra = extraMines == null || extraMines.isEmpty() ? 0 : countExtraMines(row, col);
+        int line = row & MASK;
+        int bit = col & MASK;
+        if (line != 0 && line != MASK && bit != 0 && bit != MASK) {
+            long[] tile = tile(row, col, false);
+            if (tile == null) {
+                return 0;
+            } //if
+            return extra + Long.bitCount((tile[line - 1] >>> (bit - 1)) & 7)
+                + Long.bitCount((tile[line] >>> (bit - 1)) & 5)
+                + Long.bitCount((tile[line + 1] >>> (bit - 1)) & 7);
+        } //if
+        int count = isMine(row, col) ? -1 : 0;
+        for (int x = Math.max(0, row - 1); x <= Math.min(rows - 1, row + 1); x++) {
+            if (bit != 0 && bit != MASK) {
+                long[] tile = tile(x, col, false);
+                if (tile != null) {
+                    count += Long.bitCount((tile[x & MASK] >>> (bit - 1)) & 7);
+                } //if
+            } else {
+                for (int y = Math.max(0, col - 1); y <= Math.min(cols - 1, col + 1); y++) {
+                    count += isMine(x, y) ? 1 : 0;
+                } //for
+            } //if else
+        } //for
+        return extra + count;
+    } //method
+
+    /**
+     * Count the extra copies of mines on the squares touching a square.
+     * @param row the x value of the square.
+     * @param col the y value of the square.
+     * @return the number of extra copies touching the square.
+     */
+    private int countExtraMines(int row, int col) {
+        int count = 0;
+        for (int x = Math.max(0, row - 1); x <= Math.min(rows - 1, row + 1); x++) {
+            for (int y = Math.max(0, col - 1); y <= Math.min(cols - 1, col + 1); y++) {
+                if (x != row || y != col) {
+                    count += extraMines.getOrDefault(((long) x * cols) + y, 0);
+                } //if
+            } //for
+        } //for
+        return count;
+    } //method
+
+    /**
+     * Reveal the open area around a square that has just been revealed and has no mines
+     * touching it, exactly as if its neighbors were visited breadth first: every neighbor that
+     * is hidden or guessed is revealed, and the same is done again from each one that has no
+     * mines touching it either. Marked squares and squares that were already revealed are left
+     * alone and are not looked past.
+     *
+     * <p>
+     * When none of the neighbors has to be looked past, they are simply revealed one by one.
+     * Otherwise each tile the area reaches is handled as a whole. The squares of the tile that
+     * are to be revealed because a neighbor said so are gathered first; the ones among them
+     * with no mines touching them grow, within the tile, into all the squares with no mines
+     * touching them that they connect to; then everything next to that area is revealed at
+     * once, and the squares next to it in other tiles are handed on to those tiles. A tile is
+     * handled again if the area comes back into it later.
+     * @param row the x value of the square.
+     * @param col the y value of the square.
+     * @param changed called with the number, {@code row * cols + col}, of every square that is
+     * revealed, or null.
+     * @return the number of squares revealed, not counting the starting square.
+     */
+    long cascade(int row, int col, IntConsumer changed) {
+        if (touched == null) {
+            touched = new HashMap<>();
+            pending = new ArrayDeque<>();
+            spare = new ArrayDeque<>();
+            mineRows = new long[3 * (SIZE + 2)];
+            open = new long[SIZE];
+            clear = new long[SIZE];
+            area = new long[SIZE];
+        } //if
+        int firstRow = Math.max(0, row - 1);
+        int lastRow = Math.min(rows - 1, row + 1);
+        int firstCol = Math.max(0, col - 1);
+        int lastCol = Math.min(cols - 1, col + 1);
+        boolean spreads = false;
+        for (int x = firstRow; x <= lastRow && !spreads; x++) {
+            for (int y = firstCol; y <= lastCol; y++) {
+                byte state = getState(x, y);
+                if (state != MinesweeperGame.REVEALED && state != MinesweeperGame.MARKED
+                    && countAdjacentMines(x, y) == 0) {
+                    spreads = true;
+                } //if
+            } //for
+        } //for
+        long count = 0;
+        for (int x = firstRow; x <= lastRow; x++) {
+            for (int y = firstCol; y <= lastCol; y++) {
+                byte state = getState(x, y);
+                if (state == MinesweeperGame.REVEALED || state == MinesweeperGame.MARKED) {
+                    continue;
+                } else if (spreads) {
+                    touch(x, y >> SHIFT, 1L << (y & MASK));
+                } else {
+                    setState(x, y, MinesweeperGame.REVEALED);
+                    count++;
+                    if (changed != null) {
+                        changed.accept((x * cols) + y);
+                    } //if
+                } //if else
+            } //for
+        } //for
+        while (!pending.isEmpty()) {
+            count += cascadeTile(pending.poll(), changed);
+        } //while
+        return count;
+    } //method
+
+    /**
+     * Ask for squares of one row of a tile to be revealed by {@link #cascade(int, int,
+     * IntConsumer)}, queueing the tile if it is not queued already. Rows off the board are
+     * ignored.
+     * @param row the x value of the squares.
+     * @param tileCol the column of the tile.
+     * @param bits one bit for each square of the tile row.
+     */
+    private void touch(int row, int tileCol, long bits) {
+        if (bits == 0 || row < 0 || row >= rows || tileCol < 0 || tileCol >= tileCols) {
+            return;
+        } //if
+        int index = ((row >> SHIFT) * tileCols) + tileCol;
+        long[] lines = touched.get(index);
+        if (lines == null) {
+            lines = spare.isEmpty() ? new long[SIZE] : spare.pop();
+            touched.put(index, lines);
+            pending.add(index);
+        } //if
+        lines[row & MASK] |= bits;
+    } //method
+
+    /**
+     * Handle one tile of a cascade, as described at {@link #cascade(int, int, IntConsumer)}.
+     * @param index the number of the tile.
+     * @param changed called with the number of every square revealed, or null.
+     * @return the number of squares revealed in the tile.
+     */
+    private long cascadeTile(int index, IntConsumer changed) {
+        long[] asked = touched.remove(index);
+        int tileRow = index / tileCols;
+        int tileCol = index % tileCols;
+        int top = tileRow << SHIFT;
+        int left = tileCol << SHIFT;
+        int lines = Math.min(SIZE, rows - top);
+        long valid = cols - left >= SIZE ? -1L : (1L << (cols - left)) - 1;
+
+        Arrays.fill(mineRows, 0);
+        for (int side = -1; side <= 1; side++) {
+            int c = (tileCol + side) << SHIFT;
+            if (c < 0 || c >= cols) {
+                continue;
+            } //if
+            int base = (side + 1) * (SIZE + 2);
+            long[] tile = top > 0 ? tile(top - 1, c, false) : null;
+            if (tile != null) {
+                mineRows[base] = tile[MASK];
+            } //if
+            tile = tile(top, c, false);
+            if (tile != null) {
+                System.arraycopy(tile, 0, mineRows, base + 1, lines);
+            } //if
+            tile = top + lines < rows ? tile(top + lines, c, false) : null;
+            if (tile != null) {
+                mineRows[base + lines + 1] = tile[0];
+            } //if
+        } //for
+
+        long[] tile = tile(top, left, false);
+        long above = spreadMines(0);
+        long here = spreadMines(1);
+        boolean seeded = false;
+        for (int i = 0; i < lines; i++) {
+            long below = spreadMines(i + 2);
+            open[i] = (tile == null ? -1L : ~(tile[LOW + i] ^ tile[HIGH + i])) & valid;
+            clear[i] = open[i] & ~(above | here | below);
+            area[i] = asked[i] & clear[i];
+            seeded |= area[i] != 0;
+            above = here;
+            here = below;
+        } //for
+        if (seeded) {
+            grow(lines);
+        } //if
+
+        long count = 0;
+        long[] write = null;
+        for (int i = 0; i < lines; i++) {
+            long reveal = asked[i] | spread(area[i]);
+            if (i > 0) {
+                reveal |= spread(area[i - 1]);
+            } //if
+            if (i + 1 < lines) {
+                reveal |= spread(area[i + 1]);
+            } //if
+            reveal &= open[i];
+            if (reveal != 0) {
+                if (write == null) {
+                    write = changeTile(top, left, true);
+                } //if
+                write[LOW + i] |= reveal;
+                write[HIGH + i] &= ~reveal;
+                count += Long.bitCount(reveal);
+                for (long bits = reveal; changed != null && bits != 0; bits &= bits - 1) {
+                    changed.accept(((top + i) * cols) + left + Long.numberOfTrailingZeros(bits));
+                } //for
+            } //if
+        } //for
+
+        if (seeded) {
+            touch(top - 1, tileCol, spread(area[0]));
+            if (lines == SIZE) {
+                touch(top + SIZE, tileCol, spread(area[MASK]));
+            } //if
+            for (int i = 0; i < lines; i++) {
+                for (int x = top + i - 1; x <= top + i + 1; x++) {
+                    if ((area[i] & 1) != 0) {
+                        touch(x, tileCol - 1, 1L << MASK);
+                    } //if
+                    if (area[i] < 0) {
+                        touch(x, tileCol + 1, 1L);
+                    } //if
+                } //for
+            } //for
+        } //if
+        revealed[index] += (int) count;
+        Arrays.fill(asked, 0);
+        spare.push(asked);
+        return count;
+    } //method
+
+    /**
+     * Return row {@code line - 1} of the tile being cascaded with every mine spread one square
+     * to the left and right, taking the mines at the edges of the tiles beside it into account.
+     * @param line the row in {@code mineRows}, from 0 for the row above the tile.
+     * @return one bit for each square of the row that is next to or on a mine.
+     */
+    private long spreadMines(int line) {
+        return spread(mineRows[(SIZE + 2) + line]) | (mineRows[line] >>> MASK)
+            | (mineRows[(2 * (SIZE + 2)) + line] << MASK);
+    } //method
+
+    /**
+     * Grow the {@code area} of a tile into every square of {@code clear} that it connects to,
+     * sweeping down the rows and back up until nothing changes. The {@code clear} squares are
+     * the hidden or guessed ones with no mines touching them.
+     * @param lines the number of rows of the tile that are on the board.
+     */
+    private void grow(int lines) {
+        boolean growing = true;
+        while (growing) {
+            growing = false;
+            for (int pass = 0; pass < 2; pass++) {
+                for (int n = 0; n < lines; n++) {
+                    int i = pass == 0 ? n : lines - 1 - n;
+                    if (clear[i] == 0) {
+                        continue;
+                    } //if
+                    long seeds = area[i];
+                    if (i > 0) {
+                        seeds |= spread(area[i - 1]);
+                    } //if
+                    if (i + 1 < lines) {
+                        seeds |= spread(area[i + 1]);
+                    } //if
+                    long grown = fill(seeds & clear[i], clear[i]);
+                    if (grown != area[i]) {
+                        area[i] = grown;
+                        growing = true;
+                    } //if
+                } //for
+            } //for
+        } //while
+    } //method
+
+    /**
+     * Return the squares of a row and the squares on either side of them.
+     * @param bits one bit for each square of the row.
+     * @return the bits spread one square to the left and right.
+     */
+    private static long spread(long bits) {
+        return bits | (bits << 1) | (bits >>> 1);
+    } //method
+
+    /**
+     * Grow {@code seeds} to the left and right along the runs of {@code through} that they are
+     * in, with an occluded fill that doubles the distance covered at each step.
+     * @param seeds the squares to grow from, all in {@code through}.
+     * @param through the squares that may be grown into.
+     * @return every square of {@code through} connected to a seed along the row.
+     */
+    private static long fill(long seeds, long through) {
+        long up = seeds;
+        long down = seeds;
+        long upThrough = through;
+        long downThrough = through;
+        for (int shift = 1; shift < SIZE; shift <<= 1) {
+            up |= upThrough & (up << shift);
+            upThrough &= upThrough << shift;
+            down |= downThrough & (down >>> shift);
+            downThrough &= downThrough >>> shift;
+        } //for
+        return up | down;
+    } //method
+
+    /**
+     * Return the number of rows of tiles.
+     * @return the number of rows of tiles.
+     */
+    int getTileRows() {
+        return (rows + MASK) >> SHIFT;
+    } //method
+
+    /**
+     * Return the number of columns of tiles.
+     * @return the number of columns of tiles.
+     */
+    int getTileCols() {
+        return tileCols;
+    } //method
+
+    /**
+     * Return the number of revealed squares in a tile.
+     * @param tileRow the row of the tile.
+     * @param tileCol the column of the tile.
+     * @return the number of revealed squares in the tile.
+     */
+    int getRevealed(int tileRow, int tileCol) {
+        return revealed[(tileRow * tileCols) + tileCol];
+    } //method
+
+    /**
+     * Return the number of tiles held in memory.
+     * @return the number of tiles in memory.
+     */
+    int getResidentTiles() {
+        return resident;
+    } //method
+
+    /**
+     * Return the spill file, if the board spills.
+     * @return the spill file, or null.
+     */
+    File getSpillFile() {
+        return spillFile;
+    } //method
+} //class
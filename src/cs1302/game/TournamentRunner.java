@@ -0,0 +1,625 @@
+package cs1302.game;
+
+import cs1302.game.MinesweeperGame;
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileNotFoundException;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.io.StringReader;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * This class represents a TournamentRunner object. A {@code TournamentRunner} plays every
+ * command script against every seed inside one JVM and ranks the scripts, the players of the
+ * tournament, by how well they scored. Seeds and scripts are each given as a directory, in
+ * which every file counts, or as a single file. Each game is run headless exactly as
+ * {@link ReplayRunner} runs one, except that the save and load commands are turned off, so
+ * that games cannot read or overwrite each other's files and every result is the same as
+ * playing that seed and script on its own with --seed.
+ *
+ * <p>
+ * The games are split in halves over and over by a {@code ForkJoinPool}, so idle threads
+ * steal whole ranges of games from busy ones, and a game shares nothing with the others but
+ * the script, which is read once. Results are written in seed and then script order as soon
+ * as every game before them has finished, to a CSV file, to a JSON file, or both, and leave out
+ * the time taken so that the files are the same on every run. Once all games have finished,
+ * the ranking of the scripts and percentiles of the scores and rounds are written to the JSON
+ * file and printed as a summary.
+ *
+ * <p>
+ * A game only scores {@code 100.0 * rows * cols / rounds} if it was won, as on the win screen,
+ * and 0 otherwise. Scripts are ranked by their mean score over every seed that could be
+ * played, then by the number of games won; scripts tied on both share a rank. Sums are taken
+ * in seed order, so they do not depend on the order in which the games finished.
+ */
+public class TournamentRunner {
+    private static final double[] PERCENTILES = {0.5, 0.9, 0.99};
+
+    private File seeds;
+    private File scripts;
+    private int threads;
+    private File csvFile;
+    private File jsonFile;
+
+    private String[] seedNames;
+    private String[] scriptNames;
+    private String[] scriptText;
+
+    /**
+     * Constructs a {@code TournamentRunner} that plays the scripts in {@code scripts} against
+     * the seeds in {@code seeds}.
+     * @param seeds a seed, or a directory of seeds.
+     * @param scripts a command script, or a directory of command scripts.
+     * @param threads the number of games to play at the same time.
+     */
+    public TournamentRunner(File seeds, File scripts, int threads) {
+        this.seeds = seeds;
+        this.scripts = scripts;
+        this.threads = threads;
+    } //Constructor
+
+    /**
+     * Write the result of every game to {@code file} as CSV, with a header line.
+     * @param file the CSV file.
+     */
+    public void writeCsv(File file) {
+        this.csvFile = file;
+    } //method
+
+    /**
+     * Write the result of every game, the ranking and the percentiles to {@code file} as one
+     * JSON object.
+     * @param file the JSON file.
+     */
+    public void writeJson(File file) {
+        this.jsonFile = file;
+    } //method
+
+    /**
+     * Play every script against every seed, write the results and print the summary to
+     * {@code out}.
+     * @param out where the summary is printed.
+     * @return the number of games that could not be played because of a bad seed or because
+     * the game failed.
+     * @throws IOException when a directory cannot be listed, a script cannot be read or a
+     * result file cannot be written.
+     */
+    public int run(PrintStream out) throws IOException {
+        seedNames = list(seeds);
+        scriptNames = list(scripts);
+        scriptText = new String[scriptNames.length];
+        for (int i = 0; i < scriptNames.length; i++) {
+            File script = file(scripts, scriptNames[i]);
+            scriptText[i] = new String(Files.readAllBytes(script.toPath()),
+                                       StandardCharsets.UTF_8);
+        } //for
+        int games = seedNames.length * scriptNames.length;
+        Result[] results = new Result[games];
+        @SuppressWarnings({"unchecked", "rawtypes"})
+        CompletableFuture<Result>[] done = new CompletableFuture[games];
+        for (int i = 0; i < games; i++) {
+            done[i] = new CompletableFuture<>();
+        } //for
+
+        ForkJoinPool pool = new ForkJoinPool(threads);
+        long start = System.nanoTime();
+        pool.execute(new Games(0, games, done));
+        Writer csv = null;
+        Writer json = null;
+        try {
+            if (csvFile != null) {
+                csv = new BufferedWriter(new FileWriter(csvFile));
+            } //if
+            if (jsonFile != null) {
+                json = new BufferedWriter(new FileWriter(jsonFile));
+            } //if
+            if (csv != null) {
+                csv.write("seed,script,outcome,rounds,score,error\n");
+            } //if
+            if (json != null) {
+                json.write("{\"games\": [");
+            } //if
+            for (int i = 0; i < games; i++) {
+                try {
+                    results[i] = done[i].join();
+                } catch (CompletionException ce) {
+                    results[i] = new Result(i / scriptNames.length, i % scriptNames.length);
+                    results[i].error = "game failed: " + ce.getCause();
+                } //try
+                if (csv != null) {
+                    writeCsvRow(csv, results[i]);
+                } //if
+                if (json != null) {
+                    json.write(i == 0 ? "\n  " : ",\n  ");
+                    writeJsonGame(json, results[i]);
+                } //if
+            } //for
+            long wallTime = System.nanoTime() - start;
+            Standing[] standings = rank(results);
+            if (json != null) {
+                json.write("\n ],\n \"rankings\": [");
+                for (int i = 0; i < standings.length; i++) {
+                    json.write(i == 0 ? "\n  " : ",\n  ");
+                    writeJsonStanding(json, standings[i]);
+                } //for
+                json.write("\n ],\n \"stats\": ");
+                writeJsonStats(json, results);
+                json.write("\n}\n");
+            } //if
+            return printSummary(out, results, standings, wallTime);
+        } finally {
+            pool.shutdown();
+            if (csv != null) {
+                csv.close();
+            } //if
+            if (json != null) {
+                json.close();
+            } //if
+        } //try
+    } //method
+
+    /**
+     * List the files a tournament is played with: {@code path} itself if it is a file,
+     * otherwise every file in it.
+     * @param path a file or a directory.
+     * @return the names of the files, sorted so the results are always in the same order.
+     * @throws IOException when the directory cannot be listed or holds no files.
+     */
+    private static String[] list(File path) throws IOException {
+        if (path.isFile()) {
+            return new String[] {path.getName()};
+        } //if
+        String[] files = path.list();
+        if (files == null) {
+            throw new IOException(path + " cannot be listed");
+        } //if
+        List<String> names = new ArrayList<>();
+        for (int i = 0; i < files.length; i++) {
+            if (new File(path, files[i]).isFile()) {
+                names.add(files[i]);
+            } //if
+        } //for
+        if (names.isEmpty()) {
+            throw new IOException(path + " holds no files");
+        } //if
+        String[] sorted = names.toArray(new String[0]);
+        Arrays.sort(sorted);
+        return sorted;
+    } //method
+
+    /**
+     * Return the file called {@code name} that was listed from {@code path}.
+     * @param path the file or directory given for the seeds or the scripts.
+     * @param name the name of the file.
+     * @return the file.
+     */
+    private static File file(File path, String name) {
+        return path.isFile() ? path : new File(path, name);
+    } //method
+
+    /**
+     * The games of a tournament numbered {@code from} up to {@code to}, game {@code i} being
+     * script {@code i % scripts} against seed {@code i / scripts}. A range of more than one
+     * game is split in two halves that are played as separate tasks.
+     */
+    private class Games extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        private int from;
+        private int to;
+        private transient CompletableFuture<Result>[] done;
+
+        /**
+         * Constructs the {@code Games} numbered {@code from} up to {@code to}.
+         * @param from the number of the first game.
+         * @param to the number after the last game.
+         * @param done where the result of each game is handed over.
+         */
+        Games(int from, int to, CompletableFuture<Result>[] done) {
+            this.from = from;
+            this.to = to;
+            this.done = done;
+        } //Constructor
+
+        /**
+         * Play the games, or split them in two and play both halves. A game that fails hands
+         * its exception over instead of a result.
+         */
+        @Override
+        protected void compute() {
+            if (to - from == 1) {
+                try {
+                    done[from].complete(play(from / scriptNames.length,
+                                             from % scriptNames.length));
+                } catch (RuntimeException re) {
+                    done[from].completeExceptionally(re);
+                } //try
+                return;
+            } //if
+            int middle = (from + to) >>> 1;
+            invokeAll(new Games(from, middle, done), new Games(middle, to, done));
+        } //method
+    } //class
+
+    /**
+     * Play one script against one seed headless and time it. Problems with the seed are
+     * recorded in the result instead of being thrown. Anything thrown while the game is played
+     * is left to the caller, which records the game as failed.
+     * @param seed the number of the seed.
+     * @param script the number of the script.
+     * @return the result of the game.
+     */
+    private Result play(int seed, int script) {
+        Result result = new Result(seed, script);
+        long start = System.nanoTime();
+        MinesweeperGame game = null;
+        try {
+            game = new MinesweeperGame(file(seeds, seedNames[seed]).getPath(),
+                                       new StringReader(scriptText[script]), null);
+        } catch (FileNotFoundException fnfe) {
+            result.error = "seed cannot be read";
+        } catch (NumberFormatException | NoSuchElementException ex) {
+            result.error = "seed is not formatted correctly";
+        } catch (IllegalArgumentException iae) {
+            result.error = "grid is smaller than 5 x 5";
+        } catch (ArrayIndexOutOfBoundsException aiobe) {
+            result.error = "more mines than squares";
+        } //try
+        if (game != null) {
+            game.disableFileCommands();
+            result.outcome = game.run();
+            result.rounds = game.getRounds();
+            result.score = result.outcome == MinesweeperGame.Outcome.WON ? game.getScore() : 0.0;
+        } //if
+        result.nanos = System.nanoTime() - start;
+        return result;
+    } //method
+
+    /**
+     * Add up the results of every script and rank the scripts.
+     * @param results the result of every game, in order.
+     * @return the standing of every script, best first.
+     */
+    private Standing[] rank(Result[] results) {
+        Standing[] standings = new Standing[scriptNames.length];
+        for (int i = 0; i < standings.length; i++) {
+            standings[i] = new Standing(scriptNames[i], seedNames.length);
+        } //for
+        for (int i = 0; i < results.length; i++) {
+            Result result = results[i];
+            Standing standing = standings[result.script];
+            if (result.outcome == null) {
+                continue;
+            } //if
+            standing.scores[standing.played++] = result.score;
+            standing.total += result.score;
+            standing.rounds += result.rounds;
+            if (result.outcome == MinesweeperGame.Outcome.WON) {
+                standing.won++;
+            } //if
+        } //for
+        for (int i = 0; i < standings.length; i++) {
+            standings[i].scores = Arrays.copyOf(standings[i].scores, standings[i].played);
+            Arrays.sort(standings[i].scores);
+        } //for
+        Arrays.sort(standings, (a, b) -> {
+            int order = Double.compare(b.mean(), a.mean());
+            if (order == 0) {
+                order = Integer.compare(b.won, a.won);
+            } //if
+            return order != 0 ? order : a.name.compareTo(b.name);
+        });
+        for (int i = 0; i < standings.length; i++) {
+            Standing previous = i == 0 ? null : standings[i - 1];
+            if (previous != null && Double.compare(previous.mean(), standings[i].mean()) == 0
+                && previous.won == standings[i].won) {
+                standings[i].rank = previous.rank;
+            } else {
+                standings[i].rank = i + 1;
+            } //if else
+        } //for
+        return standings;
+    } //method
+
+    /**
+     * Print the ranking, the percentiles and the totals.
+     * @param out where the summary is printed.
+     * @param results the result of every game.
+     * @param standings the standing of every script, best first.
+     * @param wallTime the time it took to play every game.
+     * @return the number of games that could not be played.
+     */
+    private int printSummary(PrintStream out, Result[] results, Standing[] standings,
+                             long wallTime) {
+        out.printf("%-5s %-24s %7s %6s %12s %12s %12s %12s%n", "rank", "script", "played",
+                   "won", "mean score", "p50 score", "p90 score", "mean rounds");
+        for (int i = 0; i < standings.length; i++) {
+            Standing standing = standings[i];
+            out.printf("%-5d %-24s %7d %6d %12.2f %12.2f %12.2f %12.1f%n", standing.rank,
+                       standing.name, standing.played, standing.won, standing.mean(),
+                       percentile(standing.scores, 0.5), percentile(standing.scores, 0.9),
+                       standing.played == 0 ? 0.0 : (double) standing.rounds / standing.played);
+        } //for
+
+        int[] outcomes = new int[MinesweeperGame.Outcome.values().length];
+        int invalid = 0;
+        long[] nanos = new long[results.length];
+        for (int i = 0; i < results.length; i++) {
+            if (results[i].outcome == null) {
+                invalid++;
+            } else {
+                outcomes[results[i].outcome.ordinal()]++;
+            } //if else
+            nanos[i] = results[i].nanos;
+        } //for
+        Arrays.sort(nanos);
+        double[] won = wonScores(results);
+        double[] rounds = playedRounds(results);
+        out.printf("%ngames: %d", results.length);
+        for (MinesweeperGame.Outcome outcome : MinesweeperGame.Outcome.values()) {
+            out.printf(", %s: %d", outcome.toString().toLowerCase(), outcomes[outcome.ordinal()]);
+        } //for
+        out.printf(", invalid: %d%n", invalid);
+        for (int i = 0; i < PERCENTILES.length; i++) {
+            out.printf("p%s: score of won games %.2f, rounds %.0f, game %.3f ms%n",
+                       label(PERCENTILES[i]), percentile(won, PERCENTILES[i]),
+                       percentile(rounds, PERCENTILES[i]),
+                       nanos.length == 0 ? 0.0
+                       : nanos[index(nanos.length, PERCENTILES[i])] / 1e6);
+        } //for
+        out.printf("threads: %d, wall time: %.3f ms, games per second: %.0f%n", threads,
+                   wallTime / 1e6, results.length / (wallTime / 1e9));
+        return invalid;
+    } //method
+
+    /**
+     * Return the scores of the games that were won, sorted.
+     * @param results the result of every game.
+     * @return the scores.
+     */
+    private static double[] wonScores(Result[] results) {
+        double[] scores = new double[results.length];
+        int count = 0;
+        for (int i = 0; i < results.length; i++) {
+            if (results[i].outcome == MinesweeperGame.Outcome.WON) {
+                scores[count++] = results[i].score;
+            } //if
+        } //for
+        scores = Arrays.copyOf(scores, count);
+        Arrays.sort(scores);
+        return scores;
+    } //method
+
+    /**
+     * Return the rounds of the games that could be played, sorted.
+     * @param results the result of every game.
+     * @return the rounds.
+     */
+    private static double[] playedRounds(Result[] results) {
+        double[] rounds = new double[results.length];
+        int count = 0;
+        for (int i = 0; i < results.length; i++) {
+            if (results[i].outcome != null) {
+                rounds[count++] = results[i].rounds;
+            } //if
+        } //for
+        rounds = Arrays.copyOf(rounds, count);
+        Arrays.sort(rounds);
+        return rounds;
+    } //method
+
+    /**
+     * Return the nearest rank percentile of sorted values, 0 if there are none.
+     * @param sorted the values, smallest first.
+     * @param fraction the percentile as a fraction, such as 0.9.
+     * @return the percentile.
+     */
+    private static double percentile(double[] sorted, double fraction) {
+        return sorted.length == 0 ? 0.0 : sorted[index(sorted.length, fraction)];
+    } //method
+
+    /**
+     * Return the index of the nearest rank percentile among {@code count} sorted values.
+     * @param count the number of values, at least 1.
+     * @param fraction the percentile as a fraction.
+     * @return the index.
+     */
+    private static int index(int count, double fraction) {
+        return Math.max(0, (int) Math.ceil(fraction * count) - 1);
+    } //method
+
+    /**
+     * Return the name of a percentile, such as {@code 90} for 0.9.
+     * @param fraction the percentile as a fraction.
+     * @return the name.
+     */
+    private static String label(double fraction) {
+        return Integer.toString((int) Math.round(fraction * 100));
+    } //method
+
+    /**
+     * Write one result as a CSV line.
+     * @param csv the CSV file.
+     * @param result the result.
+     * @throws IOException when the file cannot be written.
+     */
+    private void writeCsvRow(Writer csv, Result result) throws IOException {
+        csv.write(csvField(seedNames[result.seed]));
+        csv.write(',');
+        csv.write(csvField(scriptNames[result.script]));
+        csv.write(',');
+        if (result.outcome == null) {
+            csv.write("INVALID,,," + csvField(result.error));
+        } else {
+            csv.write(result.outcome + "," + result.rounds + "," + result.score + ",");
+        } //if else
+        csv.write('\n');
+    } //method
+
+    /**
+     * Quote a CSV field if it holds a comma, a quote or a line break.
+     * @param value the field.
+     * @return the field as it is written.
+     */
+    private static String csvField(String value) {
+        if (value.indexOf(',') < 0 && value.indexOf('"') < 0 && value.indexOf('\n') < 0
+            && value.indexOf('\r') < 0) {
+            return value;
+        } //if
+        return '"' + value.replace("\"", "\"\"") + '"';
+    } //method
+
+    /**
+     * Write one result as a JSON object.
+     * @param json the JSON file.
+     * @param result the result.
+     * @throws IOException when the file cannot be written.
+     */
+    private void writeJsonGame(Writer json, Result result) throws IOException {
+        json.write("{\"seed\": " + jsonString(seedNames[result.seed]) + ", \"script\": "
+                   + jsonString(scriptNames[result.script]) + ", ");
+        if (result.outcome == null) {
+            json.write("\"outcome\": \"INVALID\", \"error\": " + jsonString(result.error) + "}");
+        } else {
+            json.write("\"outcome\": \"" + result.outcome + "\", \"rounds\": " + result.rounds
+                       + ", \"score\": " + result.score + "}");
+        } //if else
+    } //method
+
+    /**
+     * Write the standing of one script as a JSON object.
+     * @param json the JSON file.
+     * @param standing the standing.
+     * @throws IOException when the file cannot be written.
+     */
+    private static void writeJsonStanding(Writer json, Standing standing) throws IOException {
+        json.write("{\"rank\": " + standing.rank + ", \"script\": " + jsonString(standing.name)
+                   + ", \"played\": " + standing.played + ", \"won\": " + standing.won
+                   + ", \"totalScore\": " + standing.total + ", \"meanScore\": " + standing.mean()
+                   + ", \"totalRounds\": " + standing.rounds);
+        for (int i = 0; i < PERCENTILES.length; i++) {
+            json.write(", \"p" + label(PERCENTILES[i]) + "Score\": "
+                       + percentile(standing.scores, PERCENTILES[i]));
+        } //for
+        json.write("}");
+    } //method
+
+    /**
+     * Write the counts of each outcome and the percentiles of every game as a JSON object.
+     * @param json the JSON file.
+     * @param results the result of every game.
+     * @throws IOException when the file cannot be written.
+     */
+    private static void writeJsonStats(Writer json, Result[] results) throws IOException {
+        int[] outcomes = new int[MinesweeperGame.Outcome.values().length];
+        int invalid = 0;
+        for (int i = 0; i < results.length; i++) {
+            if (results[i].outcome == null) {
+                invalid++;
+            } else {
+                outcomes[results[i].outcome.ordinal()]++;
+            } //if else
+        } //for
+        json.write("{\"games\": " + results.length);
+        for (MinesweeperGame.Outcome outcome : MinesweeperGame.Outcome.values()) {
+            json.write(", \"" + outcome.toString().toLowerCase() + "\": "
+                       + outcomes[outcome.ordinal()]);
+        } //for
+        json.write(", \"invalid\": " + invalid);
+        double[] won = wonScores(results);
+        double[] rounds = playedRounds(results);
+        for (int i = 0; i < PERCENTILES.length; i++) {
+            json.write(", \"p" + label(PERCENTILES[i]) + "WonScore\": "
+                       + percentile(won, PERCENTILES[i]) + ", \"p" + label(PERCENTILES[i])
+                       + "Rounds\": " + (long) percentile(rounds, PERCENTILES[i]));
+        } //for
+        json.write("}");
+    } //method
+
+    /**
+     * Quote a string for JSON.
+     * @param value the string.
+     * @return the string in quotes, with quotes, backslashes and control characters escaped.
+     */
+    private static String jsonString(String value) {
+        StringBuilder quoted = new StringBuilder("\"");
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == '"' || c == '\\') {
+                quoted.append('\\').append(c);
+            } else if (c < 0x20) {
+                quoted.append(String.format("\\u%04x", (int) c));
+            } else {
+                quoted.append(c);
+            } //if else
+        } //for
+        return quoted.append('"').toString();
+    } //method
+
+    /**
+     * The outcome of one game. The {@code outcome} is null when the game could not be played,
+     * and {@code error} then says why.
+     */
+    private static class Result {
+        private int seed;
+        private int script;
+        private MinesweeperGame.Outcome outcome;
+        private String error;
+        private int rounds;
+        private double score;
+        private long nanos;
+
+        /**
+         * Constructs an empty {@code Result} for a script played against a seed.
+         * @param seed the number of the seed.
+         * @param script the number of the script.
+         */
+        Result(int seed, int script) {
+            this.seed = seed;
+            this.script = script;
+        } //Constructor
+    } //class
+
+    /**
+     * How one script did over every seed.
+     */
+    private static class Standing {
+        private String name;
+        private int rank;
+        private int played;
+        private int won;
+        private double total;
+        private long rounds;
+        private double[] scores;
+
+        /**
+         * Constructs an empty {@code Standing} for the script called {@code name}.
+         * @param name the name of the script.
+         * @param seeds the number of seeds it is played against.
+         */
+        Standing(String name, int seeds) {
+            this.name = name;
+            this.scores = new double[seeds];
+        } //Constructor
+
+        /**
+         * Return the mean score over the games that could be played.
+         * @return the mean score, 0 if no game could be played.
+         */
+        double mean() {
+            return played == 0 ? 0.0 : total / played;
+        } //method
+    } //class
+} //class